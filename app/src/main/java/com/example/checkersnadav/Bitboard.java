@@ -0,0 +1,149 @@
+package com.example.checkersnadav;
+
+/**
+ * Helpers for the 32-square bitboard representation used by the Board class.
+ * Only the dark squares of the board are playable, so each of them is mapped to a single bit of an int.
+ * Square indices run row by row: square = x * 4 + y / 2, where x is the row and y is the column of the square.
+ */
+public final class Bitboard
+{
+    public static final int SQUARES = 32; // The number of playable (dark) squares.
+    public static final int NONE = -1; // Marks a light square or a square outside the board.
+
+    // Diagonal directions, in the same order the board rules have always used: {1, 1}, {1, -1}, {-1, 1}, {-1, -1}.
+    public static final int[] DX = {1, 1, -1, -1};
+    public static final int[] DY = {1, -1, 1, -1};
+
+    public static final int EVEN_ROWS = 0x0F0F0F0F; // Squares on rows 0, 2, 4 and 6.
+    public static final int ODD_ROWS = 0xF0F0F0F0; // Squares on rows 1, 3, 5 and 7.
+    public static final int FIRST_COLUMN = 0x11111111; // The first playable square of every row.
+    public static final int LAST_COLUMN = 0x88888888; // The last playable square of every row.
+    public static final int WHITE_PROMOTION_ROW = 0xF0000000; // Row 7, where white pieces are promoted.
+    public static final int BLACK_PROMOTION_ROW = 0x0000000F; // Row 0, where black pieces are promoted.
+    public static final int WHITE_START = 0x00000FFF; // Rows 0-2.
+    public static final int BLACK_START = 0xFFF00000; // Rows 5-7.
+
+    private static final int[][] NEIGHBORS = new int[4][SQUARES]; // Diagonal neighbor of every square in every direction.
+    private static final int[] BETWEEN = new int[SQUARES * SQUARES]; // Squares strictly between two squares on a shared diagonal.
+
+    static
+    {
+        for (int square = 0; square < SQUARES; square++)
+        {
+            for (int dir = 0; dir < 4; dir++)
+            {
+                NEIGHBORS[dir][square] = squareOf(toX(square) + DX[dir], toY(square) + DY[dir]);
+
+                // Walk the diagonal and record the path to every square along it
+                int path = 0;
+                int cur = NEIGHBORS[dir][square];
+                while (cur != NONE)
+                {
+                    BETWEEN[square * SQUARES + cur] = path;
+                    path |= 1 << cur;
+                    cur = squareOf(toX(cur) + DX[dir], toY(cur) + DY[dir]);
+                }
+            }
+        }
+    }
+
+    private Bitboard()
+    {
+        // Static helpers only.
+    }
+
+    /**
+     * Converts board coordinates to a square index.
+     *
+     * @param x The x-coordinate (row) on the board.
+     * @param y The y-coordinate (column) on the board.
+     * @return The square index, or NONE if the coordinates are outside the board or on a light square.
+     */
+    public static int squareOf(int x, int y)
+    {
+        if (x < 0 || x >= Board.BOARD_SIZE || y < 0 || y >= Board.BOARD_SIZE || (x + y) % 2 == 0)
+        {
+            return NONE;
+        }
+        return x * 4 + y / 2;
+    }
+
+    /**
+     * Gets the x-coordinate (row) of a square.
+     *
+     * @param square The square index.
+     * @return The row of the square.
+     */
+    public static int toX(int square)
+    {
+        return square >> 2;
+    }
+
+    /**
+     * Gets the y-coordinate (column) of a square.
+     *
+     * @param square The square index.
+     * @return The column of the square.
+     */
+    public static int toY(int square)
+    {
+        return 2 * (square & 3) + (((square >> 2) & 1) ^ 1);
+    }
+
+    /**
+     * Gets the diagonal neighbor of a square.
+     *
+     * @param square The square index.
+     * @param dir The direction index (0-3).
+     * @return The neighboring square, or NONE if it is outside the board.
+     */
+    public static int neighbor(int square, int dir)
+    {
+        return NEIGHBORS[dir][square];
+    }
+
+    /**
+     * Gets the squares strictly between two squares.
+     *
+     * @param from The first square.
+     * @param to The second square.
+     * @return A mask of the squares in between, or 0 if the squares do not share a diagonal.
+     */
+    public static int between(int from, int to)
+    {
+        return BETWEEN[from * SQUARES + to];
+    }
+
+    /**
+     * Moves every square of a mask one step in the given direction, dropping squares that leave the board.
+     *
+     * @param mask The squares to move.
+     * @param dir The direction index (0-3).
+     * @return The mask of the neighboring squares.
+     */
+    public static int step(int mask, int dir)
+    {
+        switch (dir)
+        {
+            case 0: // {1, 1}
+                return ((mask & EVEN_ROWS & ~LAST_COLUMN) << 5) | ((mask & ODD_ROWS) << 4);
+            case 1: // {1, -1}
+                return ((mask & EVEN_ROWS) << 4) | ((mask & ODD_ROWS & ~FIRST_COLUMN) << 3);
+            case 2: // {-1, 1}
+                return ((mask & EVEN_ROWS & ~LAST_COLUMN) >>> 3) | ((mask & ODD_ROWS) >>> 4);
+            default: // {-1, -1}
+                return ((mask & EVEN_ROWS) >>> 4) | ((mask & ODD_ROWS & ~FIRST_COLUMN) >>> 5);
+        }
+    }
+
+    /**
+     * Gets the direction opposite to the given one.
+     *
+     * @param dir The direction index (0-3).
+     * @return The opposite direction index.
+     */
+    public static int opposite(int dir)
+    {
+        return 3 - dir;
+    }
+}
@@ -3,19 +3,48 @@ package com.example.checkersnadav;
 /**
  * Represents the game board for a checkers game.
  * Manages the game state including the positions of pieces, whose turn it is, and the rules for moving and capturing pieces.
+ * The position is kept in three 32-square bitboards (see Bitboard), and every rule check is evaluated with shifts and masks.
+ * A 2D array of Pieces mirrors the bitboards for the board view.
  */
 public class Board
 {
     public static final boolean WHITE = false; // Represents the White player.
     public static final boolean BLACK = !WHITE; // Represents the Black player, opposite of White.
     public static final int BOARD_SIZE = 8; // The size of the game board (8x8).
-    private final Piece[][] state; // Array to store the pieces on the board.
+
+    // Shared pieces for the board view, so that moves never allocate new Pieces.
+    private static final Piece WHITE_PIECE = new Piece(WHITE);
+    private static final Piece WHITE_KING = new Piece(WHITE, true);
+    private static final Piece BLACK_PIECE = new Piece(BLACK);
+    private static final Piece BLACK_KING = new Piece(BLACK, true);
+
+    // Layout of the undo records returned by makeMove(): source and destination squares, the captured square and piece,
+    // whether the move promoted the piece, and the turn, draw counter and last move coordinates from before the move.
+    private static final long UNDO_SQUARE_MASK = 0x1F;
+    private static final int UNDO_DST_SHIFT = 5;
+    private static final int UNDO_CAPTURED_SHIFT = 10;
+    private static final long UNDO_CAPTURE_FLAG = 1L << 15;
+    private static final long UNDO_CAPTURED_KING_FLAG = 1L << 16;
+    private static final long UNDO_PROMOTION_FLAG = 1L << 17;
+    private static final long UNDO_TURN_FLAG = 1L << 18;
+    private static final int UNDO_LAST_X_SHIFT = 19;
+    private static final int UNDO_LAST_Y_SHIFT = 22;
+    private static final int UNDO_COUNTER_SHIFT = 25;
+    private static final int UNDO_COUNTER_MASK = 0xFFFF;
+
+    private final Piece[][] state; // Array mirroring the bitboards, used to display the pieces on the board.
+    private int whitePieces; // Bitboard of the squares occupied by white pieces.
+    private int blackPieces; // Bitboard of the squares occupied by black pieces.
+    private int kings; // Bitboard of the squares occupied by kings of either color.
     private boolean turn; // Boolean flag to indicate whose turn it is; true for Black, false for White.
     private int movesSinceCaptureOrKing = 0; // Counts moves since the last capture or kinging to check for draws.
     private int lastMoveX = BOARD_SIZE - 1; // Tracks the x-coordinate of the last move.
     private int lastMoveY = BOARD_SIZE - 2; // Tracks the y-coordinate of the last move, ensuring it's initially set on a black square.
 
     private String forfeit; // The color of the player who forfeited the game
+    private long hash; // Zobrist hash of the position, updated incrementally whenever the position changes.
+    private Evaluation evaluation = Evaluation.getDefault(); // The weights of positionalScore.
+    private int positionalScore; // Sum of the evaluation's values of all the pieces, updated incrementally like the hash.
 
     /**
      * Initializes a new Board with pieces in their standard positions for a game of checkers.
@@ -26,32 +55,202 @@ public class Board
         turn = WHITE; // White starts the game.
         forfeit = null;
 
-        // Initialize board: placing pieces in the correct starting positions.
-        for (int i = 0; i < BOARD_SIZE; i++)
+        // White pieces fill rows 0-2 and black pieces fill rows 5-7.
+        whitePieces = Bitboard.WHITE_START;
+        blackPieces = Bitboard.BLACK_START;
+        kings = 0;
+        for (int square = 0; square < Bitboard.SQUARES; square++)
         {
-            for (int j = 0; j < BOARD_SIZE; j++)
+            updateView(square);
+        }
+        hash = computeHash();
+        positionalScore = computePositionalScore();
+    }
+
+    /**
+     * Initializes a new Board as an exact copy of another board.
+     * Used by analysis code that needs to explore positions without touching the board of the running game.
+     *
+     * @param other The board to copy.
+     */
+    public Board(Board other)
+    {
+        state = new Piece[BOARD_SIZE][BOARD_SIZE];
+        copyFrom(other);
+    }
+
+    /**
+     * Overwrites this board with the position and game state of another board.
+     *
+     * @param other The board to copy.
+     */
+    public void copyFrom(Board other)
+    {
+        whitePieces = other.whitePieces;
+        blackPieces = other.blackPieces;
+        kings = other.kings;
+        turn = other.turn;
+        movesSinceCaptureOrKing = other.movesSinceCaptureOrKing;
+        lastMoveX = other.lastMoveX;
+        lastMoveY = other.lastMoveY;
+        forfeit = other.forfeit;
+        hash = other.hash;
+        positionalScore = evaluation == other.evaluation ? other.positionalScore : computePositionalScore();
+        for (int square = 0; square < Bitboard.SQUARES; square++)
+        {
+            updateView(square);
+        }
+    }
+
+    /**
+     * Creates a board from a FEN-like text description of a position.
+     * The description has the form "ROWS TURN [LASTX,LASTY]":
+     * ROWS lists the rows from x = 0 to x = 7 separated by '/', each row having 4 characters for its dark squares
+     * ('.' for an empty square, 'p'/'k' for a white piece/king and 'P'/'K' for a black piece/king),
+     * TURN is 'w' or 'b', and the optional LASTX,LASTY are the coordinates of the last move,
+     * which mark the piece that has to continue a multi-capture.
+     *
+     * @param fen The position description.
+     * @return A new board holding the described position.
+     * @throws IllegalArgumentException if the description is malformed.
+     */
+    public static Board fromFen(String fen)
+    {
+        String[] fields = fen.trim().split("\\s+");
+        String[] rows = fields[0].split("/");
+        if (fields.length < 2 || rows.length != BOARD_SIZE)
+        {
+            throw new IllegalArgumentException("Malformed position: " + fen);
+        }
+
+        Board board = new Board();
+        for (int x = 0; x < BOARD_SIZE; x++)
+        {
+            if (rows[x].length() != BOARD_SIZE / 2)
             {
-                if ((i + j) % 2 != 0)
-                { // Pieces are placed on squares where the sum of indices is odd.
-                    if (i <= 2)
-                    {
-                        state[i][j] = new Piece(WHITE); // Initial positions for White pieces.
-                    }
-                    else if (i >= 5)
-                    {
-                        state[i][j] = new Piece(BLACK); // Initial positions for Black pieces.
-                    }
-                    else
-                    {
-                        state[i][j] = null; // Empty squares.
-                    }
-                }
-                else
+                throw new IllegalArgumentException("Malformed row in position: " + rows[x]);
+            }
+            for (int i = 0; i < BOARD_SIZE / 2; i++)
+            {
+                Piece piece;
+                switch (rows[x].charAt(i))
                 {
-                    state[i][j] = null; // Empty squares where the sum of indices is even.
+                    case '.':
+                        piece = null;
+                        break;
+                    case 'p':
+                        piece = WHITE_PIECE;
+                        break;
+                    case 'k':
+                        piece = WHITE_KING;
+                        break;
+                    case 'P':
+                        piece = BLACK_PIECE;
+                        break;
+                    case 'K':
+                        piece = BLACK_KING;
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unexpected character in position: " + rows[x].charAt(i));
                 }
+                int square = x * 4 + i;
+                board.setPieceInPosition(piece, Bitboard.toX(square) * BOARD_SIZE + Bitboard.toY(square));
+            }
+        }
+
+        board.setTurn(fields[1].equalsIgnoreCase("b"));
+        if (fields.length > 2)
+        {
+            String[] lastMove = fields[2].split(",");
+            board.setLastMoveX(Integer.parseInt(lastMove[0]));
+            board.setLastMoveY(Integer.parseInt(lastMove[1]));
+        }
+        else
+        {
+            board.clearPendingCapture();
+        }
+        return board;
+    }
+
+    /**
+     * Replaces the whole position with the given pieces, as after a regular move with the draw counter at 0.
+     * Used by analysis code that enumerates positions, such as EndgameTablebaseGenerator.
+     *
+     * @param whitePieces The bitboard of the white pieces.
+     * @param blackPieces The bitboard of the black pieces.
+     * @param kings The bitboard of the kings of either color.
+     * @param turn The player to move.
+     */
+    void setPosition(int whitePieces, int blackPieces, int kings, boolean turn)
+    {
+        this.turn = turn;
+        movesSinceCaptureOrKing = 0;
+        forfeit = null;
+        setPieces(whitePieces, blackPieces, kings);
+        clearPendingCapture();
+    }
+
+    /**
+     * Replaces all the pieces at once, keeping the turn, the last move, the draw counter and the forfeit.
+     * Used to load positions received from the database without creating Piece objects.
+     *
+     * @param whitePieces The bitboard of the white pieces.
+     * @param blackPieces The bitboard of the black pieces.
+     * @param kings The bitboard of the kings of either color.
+     */
+    void setPieces(int whitePieces, int blackPieces, int kings)
+    {
+        this.whitePieces = whitePieces;
+        this.blackPieces = blackPieces & ~whitePieces;
+        this.kings = kings & (whitePieces | blackPieces);
+        hash = computeHash();
+        positionalScore = computePositionalScore();
+        for (int square = 0; square < Bitboard.SQUARES; square++)
+        {
+            updateView(square);
+        }
+    }
+
+    /**
+     * Points the last move at an opponent's piece, as after a regular move, so that no multi-capture is pending.
+     */
+    private void clearPendingCapture()
+    {
+        int own = turn == BLACK ? blackPieces : whitePieces;
+        int opponents = turn == BLACK ? whitePieces : blackPieces;
+        int square = Integer.numberOfTrailingZeros(opponents != 0 ? opponents : ~own);
+        setLastMoveX(Bitboard.toX(square));
+        setLastMoveY(Bitboard.toY(square));
+    }
+
+    /**
+     * Describes the position of this board in the format read by fromFen().
+     *
+     * @return The position description.
+     */
+    public String toFen()
+    {
+        StringBuilder sb = new StringBuilder();
+        for (int square = 0; square < Bitboard.SQUARES; square++)
+        {
+            if (square > 0 && square % 4 == 0)
+            {
+                sb.append('/');
+            }
+            int bit = 1 << square;
+            char ch = '.';
+            if ((whitePieces & bit) != 0)
+            {
+                ch = (kings & bit) != 0 ? 'k' : 'p';
+            }
+            else if ((blackPieces & bit) != 0)
+            {
+                ch = (kings & bit) != 0 ? 'K' : 'P';
             }
+            sb.append(ch);
         }
+        sb.append(turn == BLACK ? " b " : " w ").append(lastMoveX).append(',').append(lastMoveY);
+        return sb.toString();
     }
 
     /**
@@ -71,19 +270,83 @@ public class Board
             return false; // Move is invalid if it does not comply with the rules of Checkers.
         }
 
-        Piece piece = state[xSrc][ySrc];
-        state[xDst][yDst] = piece; // Move the piece to the new position.
-        state[xSrc][ySrc] = null; // Clear the original position.
+        makeMove(Bitboard.squareOf(xSrc, ySrc), Bitboard.squareOf(xDst, yDst));
+        return true;
+    }
+
+    /**
+     * Performs a legal move, such as one produced by MoveGenerator, without validating it again.
+     * The returned undo record holds everything needed to take the move back with unmakeMove(),
+     * so positions can be explored without copying the board.
+     *
+     * @param move The encoded move (see Move).
+     * @return The undo record of the move.
+     */
+    public long makeMove(int move)
+    {
+        return makeMove(Move.from(move), Move.to(move));
+    }
+
+    /**
+     * Performs a legal move between two squares, handles captures and promotion, and switches turns if applicable.
+     *
+     * @param src The source square.
+     * @param dst The destination square.
+     * @return The undo record of the move.
+     */
+    private long makeMove(int src, int dst)
+    {
+        int srcBit = 1 << src;
+        int dstBit = 1 << dst;
+        boolean isKing = (kings & srcBit) != 0;
+
+        // Remember the state that the move is about to overwrite.
+        long undo = src | ((long) dst << UNDO_DST_SHIFT)
+                | ((long) (movesSinceCaptureOrKing & UNDO_COUNTER_MASK) << UNDO_COUNTER_SHIFT)
+                | ((long) (lastMoveX & 7) << UNDO_LAST_X_SHIFT)
+                | ((long) (lastMoveY & 7) << UNDO_LAST_Y_SHIFT);
+        if (turn == BLACK)
+        {
+            undo |= UNDO_TURN_FLAG;
+        }
+        boolean mover = turn;
+        hash ^= continuationKey();
+
+        // Move the piece to the new position and clear the original position.
+        removeKeys(src);
+        if (turn == BLACK)
+        {
+            blackPieces ^= srcBit | dstBit;
+        }
+        else
+        {
+            whitePieces ^= srcBit | dstBit;
+        }
+        if (isKing)
+        {
+            kings ^= srcBit | dstBit;
+        }
+        addKeys(dst);
 
         movesSinceCaptureOrKing++; // Increment the move counter for draw conditions.
 
+        boolean reachedPromotionRow = (dstBit & (turn == BLACK ? Bitboard.BLACK_PROMOTION_ROW : Bitboard.WHITE_PROMOTION_ROW)) != 0;
+        int capturedBit = Bitboard.between(src, dst) & (turn == BLACK ? whitePieces : blackPieces);
+        if (capturedBit != 0)
+        {
+            undo |= ((long) Integer.numberOfTrailingZeros(capturedBit) << UNDO_CAPTURED_SHIFT) | UNDO_CAPTURE_FLAG;
+            if ((kings & capturedBit) != 0)
+            {
+                undo |= UNDO_CAPTURED_KING_FLAG;
+            }
+        }
+
         // Handle captures for regular pieces and kings.
-        if (!piece.isKing() && Math.abs(xDst - xSrc) == 2)
+        if (!isKing && Math.abs(Bitboard.toX(dst) - Bitboard.toX(src)) == 2)
         {
-            performPieceCapture(xSrc, ySrc, xDst, yDst);
+            performPieceCapture(src, dst);
             // Check for a mandatory capture for a piece, or a mandatory capture for a king in case the piece just got promoted.
-            if (pieceHasMandatoryCapture(xDst, yDst) ||
-                    (((xDst == 0 && piece.isBlack() == BLACK) || (xDst == BOARD_SIZE - 1 && piece.isBlack() == WHITE)) && kingHasMandatoryCapture(xDst, yDst)))
+            if (pieceHasMandatoryCapture(dst) || (reachedPromotionRow && kingHasMandatoryCapture(dst)))
             {
                 turn = !turn; // Maintain the turn if further captures are possible.
             }
@@ -92,11 +355,10 @@ public class Board
         // King capture
         // making sure the path is not clear - meaning there is something to capture
         // (we already know the move is valid so we don't have to worry about isPathClear() not being specific enough)
-        // also, it doesn't matter that the piece has moved already because we only check the squares that are in between the source and the destination squares
-        else if (!isPathClear(xSrc, ySrc, xDst, yDst))
+        else if (!isPathClear(src, dst))
         {
-            performKingCapture(xSrc, ySrc, xDst, yDst);
-            if (kingHasMandatoryCapture(xDst, yDst))
+            performKingCapture(src, dst);
+            if (kingHasMandatoryCapture(dst))
             {
                 turn = !turn; // Maintain the turn if further captures are possible.
             }
@@ -104,75 +366,143 @@ public class Board
         }
 
         // Handle promotion to King.
-        if (!piece.isKing() && ((xDst == 0 && piece.isBlack() == BLACK) || (xDst == BOARD_SIZE - 1 && piece.isBlack() == WHITE)))
+        if (!isKing && reachedPromotionRow)
         {
-            piece.setKing(true);
+            removeKeys(dst);
+            kings |= dstBit;
+            addKeys(dst);
             movesSinceCaptureOrKing = 0; // Reset the counter on kinging.
+            undo |= UNDO_PROMOTION_FLAG;
         }
 
+        updateView(src);
+        updateView(dst);
+
         turn = !turn; // Switch turns if the move completes without further capture options.
 
-        lastMoveX = xDst; // Update the last move coordinates.
-        lastMoveY = yDst;
+        lastMoveX = Bitboard.toX(dst); // Update the last move coordinates.
+        lastMoveY = Bitboard.toY(dst);
 
-        return true;
+        if (turn != mover)
+        {
+            hash ^= Zobrist.BLACK_TO_MOVE;
+        }
+        hash ^= continuationKey();
+
+        return undo;
     }
 
     /**
-     * Checks if the specified piece at the given board location can legally move or capture.
-     * This method checks all potential simple moves and captures for the piece, including special moves if the piece is a king.
+     * Takes back a move made with makeMove(), restoring the position exactly as it was before the move.
+     * Moves must be taken back in the reverse order in which they were made.
      *
-     * @param x The x-coordinate of the piece on the board.
-     * @param y The y-coordinate of the piece on the board.
-     * @return true if there is at least one legal move or capture available, false otherwise.
+     * @param undo The undo record returned by makeMove().
      */
-    private boolean canMove(int x, int y)
+    public void unmakeMove(long undo)
     {
-        Piece piece = state[x][y];
-        if (piece == null)
+        int src = (int) (undo & UNDO_SQUARE_MASK);
+        int dst = (int) ((undo >>> UNDO_DST_SHIFT) & UNDO_SQUARE_MASK);
+        int srcBit = 1 << src;
+        int dstBit = 1 << dst;
+        boolean mover = (undo & UNDO_TURN_FLAG) != 0 ? BLACK : WHITE;
+        hash ^= continuationKey();
+        if (turn != mover)
+        {
+            hash ^= Zobrist.BLACK_TO_MOVE;
+        }
+
+        // Demote the piece if the move promoted it, then move it back.
+        removeKeys(dst);
+        if ((undo & UNDO_PROMOTION_FLAG) != 0)
+        {
+            kings &= ~dstBit;
+        }
+        if (mover == BLACK)
+        {
+            blackPieces ^= srcBit | dstBit;
+        }
+        else
+        {
+            whitePieces ^= srcBit | dstBit;
+        }
+        if ((kings & dstBit) != 0)
         {
-            return false; // No piece at this position, so it cannot move.
+            kings ^= srcBit | dstBit;
         }
+        addKeys(src);
 
-        // Define possible move increments for checkers (move one or jump two)
-        int[] possibleMoves = {1, -1};
-        for (int dx : possibleMoves)
+        // Put the captured piece back.
+        if ((undo & UNDO_CAPTURE_FLAG) != 0)
         {
-            for (int dy : possibleMoves)
+            int captured = (int) ((undo >>> UNDO_CAPTURED_SHIFT) & UNDO_SQUARE_MASK);
+            int capturedBit = 1 << captured;
+            if (mover == BLACK)
             {
-                int newX = x + dx;
-                int newY = y + dy;
+                whitePieces |= capturedBit;
+            }
+            else
+            {
+                blackPieces |= capturedBit;
+            }
+            if ((undo & UNDO_CAPTURED_KING_FLAG) != 0)
+            {
+                kings |= capturedBit;
+            }
+            addKeys(captured);
+            updateView(captured);
+        }
 
-                // Check simple moves
-                if (isValidMove(x, y, newX, newY))
-                {
-                    return true; // Return immediately if a valid move is found
-                }
+        updateView(src);
+        updateView(dst);
 
-                // Check captures
-                newX = x + 2 * dx;
-                newY = y + 2 * dy;
-                if (isValidMove(x, y, newX, newY))
-                {
-                    return true; // Return immediately if a valid capture is found
-                }
+        turn = mover;
+        movesSinceCaptureOrKing = (int) ((undo >>> UNDO_COUNTER_SHIFT) & UNDO_COUNTER_MASK);
+        lastMoveX = (int) ((undo >>> UNDO_LAST_X_SHIFT) & 7);
+        lastMoveY = (int) ((undo >>> UNDO_LAST_Y_SHIFT) & 7);
+        hash ^= continuationKey();
+    }
 
-                // Additional checks for king moves that can move multiple squares in one turn
-                if (piece.isKing())
-                {
-                    for (int i = 2; i < BOARD_SIZE; i++)
-                    {
-                        newX = x + i * dx;
-                        newY = y + i * dy;
-                        if (isValidMove(x, y, newX, newY))
-                        {
-                            return true; // Return immediately if a valid king move is found
-                        }
-                    }
-                }
+    /**
+     * Checks if the current player has at least one legal move or capture.
+     * Captures are checked for every piece that is allowed to move, and simple moves are only checked when no capture is mandatory.
+     *
+     * @return true if there is at least one legal move or capture available, false otherwise.
+     */
+    private boolean playerCanMove()
+    {
+        int own = turn == BLACK ? blackPieces : whitePieces;
+        int opponents = turn == BLACK ? whitePieces : blackPieces;
+        int empty = ~(whitePieces | blackPieces);
+
+        // Only the piece in the middle of a multi-capture may move.
+        int continuation = getCaptureContinuationSquare();
+        int movers = continuation != Bitboard.NONE ? 1 << continuation : own;
+        int men = movers & ~kings;
+        int kingMovers = movers & kings;
+
+        if (menHaveCapture(men, opponents, empty))
+        {
+            return true;
+        }
+        for (int remaining = kingMovers; remaining != 0; remaining &= remaining - 1)
+        {
+            if (kingHasCapture(Integer.numberOfTrailingZeros(remaining), own, opponents))
+            {
+                return true;
             }
         }
-        return false; // No valid moves found
+
+        if (playerHasMandatoryCapture())
+        {
+            return false; // Only captures are allowed, and none of the movable pieces has one.
+        }
+
+        // Men step forward, kings may step in any direction.
+        int forward = turn == BLACK
+                ? Bitboard.step(men, 2) | Bitboard.step(men, 3)
+                : Bitboard.step(men, 0) | Bitboard.step(men, 1);
+        int anyDirection = Bitboard.step(kingMovers, 0) | Bitboard.step(kingMovers, 1) | Bitboard.step(kingMovers, 2) | Bitboard.step(kingMovers, 3);
+        return ((forward | anyDirection) & empty) != 0;
     }
 
     /**
@@ -192,45 +522,15 @@ public class Board
             return Game.WHITE_STRING;
         }
 
-        boolean whiteHasPieces = false;
-        boolean blackHasPieces = false;
-        boolean whiteHasMoves = false;
-        boolean blackHasMoves = false;
-
-        // Iterate through the board to find pieces and check for possible moves.
-        for (int i = 0; i < BOARD_SIZE; i++)
-        {
-            for (int j = 0; j < BOARD_SIZE; j++)
-            {
-                Piece piece = state[i][j];
-                if (piece != null)
-                {
-                    if (piece.isBlack())
-                    {
-                        blackHasPieces = true;
-                        if (!blackHasMoves)
-                        {
-                            blackHasMoves = canMove(i, j); // Check for moves if not already found
-                        }
-                    }
-                    else
-                    {
-                        whiteHasPieces = true;
-                        if (!whiteHasMoves)
-                        {
-                            whiteHasMoves = canMove(i, j); // Check for moves if not already found
-                        }
-                    }
-                }
-            }
-        }
+        // Only the player whose turn it is can be stuck without moves.
+        boolean currentPlayerHasMoves = playerCanMove();
 
         // Determine the winner based on pieces left and possible moves.
-        if (!whiteHasPieces || (!whiteHasMoves && turn == WHITE))
+        if (whitePieces == 0 || (!currentPlayerHasMoves && turn == WHITE))
         {
             return Game.BLACK_STRING; // Black wins if White has no pieces or cannot move
         }
-        if (!blackHasPieces || (!blackHasMoves && turn == BLACK))
+        if (blackPieces == 0 || (!currentPlayerHasMoves && turn == BLACK))
         {
             return Game.WHITE_STRING; // White wins if Black has no pieces or cannot move
         }
@@ -281,33 +581,30 @@ public class Board
      */
     public boolean isValidMove(int xSrc, int ySrc, int xDst, int yDst)
     {
-        // Check for out-of-bounds moves.
-        if (xDst < 0 || xDst >= BOARD_SIZE || yDst < 0 || yDst >= BOARD_SIZE)
-        {
-            return false;
-        }
-
-        // Ensure the move is to a black square and the destination is empty.
-        if ((xDst + yDst) % 2 == 0 || state[xDst][yDst] != null)
+        // Ensure the move stays on the board, goes to a black square and the destination is empty.
+        int dst = Bitboard.squareOf(xDst, yDst);
+        if (dst == Bitboard.NONE || ((whitePieces | blackPieces) & (1 << dst)) != 0)
         {
             return false;
         }
 
-        Piece piece = state[xSrc][ySrc];
         // Validate that there is a piece at the source and it belongs to the current player.
-        if (piece == null || piece.isBlack() != turn)
+        int src = Bitboard.squareOf(xSrc, ySrc);
+        int own = turn == BLACK ? blackPieces : whitePieces;
+        if (src == Bitboard.NONE || (own & (1 << src)) == 0)
         {
             return false;
         }
 
         // Special handling to ensure only the piece involved in a multi-capture continues moving.
-        if (state[lastMoveX][lastMoveY].isBlack() == turn && (lastMoveX != xSrc || lastMoveY != ySrc))
+        if (isCaptureContinuationPending() && (lastMoveX != xSrc || lastMoveY != ySrc))
         {
             return false;
         }
 
         // Additional rules for kings and non-kings.
-        if (piece.isKing()) {
+        if ((kings & (1 << src)) != 0)
+        {
             // Check diagonal movement for kings.
             if (Math.abs(xDst - xSrc) != Math.abs(yDst - ySrc))
             {
@@ -315,14 +612,14 @@ public class Board
             }
 
             // For king moves, check if the path is clear and if capturing is mandatory.
-            if (isPathClear(xSrc, ySrc, xDst, yDst))
+            if (isPathClear(src, dst))
             {
                 return !playerHasMandatoryCapture();
             }
             else
             {
                 // Verify capture validity for king moves.
-                return hasOpponentPieceInBetween(xSrc, ySrc, xDst, yDst);
+                return hasOpponentPieceInBetween(src, dst);
             }
         }
         else
@@ -338,248 +635,453 @@ public class Board
                 {
                     return false;
                 }
-                return (piece.isBlack() && xDst - xSrc == -1) || (!piece.isBlack() && xDst - xSrc == 1);
+                return (turn == BLACK && xDst - xSrc == -1) || (turn == WHITE && xDst - xSrc == 1);
             }
             else if (dx == 2 && dy == 2)
             {
                 // Ensure captures are legally executable.
-                return hasOpponentPieceInBetween(xSrc, ySrc, xDst, yDst);
+                return hasOpponentPieceInBetween(src, dst);
             }
         }
 
         return false;
     }
 
+    /**
+     * Checks if the piece that made the last move belongs to the current player, which means it is in the middle of a multi-capture.
+     *
+     * @return true if only the piece on the last move's square may move, false otherwise.
+     */
+    private boolean isCaptureContinuationPending()
+    {
+        return getCaptureContinuationSquare() != Bitboard.NONE;
+    }
+
+    /**
+     * Gets the square of the piece that is in the middle of a multi-capture, which is the only piece the current player may move.
+     *
+     * @return The square of the capturing piece, or Bitboard.NONE if any of the current player's pieces may move.
+     */
+    public int getCaptureContinuationSquare()
+    {
+        int lastMove = Bitboard.squareOf(lastMoveX, lastMoveY);
+        if (lastMove == Bitboard.NONE || ((turn == BLACK ? blackPieces : whitePieces) & (1 << lastMove)) == 0)
+        {
+            return Bitboard.NONE;
+        }
+        return lastMove;
+    }
+
     /**
      * Performs the capture of an opponent's piece located between the source and destination squares during a move.
      * This method assumes that the capture is valid and updates the board to remove the captured piece.
      *
-     * @param xSrc Source x-coordinate from where the piece is capturing.
-     * @param ySrc Source y-coordinate from where the piece is capturing.
-     * @param xDst Destination x-coordinate to where the piece is moving.
-     * @param yDst Destination y-coordinate to where the piece is moving.
+     * @param src Source square from where the piece is capturing.
+     * @param dst Destination square to where the piece is moving.
      */
-    private void performPieceCapture(int xSrc, int ySrc, int xDst, int yDst)
+    private void performPieceCapture(int src, int dst)
     {
-        int capturedX = (xSrc + xDst) / 2; // Calculate the x-coordinate of the captured piece.
-        int capturedY = (ySrc + yDst) / 2; // Calculate the y-coordinate of the captured piece.
-        state[capturedX][capturedY] = null; // Remove the captured piece from the board.
+        removePiece(Integer.numberOfTrailingZeros(Bitboard.between(src, dst))); // Remove the captured piece from the board.
     }
 
     /**
-     * Performs a capture by a king, removing the first opponent's piece encountered along the diagonal move.
-     * This method assumes the path has been verified to be clear up to the first encountered piece.
+     * Performs a capture by a king, removing the opponent's piece along the diagonal move.
+     * This method assumes the move has been validated, so there is exactly one opponent's piece on the path.
      *
-     * @param xSrc Source x-coordinate from where the king is capturing.
-     * @param ySrc Source y-coordinate from where the king is capturing.
-     * @param xDst Destination x-coordinate to where the king is moving.
-     * @param yDst Destination y-coordinate to where the king is moving.
+     * @param src Source square from where the king is capturing.
+     * @param dst Destination square to where the king is moving.
      */
-    private void performKingCapture(int xSrc, int ySrc, int xDst, int yDst)
+    private void performKingCapture(int src, int dst)
     {
-        int stepX = Integer.signum(xDst - xSrc); // Calculate horizontal step direction.
-        int stepY = Integer.signum(yDst - ySrc); // Calculate vertical step direction.
-        int curX = xSrc + stepX;
-        int curY = ySrc + stepY;
-        boolean capturePerformed = false;
+        int opponents = turn == BLACK ? whitePieces : blackPieces;
+        removePiece(Integer.numberOfTrailingZeros(Bitboard.between(src, dst) & opponents)); // Capture the opponent's piece.
+    }
 
-        // Traverse the path until a piece is captured or the destination is reached.
-        while (curX != xDst && curY != yDst && !capturePerformed) {
-            if (state[curX][curY] != null && state[curX][curY].isBlack() != turn)
-            {
-                state[curX][curY] = null; // Capture the opponent's piece.
-                capturePerformed = true; // Mark that a capture has been made.
-            }
-            // Continue moving along the diagonal.
-            curX += stepX;
-            curY += stepY;
-        }
+    /**
+     * Removes a piece from the bitboards and from the board view.
+     *
+     * @param square The square of the piece to remove.
+     */
+    private void removePiece(int square)
+    {
+        removeKeys(square);
+        int clear = ~(1 << square);
+        whitePieces &= clear;
+        blackPieces &= clear;
+        kings &= clear;
+        updateView(square);
     }
 
     /**
      * Checks if the path between the source and destination squares is clear of any pieces, which is necessary for a valid king move.
      *
-     * @param xSrc Source x-coordinate.
-     * @param ySrc Source y-coordinate.
-     * @param xDst Destination x-coordinate.
-     * @param yDst Destination y-coordinate.
+     * @param src Source square.
+     * @param dst Destination square.
      * @return true if the path is clear of pieces, false otherwise.
      */
-    private boolean isPathClear(int xSrc, int ySrc, int xDst, int yDst)
+    private boolean isPathClear(int src, int dst)
     {
-        int stepX = Integer.signum(xDst - xSrc); // Determine step direction horizontally.
-        int stepY = Integer.signum(yDst - ySrc); // Determine step direction vertically.
-        int curX = xSrc + stepX, curY = ySrc + stepY;
-
-        // Check each square along the diagonal until reaching the destination.
-        while (curX != xDst && curY != yDst)
-        {
-            if (state[curX][curY] != null)
-            {
-                return false; // Path is not clear if any square contains a piece.
-            }
-            curX += stepX;
-            curY += stepY;
-        }
-        return true;
+        return (Bitboard.between(src, dst) & (whitePieces | blackPieces)) == 0;
     }
 
     /**
      * Determines if there is exactly one opponent's piece in the path between the source and destination squares.
      *
-     * @param xSrc Source x-coordinate.
-     * @param ySrc Source y-coordinate.
-     * @param xDst Destination x-coordinate.
-     * @param yDst Destination y-coordinate.
-     * @return true if there is exactly one opponent's piece in between and nothing else, false otherwise.
+     * @param src Source square.
+     * @param dst Destination square.
+     * @return true if there is exactly one opponent's piece in between, false otherwise.
      */
-    private boolean hasOpponentPieceInBetween(int xSrc, int ySrc, int xDst, int yDst)
+    private boolean hasOpponentPieceInBetween(int src, int dst)
     {
-        int stepX = Integer.signum(xDst - xSrc); // Calculate horizontal movement step.
-        int stepY = Integer.signum(yDst - ySrc); // Calculate vertical movement step.
-        int opponentCount = 0; // Counter for opponent pieces encountered.
+        int opponents = turn == BLACK ? whitePieces : blackPieces;
+        return Integer.bitCount(Bitboard.between(src, dst) & opponents) == 1;
+    }
 
-        int curX = xSrc + stepX;
-        int curY = ySrc + stepY;
+    /**
+     * Checks for mandatory captures available from the given square for a non-king piece.
+     * A mandatory capture exists if an adjacent opponent piece can be jumped over onto an empty square.
+     *
+     * @param square The square of the piece on the board.
+     * @return true if a mandatory capture is available, false otherwise.
+     */
+    private boolean pieceHasMandatoryCapture(int square)
+    {
+        int opponents = turn == BLACK ? whitePieces : blackPieces;
+        return menHaveCapture(1 << square, opponents, ~(whitePieces | blackPieces));
+    }
+
+    /**
+     * Checks if there is a mandatory capture available from the given square for a king.
+     * Kings can capture in any diagonal direction over multiple squares.
+     *
+     * @param square The square of the king on the board.
+     * @return true if a capture is mandatory, false otherwise.
+     */
+    private boolean kingHasMandatoryCapture(int square)
+    {
+        int opponents = turn == BLACK ? whitePieces : blackPieces;
+        return kingsHaveMandatoryCapture(1 << square, opponents, ~(whitePieces | blackPieces));
+    }
 
-        // Traverse the path and count opponent pieces.
-        while (curX != xDst && curY != yDst)
+    /**
+     * Checks if there is a mandatory capture available for any of the current player's pieces.
+     * Men and kings of the current player are checked all at once using their bitboards.
+     *
+     * @return true if at least one mandatory capture is available, false otherwise.
+     */
+    boolean playerHasMandatoryCapture()
+    {
+        int own = turn == BLACK ? blackPieces : whitePieces;
+        int opponents = turn == BLACK ? whitePieces : blackPieces;
+        int empty = ~(whitePieces | blackPieces);
+        return menHaveCapture(own & ~kings, opponents, empty) || kingsHaveMandatoryCapture(own & kings, opponents, empty);
+    }
+
+    /**
+     * Checks if any of the given men can jump over an adjacent opponent piece onto an empty square, in any direction.
+     *
+     * @param men Bitboard of the men to check.
+     * @param opponents Bitboard of the opponent's pieces.
+     * @param empty Bitboard of the empty squares.
+     * @return true if at least one of the men has a capture, false otherwise.
+     */
+    static boolean menHaveCapture(int men, int opponents, int empty)
+    {
+        for (int dir = 0; dir < 4; dir++)
         {
-            if (state[curX][curY] != null && state[curX][curY].isBlack() != turn)
+            int back = Bitboard.opposite(dir);
+            int jumpable = opponents & Bitboard.step(empty, back); // Opponent pieces with an empty square behind them.
+            if ((men & Bitboard.step(jumpable, back)) != 0)
             {
-                if (opponentCount == 0)
-                { // First opponent piece encountered.
-                    opponentCount++;
-                }
-                else
-                {
-                    return false; // Invalid move if more than one opponent piece is encountered.
-                }
+                return true;
             }
-            curX += stepX;
-            curY += stepY;
         }
-
-        // Valid capture if exactly one opponent piece is encountered.
-        return opponentCount == 1;
+        return false;
     }
 
     /**
-     * Checks for mandatory captures available from the given board position for non-king pieces.
-     * A mandatory capture exists if an adjacent opponent piece can be jumped over onto an empty square.
+     * Checks if any of the given kings has a mandatory capture: a clear diagonal up to an opponent piece, followed by an empty square.
      *
-     * @param x The x-coordinate of the piece on the board.
-     * @param y The y-coordinate of the piece on the board.
-     * @return true if a mandatory capture is available, false otherwise.
+     * @param kingMask Bitboard of the kings to check.
+     * @param opponents Bitboard of the opponent's pieces.
+     * @param empty Bitboard of the empty squares.
+     * @return true if at least one of the kings has a mandatory capture, false otherwise.
      */
-    private boolean pieceHasMandatoryCapture(int x, int y)
+    static boolean kingsHaveMandatoryCapture(int kingMask, int opponents, int empty)
     {
-        int[][] directionVectors = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}}; // Possible directions for a capture.
-
-        for (int[] dir : directionVectors)
+        for (int dir = 0; dir < 4; dir++)
         {
-            int jumpX = x + 2 * dir[0]; // Target square after the jump.
-            int jumpY = y + 2 * dir[1];
-
-            // Check for valid capture conditions.
-            if (jumpX >= 0 && jumpX < BOARD_SIZE && jumpY >= 0 && jumpY < BOARD_SIZE &&
-                    state[x + dir[0]][y + dir[1]] != null &&
-                    state[x + dir[0]][y + dir[1]].isBlack() != turn &&
-                    state[jumpX][jumpY] == null)
+            // Slide all the kings together along the diagonal while the squares are empty
+            int ray = Bitboard.step(kingMask, dir);
+            while (ray != 0)
             {
-                return true; // Capture is mandatory.
+                if ((Bitboard.step(ray & opponents, dir) & empty) != 0)
+                {
+                    return true; // Empty space after an opponent's piece - valid capture
+                }
+                ray = Bitboard.step(ray & empty, dir);
             }
         }
-        return false; // No mandatory capture found.
+        return false;
     }
 
     /**
-     * Checks if there is a mandatory capture available from the given position for a king.
-     * Kings can capture in any diagonal direction over multiple squares.
+     * Checks if the king on the given square has any legal capture.
+     * A king capture is legal when exactly one opponent piece lies between the king and an empty destination square.
      *
-     * @param x The x-coordinate of the king on the board.
-     * @param y The y-coordinate of the king on the board.
-     * @return true if a capture is mandatory, false otherwise.
+     * @param square The square of the king.
+     * @param own Bitboard of the king owner's pieces.
+     * @param opponents Bitboard of the opponent's pieces.
+     * @return true if the king has a legal capture, false otherwise.
      */
-    private boolean kingHasMandatoryCapture(int x, int y)
+    static boolean kingHasCapture(int square, int own, int opponents)
     {
-        // Directions vectors for diagonal movement
-        int[][] directions = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
-
-        for (int[] dir : directions)
+        for (int dir = 0; dir < 4; dir++)
         {
-            int curX = x + dir[0];
-            int curY = y + dir[1];
-
             boolean foundOpponent = false;
-
-            while (curX >= 0 && curX < BOARD_SIZE && curY >= 0 && curY < BOARD_SIZE)
+            for (int cur = Bitboard.neighbor(square, dir); cur != Bitboard.NONE; cur = Bitboard.neighbor(cur, dir))
             {
-                if (state[curX][curY] != null)
+                int bit = 1 << cur;
+                if ((opponents & bit) != 0)
                 {
                     if (foundOpponent)
                     {
-                        break; // Found two pieces in a row - the capture would be illegal
-                    }
-
-                    if (state[curX][curY].isBlack() != turn)
-                    {
-                        foundOpponent = true; // Found an opponent's piece
-                    }
-                    else
-                    {
-                        break; // Blocked by a same-color piece
+                        break; // A second opponent piece on the path makes the capture illegal
                     }
+                    foundOpponent = true;
                 }
-                else if (foundOpponent)
+                else if ((own & bit) == 0 && foundOpponent)
                 {
-                    // Empty space after an opponent's piece - valid capture
-                    return true;
+                    return true; // Empty square after exactly one opponent piece
                 }
-                curX += dir[0];
-                curY += dir[1];
             }
         }
         return false;
     }
 
     /**
-     * Checks if there is a mandatory capture available for any of the current player's pieces.
-     * This method iterates over all pieces of the current player to determine if any captures are obligatory.
+     * Takes the piece on a square out of the incremental hash and positional score, before it moves, changes or is removed.
      *
-     * @return true if at least one mandatory capture is available, false otherwise.
+     * @param square The square, which may be empty.
+     */
+    private void removeKeys(int square)
+    {
+        hash ^= pieceKey(square);
+        positionalScore -= pieceValue(square);
+    }
+
+    /**
+     * Adds the piece on a square to the incremental hash and positional score, after it has moved, changed or been put back.
+     *
+     * @param square The square, which may be empty.
+     */
+    private void addKeys(int square)
+    {
+        hash ^= pieceKey(square);
+        positionalScore += pieceValue(square);
+    }
+
+    /**
+     * Gets the value of the piece on a square according to the board's evaluation.
+     *
+     * @param square The square.
+     * @return The value from White's point of view, or 0 if the square is empty.
      */
-    private boolean playerHasMandatoryCapture()
+    private int pieceValue(int square)
     {
-        for (int i = 0; i < BOARD_SIZE; i++)
+        int bit = 1 << square;
+        if (((whitePieces | blackPieces) & bit) == 0)
         {
-            for (int j = 0; j < BOARD_SIZE; j++)
-            {
-                Piece piece = state[i][j];
-                if (piece != null && piece.isBlack() == turn)
-                {
-                    // Check both king and non-king pieces for mandatory captures.
-                    if ((piece.isKing() && kingHasMandatoryCapture(i, j)) ||
-                            (!piece.isKing() && pieceHasMandatoryCapture(i, j)))
-                    {
-                        return true;
-                    }
-                }
-            }
+            return 0;
         }
-        return false;
+        return evaluation.pieceValue(((blackPieces & bit) != 0 ? 2 : 0) + ((kings & bit) != 0 ? 1 : 0), square);
+    }
+
+    /**
+     * Computes the positional score from scratch.
+     * The board keeps the score up to date incrementally, so this is only needed to initialize or verify it.
+     *
+     * @return The sum of the values of all the pieces, from White's point of view.
+     */
+    public int computePositionalScore()
+    {
+        int result = 0;
+        for (int occupied = whitePieces | blackPieces; occupied != 0; occupied &= occupied - 1)
+        {
+            result += pieceValue(Integer.numberOfTrailingZeros(occupied));
+        }
+        return result;
+    }
+
+    /**
+     * Gets the material and piece-square part of the evaluation (see Evaluation), kept up to date as pieces move.
+     *
+     * @return The sum of the values of all the pieces, from White's point of view.
+     */
+    public int getPositionalScore()
+    {
+        return positionalScore;
+    }
+
+    /**
+     * Sets the evaluation whose weights the positional score is kept with.
+     *
+     * @param evaluation The evaluation.
+     */
+    public void setEvaluation(Evaluation evaluation)
+    {
+        this.evaluation = evaluation;
+        positionalScore = computePositionalScore();
+    }
+
+    /**
+     * Gets the Zobrist key of the piece on a square.
+     *
+     * @param square The square.
+     * @return The key of the piece, or 0 if the square is empty.
+     */
+    private long pieceKey(int square)
+    {
+        int bit = 1 << square;
+        if (((whitePieces | blackPieces) & bit) == 0)
+        {
+            return 0;
+        }
+        return Zobrist.piece((blackPieces & bit) != 0, (kings & bit) != 0, square);
+    }
+
+    /**
+     * Gets the Zobrist key of the pending multi-capture, so that a position where a piece must continue capturing
+     * hashes differently from the same pieces with a free choice of move.
+     *
+     * @return The key of the capturing piece's square, or 0 if no multi-capture is pending.
+     */
+    private long continuationKey()
+    {
+        int square = getCaptureContinuationSquare();
+        return square == Bitboard.NONE ? 0 : Zobrist.continuation(square);
+    }
+
+    /**
+     * Computes the Zobrist hash of the position from scratch.
+     * The board keeps its hash up to date incrementally, so this is only needed to initialize or verify it.
+     *
+     * @return The hash of the position.
+     */
+    public long computeHash()
+    {
+        long result = turn == BLACK ? Zobrist.BLACK_TO_MOVE : 0;
+        for (int occupied = whitePieces | blackPieces; occupied != 0; occupied &= occupied - 1)
+        {
+            result ^= pieceKey(Integer.numberOfTrailingZeros(occupied));
+        }
+        return result ^ continuationKey();
+    }
+
+    /**
+     * Gets the Zobrist hash of the position: the pieces, whose turn it is, and the pending multi-capture, if any.
+     * Used as the key for transposition tables, repetition detection and position caches.
+     *
+     * @return The hash of the position.
+     */
+    public long getHash()
+    {
+        return hash;
+    }
+
+    /**
+     * Refreshes the board view for a single square from the bitboards.
+     *
+     * @param square The square to refresh.
+     */
+    private void updateView(int square)
+    {
+        int bit = 1 << square;
+        Piece piece = null;
+        if ((whitePieces & bit) != 0)
+        {
+            piece = (kings & bit) != 0 ? WHITE_KING : WHITE_PIECE;
+        }
+        else if ((blackPieces & bit) != 0)
+        {
+            piece = (kings & bit) != 0 ? BLACK_KING : BLACK_PIECE;
+        }
+        state[Bitboard.toX(square)][Bitboard.toY(square)] = piece;
     }
 
     /**
      * Replaces a certain piece in the board with another piece.
-     * This method is used while removing and adding pieces from the board for visual dragging effects.
+     * This method is used while removing and adding pieces from the board for visual dragging effects,
+     * and while loading a board state received from the database.
      *
      * @param piece The piece that should replace the current piece.
      * @param position The position of the piece that should be replaced.
      */
     public void setPieceInPosition(Piece piece, int position)
     {
-        state[position / BOARD_SIZE][position % BOARD_SIZE] = piece;
+        int x = position / BOARD_SIZE;
+        int y = position % BOARD_SIZE;
+        int square = Bitboard.squareOf(x, y);
+        if (square == Bitboard.NONE)
+        {
+            state[x][y] = piece; // Light squares are never played on, so only the view is affected.
+            return;
+        }
+
+        int bit = 1 << square;
+        hash ^= continuationKey();
+        removeKeys(square);
+        whitePieces &= ~bit;
+        blackPieces &= ~bit;
+        kings &= ~bit;
+        if (piece != null)
+        {
+            if (piece.isBlack())
+            {
+                blackPieces |= bit;
+            }
+            else
+            {
+                whitePieces |= bit;
+            }
+            if (piece.isKing())
+            {
+                kings |= bit;
+            }
+        }
+        addKeys(square);
+        hash ^= continuationKey();
+        updateView(square);
+    }
+
+    /**
+     * Gets the bitboard of the squares occupied by white pieces.
+     *
+     * @return the white pieces' bitboard.
+     */
+    public int getWhitePieces()
+    {
+        return whitePieces;
+    }
+
+    /**
+     * Gets the bitboard of the squares occupied by black pieces.
+     *
+     * @return the black pieces' bitboard.
+     */
+    public int getBlackPieces()
+    {
+        return blackPieces;
+    }
+
+    /**
+     * Gets the bitboard of the squares occupied by kings of either color.
+     *
+     * @return the kings' bitboard.
+     */
+    public int getKings()
+    {
+        return kings;
     }
 
     /**
@@ -611,7 +1113,13 @@ public class Board
      */
     public void setTurn(boolean turn)
     {
+        hash ^= continuationKey();
+        if (this.turn != turn)
+        {
+            hash ^= Zobrist.BLACK_TO_MOVE;
+        }
         this.turn = turn;
+        hash ^= continuationKey();
     }
 
     /**
@@ -644,7 +1152,9 @@ public class Board
      */
     public void setLastMoveX(int lastMoveX)
     {
+        hash ^= continuationKey();
         this.lastMoveX = lastMoveX;
+        hash ^= continuationKey();
     }
 
     /**
@@ -666,7 +1176,9 @@ public class Board
      */
     public void setLastMoveY(int lastMoveY)
     {
+        hash ^= continuationKey();
         this.lastMoveY = lastMoveY;
+        hash ^= continuationKey();
     }
 
     /**
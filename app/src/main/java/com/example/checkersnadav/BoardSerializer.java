@@ -0,0 +1,96 @@
+package com.example.checkersnadav;
+
+/**
+ * Converts the pieces of a board to and from the 64-character string stored in Firebase.
+ * The squares are written column by column; '_' marks an empty square,
+ * uppercase letters signify black pieces, while lowercase letters signify white pieces.
+ * The letter 'p' signifies a normal piece, and the letter 'k' signifies a king.
+ */
+public final class BoardSerializer
+{
+    private BoardSerializer()
+    {
+        // Static helpers only.
+    }
+
+    /**
+     * Serializes the pieces of a board into a string.
+     *
+     * @param board The board to serialize.
+     * @return A string representation of the game board.
+     */
+    public static String serialize(Board board)
+    {
+        StringBuilder sb = new StringBuilder();
+        for (int y = 0; y < Board.BOARD_SIZE; y++)
+        {
+            for (int x = 0; x < Board.BOARD_SIZE; x++)
+            {
+                Piece piece = board.getState()[x][y];
+                if (piece == null)
+                {
+                    sb.append('_');
+                }
+                else
+                {
+                    if (piece.isBlack())
+                    {
+                        sb.append(piece.isKing() ? 'K' : 'P');
+                    }
+                    else
+                    {
+                        sb.append(piece.isKing() ? 'k' : 'p');
+                    }
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Deserializes the pieces from a string representation and applies them to a board.
+     * The pieces are collected into bitboards and set all at once, so no Piece objects are created.
+     *
+     * @param boardState The serialized string representation of the game board.
+     * @param board The board to update.
+     * @throws IllegalArgumentException if the string contains an unexpected character.
+     */
+    public static void deserialize(String boardState, Board board)
+    {
+        int whitePieces = 0;
+        int blackPieces = 0;
+        int kings = 0;
+        int index = 0;
+        for (int y = 0; y < Board.BOARD_SIZE; y++)
+        {
+            for (int x = 0; x < Board.BOARD_SIZE; x++)
+            {
+                char ch = boardState.charAt(index++);
+                int square = Bitboard.squareOf(x, y);
+                int bit = square == Bitboard.NONE ? 0 : 1 << square; // Light squares are never played on.
+                switch (ch)
+                {
+                    case '_':
+                        break;
+                    case 'p':
+                        whitePieces |= bit; // White piece
+                        break;
+                    case 'k':
+                        whitePieces |= bit; // White king
+                        kings |= bit;
+                        break;
+                    case 'P':
+                        blackPieces |= bit; // Black piece
+                        break;
+                    case 'K':
+                        blackPieces |= bit; // Black king
+                        kings |= bit;
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unexpected character in board state: " + ch);
+                }
+            }
+        }
+        board.setPieces(whitePieces, blackPieces, kings);
+    }
+}
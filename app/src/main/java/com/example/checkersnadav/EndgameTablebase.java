@@ -0,0 +1,324 @@
+package com.example.checkersnadav;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Perfect-play results for positions with few pieces, read from the files written by EndgameTablebaseGenerator.
+ * There is one file per material signature (the numbers of white men, white kings, black men and black kings),
+ * holding one 16-bit result for every placement of those pieces and either side to move.
+ * The files are memory-mapped, so a probe computes the position's index and reads two bytes straight from the mapping,
+ * without copying the tables onto the heap.
+ * The results assume that the 80-move draw rule does not end the game first; see isWithinDrawLimit().
+ * A tablebase may be probed by several threads at once.
+ */
+public class EndgameTablebase
+{
+    public static final int UNKNOWN = Integer.MIN_VALUE; // The position is not covered by the tablebase.
+    public static final int DRAW = 0; // The position is a draw with perfect play.
+    public static final int MAX_PIECES = 6; // The most pieces a table can have; every table up to 6 pieces fits MAX_SIZE.
+
+    static final long MAX_SIZE = Integer.MAX_VALUE / 2; // The most positions of a table, so its file fits one mapping and int offsets.
+
+    static final int MAGIC = 0x434B5442; // "CKTB", at the start of every table file.
+    static final int HEADER_SIZE = 8; // The magic number and the four piece counts.
+    static final String FILE_SUFFIX = ".ctb";
+
+    private static final long[][] BINOMIAL = new long[Bitboard.SQUARES + 1][MAX_PIECES + 1]; // BINOMIAL[n][k] is n choose k.
+
+    static
+    {
+        for (int n = 0; n <= Bitboard.SQUARES; n++)
+        {
+            BINOMIAL[n][0] = 1;
+            for (int k = 1; k <= MAX_PIECES && k <= n; k++)
+            {
+                BINOMIAL[n][k] = BINOMIAL[n - 1][k - 1] + BINOMIAL[n - 1][k];
+            }
+        }
+    }
+
+    private final ByteBuffer[] tables = new ByteBuffer[signatureCount()]; // The mapped files by signature, or null.
+    private int maxPieces; // The most pieces of any loaded table.
+
+    /**
+     * Opens all the table files in a directory.
+     *
+     * @param directory The directory the generator wrote the tables to.
+     * @return The tablebase; it is empty if the directory has no tables.
+     * @throws IOException If a table cannot be mapped or is not a table file.
+     */
+    public static EndgameTablebase open(File directory) throws IOException
+    {
+        EndgameTablebase tablebase = new EndgameTablebase();
+        File[] files = directory.listFiles();
+        if (files != null)
+        {
+            for (File file : files)
+            {
+                if (file.getName().endsWith(FILE_SUFFIX))
+                {
+                    tablebase.map(file);
+                }
+            }
+        }
+        return tablebase;
+    }
+
+    /**
+     * Maps one table file and makes its positions available to probes.
+     *
+     * @param file The table file.
+     * @throws IOException If the file cannot be mapped or is not a table file.
+     */
+    void map(File file) throws IOException
+    {
+        MappedByteBuffer buffer;
+        try (RandomAccessFile in = new RandomAccessFile(file, "r"); FileChannel channel = in.getChannel())
+        {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()); // The mapping outlives the channel.
+        }
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC)
+        {
+            throw new IOException("Not a tablebase file: " + file);
+        }
+
+        int whiteMen = buffer.get(4);
+        int whiteKings = buffer.get(5);
+        int blackMen = buffer.get(6);
+        int blackKings = buffer.get(7);
+        if (whiteMen < 0 || whiteKings < 0 || blackMen < 0 || blackKings < 0 || whiteMen + whiteKings + blackMen + blackKings > MAX_PIECES)
+        {
+            throw new IOException("Unsupported tablebase file: " + file);
+        }
+        if (buffer.capacity() != HEADER_SIZE + 2 * size(whiteMen, whiteKings, blackMen, blackKings))
+        {
+            throw new IOException("Truncated tablebase file: " + file);
+        }
+        tables[signature(whiteMen, whiteKings, blackMen, blackKings)] = buffer;
+        maxPieces = Math.max(maxPieces, whiteMen + whiteKings + blackMen + blackKings);
+    }
+
+    /**
+     * Looks up the perfect-play result of a position. Does not allocate.
+     *
+     * @param board The position.
+     * @return DRAW, a positive number for a win of the side to move or a negative number for a loss (see getDistance()),
+     *         or UNKNOWN if the position has more pieces than the tables, its table is missing, or a multi-capture is pending.
+     */
+    public int probe(Board board)
+    {
+        int whitePieces = board.getWhitePieces();
+        int blackPieces = board.getBlackPieces();
+        if (Integer.bitCount(whitePieces | blackPieces) > maxPieces || board.getCaptureContinuationSquare() != Bitboard.NONE)
+        {
+            return UNKNOWN;
+        }
+        int kings = board.getKings();
+        return probe(whitePieces & ~kings, whitePieces & kings, blackPieces & ~kings, blackPieces & kings, board.getTurn());
+    }
+
+    /**
+     * Looks up a position given as bitboards, with no multi-capture pending.
+     */
+    int probe(int whiteMen, int whiteKings, int blackMen, int blackKings, boolean turn)
+    {
+        boolean whiteToMove = turn == Board.WHITE;
+        if ((whiteToMove ? whiteMen | whiteKings : blackMen | blackKings) == 0)
+        {
+            return -1; // The side to move has no pieces left, so no moves: lost on the spot.
+        }
+        if ((whiteToMove ? blackMen | blackKings : whiteMen | whiteKings) == 0)
+        {
+            return UNKNOWN; // The game ended with the previous move.
+        }
+
+        ByteBuffer table = tables[signature(Integer.bitCount(whiteMen), Integer.bitCount(whiteKings),
+                Integer.bitCount(blackMen), Integer.bitCount(blackKings))];
+        if (table == null)
+        {
+            return UNKNOWN;
+        }
+        return table.getShort(HEADER_SIZE + 2 * (int) index(whiteMen, whiteKings, blackMen, blackKings, turn));
+    }
+
+    /**
+     * @return The most pieces a probed position may have to be found in the tables.
+     */
+    public int getMaxPieces()
+    {
+        return maxPieces;
+    }
+
+    /**
+     * @param result A result of probe().
+     * @return true if the side to move wins.
+     */
+    public static boolean isWin(int result)
+    {
+        return result > 0;
+    }
+
+    /**
+     * @param result A result of probe().
+     * @return true if the side to move loses.
+     */
+    public static boolean isLoss(int result)
+    {
+        return result < 0 && result != UNKNOWN;
+    }
+
+    /**
+     * Gets the number of turns until the game ends with perfect play: the winner ends it as fast as possible,
+     * and the loser delays it as long as possible. A turn is one move, or a whole multi-capture.
+     *
+     * @param result A win or loss returned by probe().
+     * @return The number of turns, 0 if the side to move has already lost.
+     */
+    public static int getDistance(int result)
+    {
+        return Math.abs(result) - 1;
+    }
+
+    /**
+     * Checks if a win or loss will happen before the 80-move draw rule of Board.checkGameStatus() can end the game,
+     * so that the result can be trusted in the given position.
+     *
+     * @param result A win or loss returned by probe().
+     * @param board The position that was probed.
+     * @return true if the game ends with the result before the draw counter runs out.
+     */
+    public static boolean isWithinDrawLimit(int result, Board board)
+    {
+        return board.getMovesSinceCaptureOrKing() + getDistance(result) < SearchEngine.DRAW_MOVES;
+    }
+
+    /**
+     * Gets the number of positions in the table of a material signature: every placement of the pieces,
+     * with either side to move.
+     */
+    static long size(int whiteMen, int whiteKings, int blackMen, int blackKings)
+    {
+        int free = Bitboard.SQUARES;
+        long size = 2;
+        for (int count : new int[] {whiteMen, blackMen, whiteKings, blackKings})
+        {
+            size *= BINOMIAL[free][count];
+            free -= count;
+        }
+        return size;
+    }
+
+    /**
+     * Gets the index of a position in the table of its material signature.
+     * The pieces are placed group by group (white men, black men, white kings, black kings), each group ranked
+     * among the squares the earlier groups left free, so that no index is spent on overlapping pieces.
+     */
+    static long index(int whiteMen, int whiteKings, int blackMen, int blackKings, boolean turn)
+    {
+        long index = 0;
+        int used = 0;
+        int free = Bitboard.SQUARES;
+
+        int count = Integer.bitCount(whiteMen);
+        index = rank(whiteMen, used);
+        used |= whiteMen;
+        free -= count;
+
+        count = Integer.bitCount(blackMen);
+        index = index * BINOMIAL[free][count] + rank(blackMen, used);
+        used |= blackMen;
+        free -= count;
+
+        count = Integer.bitCount(whiteKings);
+        index = index * BINOMIAL[free][count] + rank(whiteKings, used);
+        used |= whiteKings;
+        free -= count;
+
+        count = Integer.bitCount(blackKings);
+        index = index * BINOMIAL[free][count] + rank(blackKings, used);
+
+        return index * 2 + (turn == Board.BLACK ? 1 : 0);
+    }
+
+    /**
+     * Ranks a set of squares among all the sets of the same size, counting only the squares not in used.
+     */
+    private static long rank(int squares, int used)
+    {
+        long rank = 0;
+        int i = 1;
+        for (int remaining = squares; remaining != 0; remaining &= remaining - 1, i++)
+        {
+            int square = Integer.numberOfTrailingZeros(remaining);
+            int position = square - Integer.bitCount(used & ((1 << square) - 1)); // The square's number among the free squares.
+            rank += BINOMIAL[position][i];
+        }
+        return rank;
+    }
+
+    /**
+     * The inverse of rank(): gets the set of squares with the given rank among the squares not in used.
+     */
+    static int unrank(long rank, int count, int used)
+    {
+        int squares = 0;
+        for (int i = count; i > 0; i--)
+        {
+            // Find the largest free-square number whose binomial fits in the remaining rank
+            int position = i - 1;
+            while (position + 1 < Bitboard.SQUARES && BINOMIAL[position + 1][i] <= rank)
+            {
+                position++;
+            }
+            rank -= BINOMIAL[position][i];
+            squares |= 1 << nthFreeSquare(position, used);
+        }
+        return squares;
+    }
+
+    private static int nthFreeSquare(int n, int used)
+    {
+        for (int square = 0; square < Bitboard.SQUARES; square++)
+        {
+            if ((used & (1 << square)) == 0 && n-- == 0)
+            {
+                return square;
+            }
+        }
+        throw new IllegalArgumentException("Not enough free squares");
+    }
+
+    static long binomial(int n, int k)
+    {
+        return BINOMIAL[n][k];
+    }
+
+    /**
+     * Gets the number of a material signature, used to find its table.
+     */
+    static int signature(int whiteMen, int whiteKings, int blackMen, int blackKings)
+    {
+        int base = MAX_PIECES + 1;
+        return ((whiteMen * base + whiteKings) * base + blackMen) * base + blackKings;
+    }
+
+    private static int signatureCount()
+    {
+        int base = MAX_PIECES + 1;
+        return base * base * base * base;
+    }
+
+    /**
+     * Gets the name of the file holding the table of a material signature, e.g. "1102.ctb" for a white man and king
+     * against two black kings.
+     */
+    static String fileName(int whiteMen, int whiteKings, int blackMen, int blackKings)
+    {
+        return "" + whiteMen + whiteKings + blackMen + blackKings + FILE_SUFFIX;
+    }
+}
@@ -0,0 +1,482 @@
+package com.example.checkersnadav;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Builds the endgame tablebase offline by retrograde analysis, one material signature at a time.
+ * Signatures are solved from the fewest pieces up, and with the same number of pieces from the fewest men up,
+ * so every capture or promotion leads into a table that is already finished and mapped.
+ * A single forward pass plays the moves of every position once: moves into finished tables are looked up right away,
+ * and moves that stay in the table (simple moves without promotion) are only counted.
+ * The positions are then decided in order of distance, from one work list per distance. When a position is decided,
+ * it goes on the list of its distance, and its predecessors are found by taking back a simple move when that list is
+ * walked, so every position is revisited only when one of its successors is decided:
+ * a predecessor of a lost position is won, and a predecessor whose last undecided successor turned out won is lost.
+ * Positions still undecided at the end are draws.
+ * Successors come from MoveGenerator and Board.makeMove(), so the tables follow the game's own rules, including
+ * flying kings and men capturing backwards. A multi-capture is followed to its end and counts as one turn,
+ * so no table needs positions with a capture pending.
+ */
+public class EndgameTablebaseGenerator
+{
+    private static final int MAX_CHAIN = 16; // Longer than any multi-capture with the supported number of pieces.
+    private static final byte DECIDED = -1; // The position's result is final, or the position cannot happen in a game.
+    private static final byte CANNOT_LOSE = -2; // A successor is not won for the opponent, so the position is a win or a draw.
+
+    private final EndgameTablebase finished; // The tables already written, mapped for looking up successors.
+    private final Board board; // The position being resolved, explored with make/unmake.
+    private final MoveList[] moves; // One move buffer per jump of a multi-capture.
+    private final PrintStream log; // Where to report every finished table, or null.
+
+    // The table being solved. Until a position is decided, current holds the fastest win found through another table
+    // if the position cannot be lost, or else the distance of the slowest loss found so far.
+    private short[] current;
+    private byte[] remaining; // The successors in the table not known yet to be won for the opponent, DECIDED or CANNOT_LOSE.
+    private int currentSignature;
+    private int whiteMen; // The piece counts of the table.
+    private int whiteKings;
+    private int blackMen;
+    private int blackKings;
+    private final List<IndexList> decided = new ArrayList<>(); // The positions to pass on, by distance.
+
+    // What the forward pass found out about the successors of a position.
+    private int successorsInTable;
+    private int fastestWin; // The fewest turns to a win through another table, or Integer.MAX_VALUE.
+    private int slowestLoss; // The most turns to a loss through another table, or -1.
+    private boolean canLose; // Every successor in another table is won for the opponent.
+
+    private EndgameTablebaseGenerator(PrintStream log)
+    {
+        this.log = log;
+        finished = new EndgameTablebase();
+        board = new Board();
+        moves = new MoveList[MAX_CHAIN];
+        for (int i = 0; i < MAX_CHAIN; i++)
+        {
+            moves[i] = new MoveList();
+        }
+    }
+
+    /**
+     * Generates the tables of all the material signatures with up to the given number of pieces.
+     *
+     * @param maxPieces The most pieces on the board, at most EndgameTablebase.MAX_PIECES.
+     * @param directory The directory to write the tables to.
+     * @param log Where to report the statistics of every finished table, or null.
+     * @throws IOException If a table cannot be written.
+     */
+    public static void generate(int maxPieces, File directory, PrintStream log) throws IOException
+    {
+        if (maxPieces < 2 || maxPieces > EndgameTablebase.MAX_PIECES)
+        {
+            throw new IllegalArgumentException("maxPieces must be between 2 and " + EndgameTablebase.MAX_PIECES + ", got " + maxPieces);
+        }
+        if (!directory.isDirectory() && !directory.mkdirs())
+        {
+            throw new IOException("Cannot create " + directory);
+        }
+
+        EndgameTablebaseGenerator generator = new EndgameTablebaseGenerator(log);
+        for (int pieces = 2; pieces <= maxPieces; pieces++)
+        {
+            for (int men = 0; men <= pieces; men++)
+            {
+                for (int whiteMen = 0; whiteMen <= men; whiteMen++)
+                {
+                    int blackMen = men - whiteMen;
+                    for (int whiteKings = 0; whiteKings <= pieces - men; whiteKings++)
+                    {
+                        int blackKings = pieces - men - whiteKings;
+                        if (whiteMen + whiteKings > 0 && blackMen + blackKings > 0)
+                        {
+                            generator.solve(whiteMen, whiteKings, blackMen, blackKings, directory);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Solves the table of one material signature, writes it and maps it for the tables that depend on it.
+     */
+    private void solve(int whiteMen, int whiteKings, int blackMen, int blackKings, File directory) throws IOException
+    {
+        long start = System.nanoTime();
+        int size = (int) EndgameTablebase.size(whiteMen, whiteKings, blackMen, blackKings); // At most MAX_SIZE.
+        current = new short[size];
+        remaining = new byte[size];
+        currentSignature = EndgameTablebase.signature(whiteMen, whiteKings, blackMen, blackKings);
+        this.whiteMen = whiteMen;
+        this.whiteKings = whiteKings;
+        this.blackMen = blackMen;
+        this.blackKings = blackKings;
+        decided.clear();
+
+        for (int index = 0; index < size; index++)
+        {
+            initialize(index);
+        }
+
+        // Pass the results on in order of distance, so every result is the fastest win or the slowest loss.
+        // Passing on a position of one distance only decides positions of greater distances.
+        for (int distance = 0; distance < decided.size(); distance++)
+        {
+            IndexList list = decided.get(distance);
+            decided.set(distance, null); // Walked once, so the memory can go.
+            for (int i = 0; list != null && i < list.size; i++)
+            {
+                int index = list.indexes[i];
+                if (remaining[index] == CANNOT_LOSE)
+                {
+                    remaining[index] = DECIDED; // A win through another table, and no faster win showed up in this one.
+                }
+                else if (Math.abs(current[index]) != distance + 1)
+                {
+                    continue; // A win through another table, superseded by a faster win in this one.
+                }
+                setPosition(index);
+                visitPredecessors(distance, current[index] > 0);
+            }
+        }
+
+        int wins = 0;
+        int losses = 0;
+        int draws = 0;
+        int tableLongest = 0;
+        for (int index = 0; index < size; index++)
+        {
+            if (remaining[index] != DECIDED)
+            {
+                current[index] = EndgameTablebase.DRAW;
+                draws++;
+            }
+            else if (current[index] != 0)
+            {
+                if (current[index] > 0)
+                {
+                    wins++;
+                }
+                else
+                {
+                    losses++;
+                }
+                tableLongest = Math.max(tableLongest, EndgameTablebase.getDistance(current[index]));
+            }
+        }
+
+        File file = new File(directory, EndgameTablebase.fileName(whiteMen, whiteKings, blackMen, blackKings));
+        write(file);
+        finished.map(file);
+
+        if (log != null)
+        {
+            log.println(String.format(Locale.US, "%s: %d positions, %d wins, %d losses, %d draws, longest %d turns, %.1f s",
+                    file.getName(), wins + losses + draws, wins, losses, draws, tableLongest, (System.nanoTime() - start) / 1e9));
+        }
+    }
+
+    /**
+     * Plays the moves of a position once, to count its successors in the table and take the results of the others
+     * from the finished tables. Decides the position if that is already enough.
+     *
+     * @param index The index of the position.
+     */
+    private void initialize(int index)
+    {
+        if (!setPosition(index))
+        {
+            remaining[index] = DECIDED; // Left as 0, so it is never taken for a decided win or loss.
+            return;
+        }
+
+        successorsInTable = 0;
+        fastestWin = Integer.MAX_VALUE;
+        slowestLoss = -1;
+        canLose = true;
+        int count = MoveGenerator.generateMoves(board, moves[0]);
+        visitSuccessors(0, board.getTurn());
+
+        if (count == 0)
+        {
+            current[index] = -1; // The side to move cannot move and has lost on the spot.
+            remaining[index] = DECIDED;
+            add(0, index);
+        }
+        else if (!canLose)
+        {
+            current[index] = fastestWin == Integer.MAX_VALUE ? 0 : (short) (fastestWin + 1);
+            remaining[index] = CANNOT_LOSE;
+            if (fastestWin != Integer.MAX_VALUE)
+            {
+                add(fastestWin, index); // Decided when its distance comes, unless the table has a faster win.
+            }
+        }
+        else if (successorsInTable == 0)
+        {
+            current[index] = (short) -(slowestLoss + 1); // Every move leads into a finished table and loses there.
+            remaining[index] = DECIDED;
+            add(slowestLoss, index);
+        }
+        else
+        {
+            current[index] = (short) Math.max(slowestLoss, 0);
+            remaining[index] = (byte) successorsInTable;
+        }
+    }
+
+    /**
+     * Sets up the board with a position of the table being solved.
+     *
+     * @param index The index of the position.
+     * @return false if the position cannot happen in a game, because a man stands on its promotion row.
+     */
+    private boolean setPosition(int index)
+    {
+        // Split the index into the ranks of the piece groups, in the reverse of the order EndgameTablebase.index() packs them
+        long rest = index / 2;
+        long blackKingRanks = EndgameTablebase.binomial(Bitboard.SQUARES - whiteMen - blackMen - whiteKings, blackKings);
+        long blackKingRank = rest % blackKingRanks;
+        rest /= blackKingRanks;
+        long whiteKingRanks = EndgameTablebase.binomial(Bitboard.SQUARES - whiteMen - blackMen, whiteKings);
+        long whiteKingRank = rest % whiteKingRanks;
+        rest /= whiteKingRanks;
+        long blackManRanks = EndgameTablebase.binomial(Bitboard.SQUARES - whiteMen, blackMen);
+        long blackManRank = rest % blackManRanks;
+        long whiteManRank = rest / blackManRanks;
+
+        int whiteManSquares = EndgameTablebase.unrank(whiteManRank, whiteMen, 0);
+        int blackManSquares = EndgameTablebase.unrank(blackManRank, blackMen, whiteManSquares);
+        int used = whiteManSquares | blackManSquares;
+        int whiteKingSquares = EndgameTablebase.unrank(whiteKingRank, whiteKings, used);
+        int blackKingSquares = EndgameTablebase.unrank(blackKingRank, blackKings, used | whiteKingSquares);
+        if ((whiteManSquares & Bitboard.WHITE_PROMOTION_ROW) != 0 || (blackManSquares & Bitboard.BLACK_PROMOTION_ROW) != 0)
+        {
+            return false; // The man would already have been crowned.
+        }
+
+        board.setPosition(whiteManSquares | whiteKingSquares, blackManSquares | blackKingSquares, whiteKingSquares | blackKingSquares,
+                (index & 1) != 0 ? Board.BLACK : Board.WHITE);
+        return true;
+    }
+
+    /**
+     * Plays every move of the current position, following multi-captures to their end. Counts the moves that stay in
+     * the table, and records in fastestWin, slowestLoss and canLose what the other tables say of the rest.
+     *
+     * @param chain The number of jumps of the multi-capture played so far.
+     * @param side The player whose turn is being played.
+     */
+    private void visitSuccessors(int chain, boolean side)
+    {
+        MoveList list = moves[chain];
+        int count = chain == 0 ? list.size() : MoveGenerator.generateMoves(board, list); // initialize() generated the first moves.
+        for (int i = 0; i < count; i++)
+        {
+            long undo = board.makeMove(list.get(i));
+            if (board.getTurn() == side)
+            {
+                visitSuccessors(chain + 1, side); // The same piece has to keep capturing.
+            }
+            else
+            {
+                int whitePieces = board.getWhitePieces();
+                int blackPieces = board.getBlackPieces();
+                int kings = board.getKings();
+                int signature = EndgameTablebase.signature(Integer.bitCount(whitePieces & ~kings), Integer.bitCount(whitePieces & kings),
+                        Integer.bitCount(blackPieces & ~kings), Integer.bitCount(blackPieces & kings));
+                if (signature == currentSignature)
+                {
+                    successorsInTable++;
+                }
+                else
+                {
+                    int result = finished.probe(whitePieces & ~kings, whitePieces & kings, blackPieces & ~kings, blackPieces & kings, board.getTurn());
+                    if (EndgameTablebase.isLoss(result))
+                    {
+                        fastestWin = Math.min(fastestWin, EndgameTablebase.getDistance(result) + 1);
+                        canLose = false;
+                    }
+                    else if (EndgameTablebase.isWin(result))
+                    {
+                        slowestLoss = Math.max(slowestLoss, EndgameTablebase.getDistance(result) + 1);
+                    }
+                    else
+                    {
+                        canLose = false;
+                    }
+                }
+            }
+            board.unmakeMove(undo);
+        }
+    }
+
+    /**
+     * Takes back every simple move that could have led to the board's position, and passes its result on to the
+     * position before the move. Captures and promotions are never taken back, since they came from another table.
+     *
+     * @param distance The distance of the board's position, which was just decided.
+     * @param won true if the board's position is won for the side to move, false if it is lost.
+     */
+    private void visitPredecessors(int distance, boolean won)
+    {
+        boolean mover = !board.getTurn(); // The player who made the move being taken back.
+        int own = mover == Board.BLACK ? board.getBlackPieces() : board.getWhitePieces();
+        int opponents = mover == Board.BLACK ? board.getWhitePieces() : board.getBlackPieces();
+        int kings = board.getKings();
+        int empty = ~(own | opponents);
+
+        for (int pieces = own; pieces != 0; pieces &= pieces - 1)
+        {
+            int to = Integer.numberOfTrailingZeros(pieces);
+            boolean king = (kings & (1 << to)) != 0;
+            for (int dir = 0; dir < 4; dir++)
+            {
+                // Men only step forward: white men towards row 7 (directions 0 and 1), black men towards row 0 (2 and 3)
+                if (!king && (dir < 2) != (mover == Board.WHITE))
+                {
+                    continue;
+                }
+                int back = Bitboard.opposite(dir);
+                for (int from = Bitboard.neighbor(to, back); from != Bitboard.NONE && (empty & (1 << from)) != 0; from = Bitboard.neighbor(from, back))
+                {
+                    int before = own & ~(1 << to) | (1 << from);
+                    int kingsBefore = king ? kings & ~(1 << to) | (1 << from) : kings;
+                    int emptyBefore = ~(before | opponents);
+                    // A simple move is only legal when the mover had no capture
+                    if (!Board.menHaveCapture(before & ~kingsBefore, opponents, emptyBefore)
+                            && !Board.kingsHaveMandatoryCapture(before & kingsBefore, opponents, emptyBefore))
+                    {
+                        int white = mover == Board.WHITE ? before : opponents;
+                        int black = mover == Board.WHITE ? opponents : before;
+                        update((int) EndgameTablebase.index(white & ~kingsBefore, white & kingsBefore, black & ~kingsBefore, black & kingsBefore, mover),
+                                distance, won);
+                    }
+                    if (!king)
+                    {
+                        break; // Men move a single square.
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Passes the result of a position that was just decided on to one of its predecessors.
+     *
+     * @param index The index of the predecessor.
+     * @param distance The distance of the decided position.
+     * @param won true if the decided position is won for its side to move, false if it is lost.
+     */
+    private void update(int index, int distance, boolean won)
+    {
+        byte left = remaining[index];
+        if (left == DECIDED)
+        {
+            return;
+        }
+        if (!won)
+        {
+            // Moving into a lost position wins, unless a win through another table is as fast and already listed
+            if (left == CANNOT_LOSE && current[index] > 0 && current[index] <= distance + 2)
+            {
+                return;
+            }
+            current[index] = (short) (distance + 2);
+            remaining[index] = DECIDED;
+            add(distance + 1, index);
+        }
+        else if (left != CANNOT_LOSE)
+        {
+            // The positions are decided in order of distance, so the last successor decided is the slowest loss in the table
+            current[index] = (short) Math.max(current[index], distance + 1);
+            remaining[index] = --left;
+            if (left == 0)
+            {
+                add(current[index], index);
+                current[index] = (short) -(current[index] + 1);
+                remaining[index] = DECIDED;
+            }
+        }
+    }
+
+    /**
+     * Adds a position to the work list of a distance, to pass its result on when that distance comes.
+     */
+    private void add(int distance, int index)
+    {
+        while (decided.size() <= distance)
+        {
+            decided.add(null);
+        }
+        IndexList list = decided.get(distance);
+        if (list == null)
+        {
+            list = new IndexList();
+            decided.set(distance, list);
+        }
+        list.add(index);
+    }
+
+    /**
+     * A growable list of position indexes, without boxing them.
+     */
+    private static final class IndexList
+    {
+        private int[] indexes = new int[1024];
+        private int size;
+
+        void add(int index)
+        {
+            if (size == indexes.length)
+            {
+                indexes = Arrays.copyOf(indexes, size * 2);
+            }
+            indexes[size++] = index;
+        }
+    }
+
+    private void write(File file) throws IOException
+    {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file))))
+        {
+            out.writeInt(EndgameTablebase.MAGIC);
+            out.writeByte(whiteMen);
+            out.writeByte(whiteKings);
+            out.writeByte(blackMen);
+            out.writeByte(blackKings);
+            for (short result : current)
+            {
+                out.writeShort(result);
+            }
+        }
+    }
+
+    /**
+     * Generates the tablebase from the command line.
+     * Usage: EndgameTablebaseGenerator MAX_PIECES DIRECTORY
+     *
+     * @param args The most pieces on the board and the directory to write the tables to.
+     * @throws IOException If a table cannot be written.
+     */
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length != 2)
+        {
+            System.out.println("Usage: EndgameTablebaseGenerator MAX_PIECES DIRECTORY");
+            return;
+        }
+        long start = System.nanoTime();
+        generate(Integer.parseInt(args[0]), new File(args[1]), System.out);
+        System.out.println(String.format(Locale.US, "Done in %.1f s", (System.nanoTime() - start) / 1e9));
+    }
+}
@@ -0,0 +1,224 @@
+package com.example.checkersnadav;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Properties;
+
+/**
+ * The static evaluation used by the engine: a score for a position, without searching it.
+ * The score is made of material (men and kings weigh differently), advancement of men toward promotion,
+ * men guarding their own back row, pieces on the center squares, mobility, and a tempo bonus for the side to move.
+ * Material and the square-dependent terms are folded into one value per piece type and square, which Board keeps
+ * summed up incrementally as pieces move (see Board.getPositionalScore()); only mobility is computed at evaluation time,
+ * with a few bitboard shifts.
+ * The weights can be loaded from a properties file so that they can be tuned offline.
+ */
+public class Evaluation
+{
+    // Keys of the weights in a properties file.
+    private static final String MAN_KEY = "man";
+    private static final String KING_KEY = "king";
+    private static final String ADVANCEMENT_KEY = "advancement";
+    private static final String BACK_ROW_KEY = "backRow";
+    private static final String CENTER_MAN_KEY = "centerMan";
+    private static final String CENTER_KING_KEY = "centerKing";
+    private static final String MOBILITY_KEY = "mobility";
+    private static final String TEMPO_KEY = "tempo";
+
+    private static final int CENTER = 0x00666600; // The four middle dark squares of rows 2-5.
+    private static final int WHITE_BACK_ROW = 0x0000000F; // Row 0, guarded by White against black promotions.
+    private static final int BLACK_BACK_ROW = 0xF0000000; // Row 7, guarded by Black against white promotions.
+
+    private static final Evaluation DEFAULT = new Evaluation(100, 300, new int[] {0, 0, 2, 4, 7, 11, 16, 0}, 12, 6, 10, 3, 8);
+
+    private final int manValue; // Material value of a man.
+    private final int kingValue; // Material value of a king.
+    private final int[] advancement; // Bonus of a man by the number of rows it has advanced from its own back row.
+    private final int backRowBonus; // Bonus of a man still on its own back row, where it stops the opponent from promoting.
+    private final int centerManBonus; // Bonus of a man on a center square.
+    private final int centerKingBonus; // Bonus of a king on a center square.
+    private final int mobilityWeight; // Bonus per simple move available, counted for both sides regardless of whose turn it is.
+    private final int tempoBonus; // Bonus for the side to move.
+    private final int[] squareValues; // Value of every piece type on every square, from White's point of view (see pieceValue()).
+
+    /**
+     * Constructs an evaluation with the given weights.
+     *
+     * @param manValue The material value of a man.
+     * @param kingValue The material value of a king.
+     * @param advancement The bonus of a man by rows advanced, 8 values from its own back row (0) to the promotion row (7).
+     * @param backRowBonus The bonus of a man on its own back row.
+     * @param centerManBonus The bonus of a man on a center square.
+     * @param centerKingBonus The bonus of a king on a center square.
+     * @param mobilityWeight The bonus per available simple move.
+     * @param tempoBonus The bonus for the side to move.
+     */
+    public Evaluation(int manValue, int kingValue, int[] advancement, int backRowBonus,
+                      int centerManBonus, int centerKingBonus, int mobilityWeight, int tempoBonus)
+    {
+        if (advancement.length != Board.BOARD_SIZE)
+        {
+            throw new IllegalArgumentException("advancement needs " + Board.BOARD_SIZE + " values, got " + advancement.length);
+        }
+
+        this.manValue = manValue;
+        this.kingValue = kingValue;
+        this.advancement = advancement.clone();
+        this.backRowBonus = backRowBonus;
+        this.centerManBonus = centerManBonus;
+        this.centerKingBonus = centerKingBonus;
+        this.mobilityWeight = mobilityWeight;
+        this.tempoBonus = tempoBonus;
+
+        squareValues = new int[4 * Bitboard.SQUARES];
+        for (int square = 0; square < Bitboard.SQUARES; square++)
+        {
+            int bit = 1 << square;
+            int x = Bitboard.toX(square);
+            int center = (CENTER & bit) != 0 ? 1 : 0;
+            int whiteMan = manValue + this.advancement[x] + center * centerManBonus
+                    + ((WHITE_BACK_ROW & bit) != 0 ? backRowBonus : 0);
+            int blackMan = manValue + this.advancement[Board.BOARD_SIZE - 1 - x] + center * centerManBonus
+                    + ((BLACK_BACK_ROW & bit) != 0 ? backRowBonus : 0);
+            int king = kingValue + center * centerKingBonus;
+
+            // Same order as the Zobrist keys: white man, white king, black man, black king. Black values are negative.
+            squareValues[square] = whiteMan;
+            squareValues[Bitboard.SQUARES + square] = king;
+            squareValues[2 * Bitboard.SQUARES + square] = -blackMan;
+            squareValues[3 * Bitboard.SQUARES + square] = -king;
+        }
+    }
+
+    /**
+     * Gets the evaluation with the built-in weights.
+     *
+     * @return The default evaluation.
+     */
+    public static Evaluation getDefault()
+    {
+        return DEFAULT;
+    }
+
+    /**
+     * Loads the weights from a properties file. Weights missing from the file keep their default values.
+     * The keys are man, king, advancement (8 comma-separated values), backRow, centerMan, centerKing, mobility and tempo.
+     *
+     * @param in The properties file.
+     * @return The evaluation with the loaded weights.
+     * @throws IOException If the file cannot be read.
+     * @throws IllegalArgumentException If a weight is not a number.
+     */
+    public static Evaluation load(InputStream in) throws IOException
+    {
+        Properties properties = new Properties();
+        properties.load(in);
+
+        int[] advancement = DEFAULT.advancement.clone();
+        String advancementText = properties.getProperty(ADVANCEMENT_KEY);
+        if (advancementText != null)
+        {
+            String[] values = advancementText.split(",");
+            if (values.length != advancement.length)
+            {
+                throw new IllegalArgumentException(ADVANCEMENT_KEY + " needs " + advancement.length + " values, got " + values.length);
+            }
+            for (int i = 0; i < values.length; i++)
+            {
+                advancement[i] = Integer.parseInt(values[i].trim());
+            }
+        }
+
+        return new Evaluation(
+                getWeight(properties, MAN_KEY, DEFAULT.manValue),
+                getWeight(properties, KING_KEY, DEFAULT.kingValue),
+                advancement,
+                getWeight(properties, BACK_ROW_KEY, DEFAULT.backRowBonus),
+                getWeight(properties, CENTER_MAN_KEY, DEFAULT.centerManBonus),
+                getWeight(properties, CENTER_KING_KEY, DEFAULT.centerKingBonus),
+                getWeight(properties, MOBILITY_KEY, DEFAULT.mobilityWeight),
+                getWeight(properties, TEMPO_KEY, DEFAULT.tempoBonus));
+    }
+
+    /**
+     * Writes the weights as a properties file that load() can read back, as a starting point for tuning.
+     *
+     * @param out The stream to write to.
+     * @throws IOException If the file cannot be written.
+     */
+    public void save(OutputStream out) throws IOException
+    {
+        StringBuilder advancementText = new StringBuilder();
+        for (int i = 0; i < advancement.length; i++)
+        {
+            advancementText.append(i == 0 ? "" : ",").append(advancement[i]);
+        }
+
+        Properties properties = new Properties();
+        properties.setProperty(MAN_KEY, Integer.toString(manValue));
+        properties.setProperty(KING_KEY, Integer.toString(kingValue));
+        properties.setProperty(ADVANCEMENT_KEY, advancementText.toString());
+        properties.setProperty(BACK_ROW_KEY, Integer.toString(backRowBonus));
+        properties.setProperty(CENTER_MAN_KEY, Integer.toString(centerManBonus));
+        properties.setProperty(CENTER_KING_KEY, Integer.toString(centerKingBonus));
+        properties.setProperty(MOBILITY_KEY, Integer.toString(mobilityWeight));
+        properties.setProperty(TEMPO_KEY, Integer.toString(tempoBonus));
+        properties.store(out, "Evaluation weights");
+    }
+
+    private static int getWeight(Properties properties, String key, int defaultValue)
+    {
+        String value = properties.getProperty(key);
+        return value == null ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    /**
+     * Evaluates a position. Does not allocate.
+     *
+     * @param board The position, whose positional score must have been kept with this evaluation (see Board.setEvaluation()).
+     * @return The score from the point of view of the side to move.
+     */
+    public int evaluate(Board board)
+    {
+        int whitePieces = board.getWhitePieces();
+        int blackPieces = board.getBlackPieces();
+        int kings = board.getKings();
+        int empty = ~(whitePieces | blackPieces);
+
+        // White men move up the rows (directions 0 and 1), black men down (directions 2 and 3), and kings both ways.
+        int whiteForward = whitePieces;
+        int whiteBackward = whitePieces & kings;
+        int blackForward = blackPieces & kings;
+        int blackBackward = blackPieces;
+        int whiteMobility = Integer.bitCount(Bitboard.step(whiteForward, 0) & empty) + Integer.bitCount(Bitboard.step(whiteForward, 1) & empty)
+                + Integer.bitCount(Bitboard.step(whiteBackward, 2) & empty) + Integer.bitCount(Bitboard.step(whiteBackward, 3) & empty);
+        int blackMobility = Integer.bitCount(Bitboard.step(blackForward, 0) & empty) + Integer.bitCount(Bitboard.step(blackForward, 1) & empty)
+                + Integer.bitCount(Bitboard.step(blackBackward, 2) & empty) + Integer.bitCount(Bitboard.step(blackBackward, 3) & empty);
+
+        int score = board.getPositionalScore() + (whiteMobility - blackMobility) * mobilityWeight;
+        return (board.getTurn() == Board.BLACK ? -score : score) + tempoBonus;
+    }
+
+    /**
+     * Gets the value of a piece on a square, including its material, advancement, back row and center bonuses.
+     *
+     * @param pieceIndex The piece type: 0 white man, 1 white king, 2 black man, 3 black king.
+     * @param square The square of the piece.
+     * @return The value from White's point of view, so negative for black pieces.
+     */
+    int pieceValue(int pieceIndex, int square)
+    {
+        return squareValues[pieceIndex * Bitboard.SQUARES + square];
+    }
+
+    public int getManValue()
+    {
+        return manValue;
+    }
+
+    public int getKingValue()
+    {
+        return kingValue;
+    }
+}
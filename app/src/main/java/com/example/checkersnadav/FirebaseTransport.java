@@ -0,0 +1,250 @@
+package com.example.checkersnadav;
+
+import android.util.Log;
+
+import com.google.firebase.database.ChildEventListener;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.ValueEventListener;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Carries online games through the Firebase Realtime Database.
+ * A game lives under games/[gameId], with the move log under "moves", the last snapshot under "snapshot",
+ * the status under "state" and requests for a snapshot under "resync" (see GameUpdates).
+ * Every change is written with one atomic updateChildren() call, and Firebase calls the listeners on the main thread.
+ */
+public class FirebaseTransport implements GameTransport
+{
+    private final DatabaseReference gamesRef; // The games, by game ID.
+    private final DatabaseReference roomsRef; // The rooms, which share the game's ID.
+    private final DatabaseReference usersRef; // The players, by user ID.
+    private final PlayerProfiles profiles; // Reads the opponents' elo.
+
+    /**
+     * Constructs a transport on the app's default Firebase database.
+     */
+    public FirebaseTransport()
+    {
+        FirebaseDatabase database = FirebaseDatabase.getInstance();
+        gamesRef = database.getReference("games");
+        roomsRef = database.getReference("rooms");
+        usersRef = database.getReference("users");
+        profiles = new PlayerProfiles();
+    }
+
+    @Override
+    public void createGame(String gameId, String whiteId, String blackId, String position, GameState state)
+    {
+        gamesRef.child(gameId).updateChildren(GameUpdates.start(whiteId, blackId, position, state));
+    }
+
+    @Override
+    public void publishMove(String gameId, MoveRecord record, String snapshot, GameState state, Completion completion)
+    {
+        gamesRef.child(gameId).updateChildren(GameUpdates.move(record, snapshot, state), (databaseError, databaseReference) ->
+        {
+            if (databaseError != null)
+            {
+                Log.e("FirebaseTransport", "Failed to send move: " + databaseError.toException());
+            }
+            completion.onComplete(databaseError == null ? null : databaseError.getMessage());
+        });
+    }
+
+    @Override
+    public void publishSnapshot(String gameId, String position, int ply)
+    {
+        gamesRef.child(gameId).updateChildren(GameUpdates.resync(position, ply));
+    }
+
+    @Override
+    public void requestResync(String gameId, int ply)
+    {
+        gamesRef.child(gameId).child(GameUpdates.RESYNC).setValue(ply);
+    }
+
+    @Override
+    public void publishState(String gameId, GameState state)
+    {
+        gamesRef.child(gameId).updateChildren(GameUpdates.state(state));
+    }
+
+    @Override
+    public Subscription subscribe(String gameId, Listener listener)
+    {
+        DatabaseReference gameRef = gamesRef.child(gameId);
+
+        // New moves in the log, which are the other player's moves (or this player's own, coming back)
+        DatabaseReference movesRef = gameRef.child(GameUpdates.MOVES);
+        ChildEventListener movesListener = movesRef.addChildEventListener(new ChildEventListener()
+        {
+            @Override
+            public void onChildAdded(DataSnapshot dataSnapshot, String previousChildName)
+            {
+                MoveRecord record = dataSnapshot.getValue(MoveRecord.class);
+                if (record != null)
+                {
+                    listener.onMove(record);
+                }
+            }
+
+            @Override
+            public void onChildChanged(DataSnapshot dataSnapshot, String previousChildName)
+            {
+            }
+
+            @Override
+            public void onChildRemoved(DataSnapshot dataSnapshot)
+            {
+            }
+
+            @Override
+            public void onChildMoved(DataSnapshot dataSnapshot, String previousChildName)
+            {
+            }
+
+            @Override
+            public void onCancelled(DatabaseError databaseError)
+            {
+                Log.e("FirebaseTransport", "Failed to read moves: " + databaseError.toException());
+            }
+        });
+
+        // Snapshots of the whole position, sent every few moves and when a player is out of sync
+        DatabaseReference snapshotRef = gameRef.child(GameUpdates.SNAPSHOT);
+        ValueEventListener snapshotListener = snapshotRef.addValueEventListener(new ValueEventListener()
+        {
+            @Override
+            public void onDataChange(DataSnapshot dataSnapshot)
+            {
+                String position = dataSnapshot.child("position").getValue(String.class);
+                Integer ply = dataSnapshot.child("ply").getValue(Integer.class);
+                if (position != null && ply != null)
+                {
+                    listener.onSnapshot(position, ply);
+                }
+            }
+
+            @Override
+            public void onCancelled(DatabaseError databaseError)
+            {
+                Log.e("FirebaseTransport", "Failed to read snapshot: " + databaseError.toException());
+            }
+        });
+
+        // The status of the game
+        DatabaseReference stateRef = gameRef.child(GameUpdates.STATE);
+        ValueEventListener stateListener = stateRef.addValueEventListener(new ValueEventListener()
+        {
+            @Override
+            public void onDataChange(DataSnapshot dataSnapshot)
+            {
+                Integer ply = dataSnapshot.child("ply").getValue(Integer.class);
+                Boolean active = dataSnapshot.child("isActive").getValue(Boolean.class);
+                if (ply != null && active != null) // Otherwise the game was deleted.
+                {
+                    listener.onState(new GameState(ply, dataSnapshot.child("currentTurn").getValue(String.class), active,
+                            dataSnapshot.child("forfeit").getValue(String.class)));
+                }
+            }
+
+            @Override
+            public void onCancelled(DatabaseError databaseError)
+            {
+                Log.e("FirebaseTransport", "Failed to read game state: " + databaseError.toException());
+            }
+        });
+
+        // The other player's requests for a snapshot
+        DatabaseReference resyncRef = gameRef.child(GameUpdates.RESYNC);
+        ValueEventListener resyncListener = resyncRef.addValueEventListener(new ValueEventListener()
+        {
+            @Override
+            public void onDataChange(DataSnapshot dataSnapshot)
+            {
+                Integer ply = dataSnapshot.getValue(Integer.class);
+                if (ply != null)
+                {
+                    listener.onResyncRequest(ply);
+                }
+            }
+
+            @Override
+            public void onCancelled(DatabaseError databaseError)
+            {
+                Log.e("FirebaseTransport", "Failed to read resync request: " + databaseError.toException());
+            }
+        });
+
+        return () ->
+        {
+            movesRef.removeEventListener(movesListener);
+            snapshotRef.removeEventListener(snapshotListener);
+            stateRef.removeEventListener(stateListener);
+            resyncRef.removeEventListener(resyncListener);
+        };
+    }
+
+    @Override
+    public void endGame(String gameId)
+    {
+        // Delete the game and room from Firebase, using game ID
+        gamesRef.child(gameId).removeValue();
+        roomsRef.child(gameId).removeValue();
+    }
+
+    @Override
+    public void updateStatistics(String playerId, String opponentId, Statistics.Outcomes outcome, int moves)
+    {
+        // Read only the opponent's elo and the player's own record, rather than every player
+        profiles.fetchProfile(opponentId, new PlayerProfiles.ProfileListener()
+        {
+            @Override
+            public void onProfile(PlayerProfile opponent)
+            {
+                DatabaseReference playerRef = usersRef.child(playerId);
+                playerRef.addListenerForSingleValueEvent(new ValueEventListener()
+                {
+                    @Override
+                    public void onDataChange(DataSnapshot dataSnapshot)
+                    {
+                        if (dataSnapshot.exists())
+                        {
+                            // Extract and update player statistics
+                            Statistics stats = dataSnapshot.child("stats").getValue(Statistics.class);
+                            SimpleDateFormat sdf = new SimpleDateFormat("dd-MM-yyyy", new Locale("he", "IL"));
+                            sdf.setTimeZone(TimeZone.getTimeZone("Asia/Jerusalem"));
+                            String todayInIsrael = sdf.format(new Date());
+
+                            // Determine if the player earns a daily bonus
+                            boolean hasDailyBonus = !todayInIsrael.equals(dataSnapshot.child("lastWinDate").getValue(String.class));
+
+                            // Update statistics based on game outcome
+                            stats.updateStatistics(outcome, moves, hasDailyBonus, opponent.getElo());
+                            playerRef.child("stats").setValue(stats);
+                        }
+                    }
+
+                    @Override
+                    public void onCancelled(DatabaseError databaseError)
+                    {
+                        Log.e("Failed to fetch player info", databaseError.getMessage());
+                    }
+                });
+            }
+
+            @Override
+            public void onError(String error)
+            {
+                Log.e("Failed to fetch opponent info", error);
+            }
+        });
+    }
+}
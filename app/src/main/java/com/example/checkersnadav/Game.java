@@ -13,6 +13,24 @@ public class Game
     public static final String BLACK_STRING = "BLACK";  // Constant for representing the black player.
     public static final String DRAW_STRING = "DRAW";  // Constant for a draw outcome.
     public static final String NONE_STRING = "NONE";  // Constant for no specific outcome.
+    private MoveListener moveListener;  // Notified of every move made, or null.
+
+    /**
+     * Receives the moves made in a game, for example to let a computer opponent think on the player's time.
+     */
+    public interface MoveListener
+    {
+        /**
+         * Called after a move was made, with the board already showing its result.
+         *
+         * @param game The game the move was made in.
+         * @param xSrc The x-coordinate the piece moved from.
+         * @param ySrc The y-coordinate the piece moved from.
+         * @param xDst The x-coordinate the piece moved to.
+         * @param yDst The y-coordinate the piece moved to.
+         */
+        void onMove(Game game, int xSrc, int ySrc, int xDst, int yDst);
+    }
 
     /**
      * Constructs a new Game instance initializing the board and setting the game as active.
@@ -55,12 +73,26 @@ public class Game
             {
                 isActive = false;  // Set game as inactive if the status is not NONE.
             }
+            if (moveListener != null)
+            {
+                moveListener.onMove(this, xSrc, ySrc, xDst, yDst);
+            }
             return true;  // Move was successful.
         }
 
         return false;  // Move was not successful.
     }
 
+    /**
+     * Sets the listener that is notified of every move made with makeMove().
+     *
+     * @param moveListener The listener, or null to stop notifying.
+     */
+    public void setMoveListener(MoveListener moveListener)
+    {
+        this.moveListener = moveListener;
+    }
+
     /**
      * Checks if the game is currently active.
      * @return true if the game is ongoing, false if it has concluded.
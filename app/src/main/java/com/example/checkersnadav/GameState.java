@@ -0,0 +1,75 @@
+package com.example.checkersnadav;
+
+/**
+ * The status of an online game as stored next to its move log: whose turn it is, whether the game is still on,
+ * and who forfeited. The ply of the last move is its version. Instances are immutable, so they can be handed
+ * to any number of listeners.
+ */
+public final class GameState
+{
+    private final int ply; // The number of moves made in the game, which is the version of the state.
+    private final String currentTurn; // WHITE_STRING or BLACK_STRING.
+    private final boolean isActive;
+    private final String forfeit; // The color of the player who forfeited, or null.
+
+    /**
+     * Constructs a game state.
+     *
+     * @param ply The number of moves made in the game.
+     * @param currentTurn The player to move, Game.WHITE_STRING or Game.BLACK_STRING.
+     * @param isActive false if the game is over.
+     * @param forfeit The color of the player who forfeited, or null.
+     */
+    public GameState(int ply, String currentTurn, boolean isActive, String forfeit)
+    {
+        this.ply = ply;
+        this.currentTurn = currentTurn;
+        this.isActive = isActive;
+        this.forfeit = forfeit;
+    }
+
+    /**
+     * Gets the state of a game from its board.
+     *
+     * @param board The board.
+     * @param ply The number of moves made in the game.
+     * @param isActive false if the game is over.
+     * @return The state.
+     */
+    public static GameState of(Board board, int ply, boolean isActive)
+    {
+        return new GameState(ply, board.getTurn() ? Game.BLACK_STRING : Game.WHITE_STRING, isActive, board.getForfeit());
+    }
+
+    /**
+     * @return The number of moves made in the game, which is the version of the state.
+     */
+    public int getPly()
+    {
+        return ply;
+    }
+
+    /**
+     * @return The player to move, Game.WHITE_STRING or Game.BLACK_STRING.
+     */
+    public String getCurrentTurn()
+    {
+        return currentTurn;
+    }
+
+    /**
+     * @return false if the game is over.
+     */
+    public boolean isActive()
+    {
+        return isActive;
+    }
+
+    /**
+     * @return The color of the player who forfeited, or null.
+     */
+    public String getForfeit()
+    {
+        return forfeit;
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.checkersnadav;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The one subscription to the changes of an online game on a device, shared by everything that shows the game.
+ * Each change is read and decoded once by the transport, and the resulting objects (MoveRecord and the immutable
+ * GameState) are handed to every subscriber, in the order they subscribed: the game's move sync first, and then
+ * the screen's turn indicator and end-of-game handling.
+ * Closing the stream removes the listener from the transport, so nothing is called after the screen is gone.
+ */
+public class GameStateStream implements GameTransport.Listener
+{
+    private final GameTransport.Subscription subscription; // The listener of the transport.
+    private final List<GameTransport.Listener> listeners = new CopyOnWriteArrayList<>(); // Can be cancelled during a call.
+    private final List<StateListener> stateListeners = new CopyOnWriteArrayList<>();
+    private volatile GameState lastState; // The last state received, or null.
+    private volatile boolean closed;
+
+    /**
+     * Receives the states of a game only, such as to show whose turn it is.
+     */
+    public interface StateListener
+    {
+        /**
+         * Called when the state of the game changed.
+         *
+         * @param state The new state.
+         */
+        void onState(GameState state);
+    }
+
+    /**
+     * Constructs a stream and subscribes to the game.
+     * The transport calls back later on the game's thread, so listeners that subscribe right after, on that thread,
+     * are told everything already written, including the moves made so far.
+     *
+     * @param transport The transport that carries the game.
+     * @param gameId The game.
+     */
+    public GameStateStream(GameTransport transport, String gameId)
+    {
+        subscription = transport.subscribe(gameId, this);
+    }
+
+    /**
+     * Adds a listener of all the changes of the game.
+     *
+     * @param listener The listener.
+     * @return The subscription, to cancel when the listener is done with the game.
+     */
+    public GameTransport.Subscription subscribe(GameTransport.Listener listener)
+    {
+        listeners.add(listener);
+        return () -> listeners.remove(listener);
+    }
+
+    /**
+     * Adds a listener of the states of the game, which is first told the last state if there is one.
+     *
+     * @param listener The listener.
+     * @return The subscription, to cancel when the listener is done with the game.
+     */
+    public GameTransport.Subscription subscribeToState(StateListener listener)
+    {
+        GameState state = lastState;
+        if (state != null)
+        {
+            listener.onState(state);
+        }
+        stateListeners.add(listener);
+        return () -> stateListeners.remove(listener);
+    }
+
+    /**
+     * @return The last state of the game received, or null if none was received yet.
+     */
+    public GameState getLastState()
+    {
+        return lastState;
+    }
+
+    /**
+     * Stops listening to the game and drops all the listeners. Calling it again does nothing.
+     */
+    public void close()
+    {
+        if (closed)
+        {
+            return;
+        }
+        closed = true;
+        subscription.cancel();
+        listeners.clear();
+        stateListeners.clear();
+    }
+
+    @Override
+    public void onMove(MoveRecord record)
+    {
+        for (GameTransport.Listener listener : listeners)
+        {
+            listener.onMove(record);
+        }
+    }
+
+    @Override
+    public void onSnapshot(String position, int ply)
+    {
+        for (GameTransport.Listener listener : listeners)
+        {
+            listener.onSnapshot(position, ply);
+        }
+    }
+
+    @Override
+    public void onState(GameState state)
+    {
+        lastState = state;
+        for (GameTransport.Listener listener : listeners)
+        {
+            listener.onState(state);
+        }
+        for (StateListener listener : stateListeners)
+        {
+            listener.onState(state);
+        }
+    }
+
+    @Override
+    public void onResyncRequest(int ply)
+    {
+        for (GameTransport.Listener listener : listeners)
+        {
+            listener.onResyncRequest(ply);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.checkersnadav;
+
+/**
+ * Carries the data of online games between the players: the move log, the snapshots and the state of each game,
+ * and the players' statistics once a game is over.
+ * FirebaseTransport is the one the app uses; LoopbackTransport keeps everything in memory, so that the sync can be
+ * tested and measured without a network.
+ * All the listener calls of one game are made on one thread, in the order the changes were written.
+ */
+public interface GameTransport
+{
+    /**
+     * Receives the changes to a game.
+     */
+    interface Listener
+    {
+        /**
+         * Called for every move in the log, including the moves made before subscribing and this player's own moves.
+         *
+         * @param record The move.
+         */
+        void onMove(MoveRecord record);
+
+        /**
+         * Called when a snapshot of the position was written.
+         *
+         * @param position The position, encoded with PositionCodec.encodeToString().
+         * @param ply The number of moves made before the position.
+         */
+        void onSnapshot(String position, int ply);
+
+        /**
+         * Called when the state of the game changed.
+         *
+         * @param state The new state.
+         */
+        void onState(GameState state);
+
+        /**
+         * Called when a player asked for a snapshot, because its board no longer matches the log.
+         *
+         * @param ply The number of moves that player had made.
+         */
+        void onResyncRequest(int ply);
+    }
+
+    /**
+     * Stops the calls to a listener.
+     */
+    interface Subscription
+    {
+        /**
+         * Removes the listener. No calls are made to it afterwards, other than the ones already running.
+         */
+        void cancel();
+    }
+
+    /**
+     * Receives the outcome of a write.
+     */
+    interface Completion
+    {
+        /**
+         * Called once the write was accepted or refused.
+         *
+         * @param error null if the write was accepted, or the reason it was refused.
+         */
+        void onComplete(String error);
+    }
+
+    /**
+     * Creates a game, with its starting position as the first snapshot.
+     *
+     * @param gameId The game.
+     * @param whiteId The ID of the player using the white pieces.
+     * @param blackId The ID of the player using the black pieces.
+     * @param position The starting position, encoded with PositionCodec.encodeToString().
+     * @param state The starting state.
+     */
+    void createGame(String gameId, String whiteId, String blackId, String position, GameState state);
+
+    /**
+     * Appends a move to the log and updates the state of the game, in one atomic write.
+     *
+     * @param gameId The game.
+     * @param record The move.
+     * @param snapshot The position after the move, to write as a snapshot, or null.
+     * @param state The state after the move.
+     * @param completion Told whether the write was accepted.
+     */
+    void publishMove(String gameId, MoveRecord record, String snapshot, GameState state, Completion completion);
+
+    /**
+     * Writes a snapshot in answer to a request for one, and clears the request.
+     *
+     * @param gameId The game.
+     * @param position The position, encoded with PositionCodec.encodeToString().
+     * @param ply The number of moves made before the position.
+     */
+    void publishSnapshot(String gameId, String position, int ply);
+
+    /**
+     * Asks the other player for a snapshot.
+     *
+     * @param gameId The game.
+     * @param ply The number of moves this player has made.
+     */
+    void requestResync(String gameId, int ply);
+
+    /**
+     * Updates the state of a game without a move, such as when a player forfeits.
+     *
+     * @param gameId The game.
+     * @param state The new state.
+     */
+    void publishState(String gameId, GameState state);
+
+    /**
+     * Starts listening to the changes of a game. The listener is first told everything already written.
+     *
+     * @param gameId The game.
+     * @param listener The listener.
+     * @return The subscription, to cancel when the game is left.
+     */
+    Subscription subscribe(String gameId, Listener listener);
+
+    /**
+     * Deletes a game that is over, with its room.
+     *
+     * @param gameId The game.
+     */
+    void endGame(String gameId);
+
+    /**
+     * Adds the outcome of a game to a player's statistics.
+     *
+     * @param playerId The player.
+     * @param opponentId The player's opponent, whose Elo rating counts.
+     * @param outcome The outcome for the player.
+     * @param moves The number of moves the player made.
+     */
+    void updateStatistics(String playerId, String opponentId, Statistics.Outcomes outcome, int moves);
+}
@@ -0,0 +1,128 @@
+package com.example.checkersnadav;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Builds the writes of an online game to Firebase as multi-location updates, one map of paths
+ * (relative to games/[gameId]) to values per change, so that each change is written with a single atomic
+ * updateChildren() call.
+ * The players never see half of a change, and every listener is called once for it instead of once per value.
+ * The status of the game is kept together under "state", with the ply of the last move as its version,
+ * so a listener can tell a new state from one it has already seen.
+ */
+public final class GameUpdates
+{
+    public static final String MOVES = "moves"; // The move log, one MoveRecord per ply.
+    public static final String SNAPSHOT = "snapshot"; // The last full position: "position" and "ply".
+    public static final String STATE = "state"; // The status of the game: "ply", "currentTurn", "isActive" and "forfeit".
+    public static final String RESYNC = "resync"; // A player's request for a snapshot.
+
+    private GameUpdates()
+    {
+        // Static helpers only.
+    }
+
+    /**
+     * Builds the update that creates a game.
+     *
+     * @param whiteId The ID of the player using the white pieces.
+     * @param blackId The ID of the player using the black pieces.
+     * @param position The starting position, encoded with PositionCodec.encodeToString().
+     * @param state The starting state.
+     * @return The paths and values to write.
+     */
+    public static Map<String, Object> start(String whiteId, String blackId, String position, GameState state)
+    {
+        Map<String, Object> update = new HashMap<>();
+        update.put("whiteId", whiteId);
+        update.put("blackId", blackId);
+        putSnapshot(update, position, state.getPly());
+        putState(update, state);
+        return update;
+    }
+
+    /**
+     * Builds the update for a move: the move record, the new state and, if given, a snapshot.
+     *
+     * @param record The move.
+     * @param snapshot The position after the move, or null to write no snapshot.
+     * @param state The state after the move.
+     * @return The paths and values to write.
+     */
+    public static Map<String, Object> move(MoveRecord record, String snapshot, GameState state)
+    {
+        Map<String, Object> update = new HashMap<>();
+        String path = MOVES + "/" + record.getPly() + "/";
+        update.put(path + "from", record.getFrom());
+        update.put(path + "to", record.getTo());
+        update.put(path + "ply", record.getPly());
+        update.put(path + "hash", record.getHash());
+        if (snapshot != null)
+        {
+            putSnapshot(update, snapshot, record.getPly());
+        }
+        putState(update, state);
+        return update;
+    }
+
+    /**
+     * Builds the update that answers a request for a snapshot, and clears the request.
+     *
+     * @param position The position, encoded with PositionCodec.encodeToString().
+     * @param ply The number of moves made before the position.
+     * @return The paths and values to write.
+     */
+    public static Map<String, Object> resync(String position, int ply)
+    {
+        Map<String, Object> update = new HashMap<>();
+        putSnapshot(update, position, ply);
+        update.put(RESYNC, null);
+        return update;
+    }
+
+    /**
+     * Builds the update that changes the state of a game without a move, such as when a player forfeits.
+     *
+     * @param state The new state.
+     * @return The paths and values to write.
+     */
+    public static Map<String, Object> state(GameState state)
+    {
+        Map<String, Object> update = new HashMap<>();
+        putState(update, state);
+        return update;
+    }
+
+    /**
+     * Estimates the size of an update as the JSON that is sent to the database.
+     *
+     * @param update The paths and values.
+     * @return The size in bytes.
+     */
+    public static int estimateSize(Map<String, Object> update)
+    {
+        int size = 2; // The braces.
+        for (Map.Entry<String, Object> entry : update.entrySet())
+        {
+            Object value = entry.getValue();
+            size += entry.getKey().length() + 4; // The quoted path, the colon and the comma.
+            size += value instanceof String ? ((String) value).length() + 2 : String.valueOf(value).length();
+        }
+        return size;
+    }
+
+    private static void putSnapshot(Map<String, Object> update, String position, int ply)
+    {
+        update.put(SNAPSHOT + "/position", position);
+        update.put(SNAPSHOT + "/ply", ply);
+    }
+
+    private static void putState(Map<String, Object> update, GameState state)
+    {
+        update.put(STATE + "/ply", state.getPly());
+        update.put(STATE + "/currentTurn", state.getCurrentTurn());
+        update.put(STATE + "/isActive", state.isActive());
+        update.put(STATE + "/forfeit", state.getForfeit());
+    }
+}
@@ -0,0 +1,389 @@
+package com.example.checkersnadav;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Carries online games in memory, for testing and measuring the sync without a network or a Firebase project.
+ * Every change reaches the listeners after a simulated latency plus a random jitter, still in the order it was written,
+ * and a share of the moves can be refused, the way a write fails on a bad connection, so that the moves are taken back.
+ * The calls of each game are made on one of a few event threads, picked by the game ID.
+ * Statistics are kept in memory, without the daily bonus.
+ * The transport counts the writes, their size as the JSON Firebase would be sent, and the calls to the listeners.
+ */
+public class LoopbackTransport implements GameTransport
+{
+    private final ScheduledExecutorService[] threads; // The event threads.
+    private final long latencyNanos; // The delay of every change.
+    private final long jitterNanos; // The most random delay added to it.
+    private final double lossRate; // The share of moves that are refused.
+    private final Map<String, StoredGame> games = new ConcurrentHashMap<>();
+    private final Map<String, Statistics> statistics = new ConcurrentHashMap<>(); // By player ID.
+    private final AtomicLong writes = new AtomicLong();
+    private final AtomicLong bytesWritten = new AtomicLong();
+    private final AtomicLong callbacks = new AtomicLong(); // The calls made to listeners.
+
+    /**
+     * A game, as it is stored. Guarded by its own lock.
+     */
+    private static final class StoredGame
+    {
+        final ScheduledExecutorService thread; // Makes all the calls of the game.
+        final TreeMap<Integer, MoveRecord> moves = new TreeMap<>(); // The move log, by ply.
+        final List<StoredSubscription> subscriptions = new ArrayList<>();
+        String snapshot; // The last snapshot, or null.
+        int snapshotPly;
+        GameState state; // The state, or null before the game was created.
+        int resync = -1; // The ply of the pending request for a snapshot, or -1.
+
+        StoredGame(ScheduledExecutorService thread)
+        {
+            this.thread = thread;
+        }
+    }
+
+    /**
+     * A listener of a game, with the time its last call is due, to keep the calls in order.
+     */
+    private final class StoredSubscription implements Subscription
+    {
+        final StoredGame game;
+        final Listener listener;
+        long lastDue; // The System.nanoTime() at which the last call was scheduled.
+        volatile boolean cancelled;
+
+        StoredSubscription(StoredGame game, Listener listener)
+        {
+            this.game = game;
+            this.listener = listener;
+        }
+
+        /**
+         * Schedules a call to the listener after the simulated delay, but not before the calls scheduled earlier.
+         */
+        void deliver(ListenerCall call)
+        {
+            long now = System.nanoTime();
+            lastDue = Math.max(lastDue, now + delayNanos());
+            game.thread.schedule(() ->
+            {
+                if (!cancelled)
+                {
+                    callbacks.incrementAndGet();
+                    call.run(listener);
+                }
+            }, lastDue - now, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void cancel()
+        {
+            cancelled = true;
+            synchronized (game)
+            {
+                game.subscriptions.remove(this);
+            }
+        }
+    }
+
+    /**
+     * One call to a listener.
+     */
+    private interface ListenerCall
+    {
+        void run(Listener listener);
+    }
+
+    /**
+     * Constructs a loopback transport.
+     *
+     * @param threads The number of event threads.
+     * @param latencyMillis The delay of every change, in milliseconds.
+     * @param jitterMillis The most random delay added to it, in milliseconds.
+     * @param lossRate The share of moves that are refused, from 0 to 1.
+     */
+    public LoopbackTransport(int threads, double latencyMillis, double jitterMillis, double lossRate)
+    {
+        this.threads = new ScheduledExecutorService[threads];
+        for (int i = 0; i < threads; i++)
+        {
+            final String name = "loopback-" + i;
+            this.threads[i] = Executors.newSingleThreadScheduledExecutor(runnable ->
+            {
+                Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true); // The transport must not keep the process alive.
+                return thread;
+            });
+        }
+        this.latencyNanos = (long) (latencyMillis * 1000000);
+        this.jitterNanos = (long) (jitterMillis * 1000000);
+        this.lossRate = lossRate;
+    }
+
+    @Override
+    public void createGame(String gameId, String whiteId, String blackId, String position, GameState state)
+    {
+        countWrite(GameUpdates.start(whiteId, blackId, position, state));
+        StoredGame game = game(gameId);
+        synchronized (game)
+        {
+            game.snapshot = position;
+            game.snapshotPly = state.getPly();
+            game.state = state;
+            for (StoredSubscription subscription : game.subscriptions)
+            {
+                subscription.deliver(listener -> listener.onSnapshot(position, state.getPly()));
+                subscription.deliver(listener -> listener.onState(state));
+            }
+        }
+    }
+
+    @Override
+    public void publishMove(String gameId, MoveRecord record, String snapshot, GameState state, Completion completion)
+    {
+        StoredGame game = games.get(gameId);
+        if (game == null)
+        {
+            return; // The game is over and deleted.
+        }
+        countWrite(GameUpdates.move(record, snapshot, state));
+        if (lossRate > 0 && ThreadLocalRandom.current().nextDouble() < lossRate)
+        {
+            game.thread.schedule(() -> completion.onComplete("Simulated loss"), delayNanos(), TimeUnit.NANOSECONDS);
+            return;
+        }
+        synchronized (game)
+        {
+            int lastPly = game.moves.isEmpty() ? 0 : game.moves.lastKey();
+            if (record.getPly() != lastPly + 1)
+            {
+                // The rule in database.rules.json: a move is written once, and only right after the last one
+                game.thread.schedule(() -> completion.onComplete("The move does not follow ply " + lastPly),
+                        delayNanos(), TimeUnit.NANOSECONDS);
+                return;
+            }
+            game.moves.put(record.getPly(), record);
+            if (snapshot != null)
+            {
+                game.snapshot = snapshot;
+                game.snapshotPly = record.getPly();
+            }
+            game.state = state;
+            for (StoredSubscription subscription : game.subscriptions)
+            {
+                subscription.deliver(listener -> listener.onMove(record));
+                if (snapshot != null)
+                {
+                    subscription.deliver(listener -> listener.onSnapshot(snapshot, record.getPly()));
+                }
+                subscription.deliver(listener -> listener.onState(state));
+            }
+        }
+        game.thread.schedule(() -> completion.onComplete(null), delayNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void publishSnapshot(String gameId, String position, int ply)
+    {
+        countWrite(GameUpdates.resync(position, ply));
+        StoredGame game = games.get(gameId);
+        if (game == null)
+        {
+            return;
+        }
+        synchronized (game)
+        {
+            game.snapshot = position;
+            game.snapshotPly = ply;
+            game.resync = -1;
+            for (StoredSubscription subscription : game.subscriptions)
+            {
+                subscription.deliver(listener -> listener.onSnapshot(position, ply));
+            }
+        }
+    }
+
+    @Override
+    public void requestResync(String gameId, int ply)
+    {
+        writes.incrementAndGet();
+        bytesWritten.addAndGet(String.valueOf(ply).length());
+        StoredGame game = games.get(gameId);
+        if (game == null)
+        {
+            return;
+        }
+        synchronized (game)
+        {
+            game.resync = ply;
+            for (StoredSubscription subscription : game.subscriptions)
+            {
+                subscription.deliver(listener -> listener.onResyncRequest(ply));
+            }
+        }
+    }
+
+    @Override
+    public void publishState(String gameId, GameState state)
+    {
+        countWrite(GameUpdates.state(state));
+        StoredGame game = games.get(gameId);
+        if (game == null)
+        {
+            return;
+        }
+        synchronized (game)
+        {
+            game.state = state;
+            for (StoredSubscription subscription : game.subscriptions)
+            {
+                subscription.deliver(listener -> listener.onState(state));
+            }
+        }
+    }
+
+    @Override
+    public Subscription subscribe(String gameId, Listener listener)
+    {
+        StoredGame game = game(gameId);
+        StoredSubscription subscription = new StoredSubscription(game, listener);
+        synchronized (game)
+        {
+            // Tell the listener what was written so far
+            if (game.snapshot != null)
+            {
+                String snapshot = game.snapshot;
+                int snapshotPly = game.snapshotPly;
+                subscription.deliver(call -> call.onSnapshot(snapshot, snapshotPly));
+            }
+            for (MoveRecord record : game.moves.values())
+            {
+                subscription.deliver(call -> call.onMove(record));
+            }
+            if (game.state != null)
+            {
+                GameState state = game.state;
+                subscription.deliver(call -> call.onState(state));
+            }
+            if (game.resync >= 0)
+            {
+                int resync = game.resync;
+                subscription.deliver(call -> call.onResyncRequest(resync));
+            }
+            game.subscriptions.add(subscription);
+        }
+        return subscription;
+    }
+
+    @Override
+    public void endGame(String gameId)
+    {
+        games.remove(gameId);
+    }
+
+    @Override
+    public void updateStatistics(String playerId, String opponentId, Statistics.Outcomes outcome, int moves)
+    {
+        synchronized (statistics)
+        {
+            Statistics opponent = statistics.get(opponentId);
+            int opponentElo = opponent == null ? new Statistics().getElo() : opponent.getElo();
+            Statistics stats = statistics.get(playerId);
+            if (stats == null)
+            {
+                stats = new Statistics();
+                statistics.put(playerId, stats);
+            }
+            stats.updateStatistics(outcome, moves, false, opponentElo);
+        }
+    }
+
+    /**
+     * Gets a player's statistics.
+     *
+     * @param playerId The player.
+     * @return The statistics, or null if the player finished no game.
+     */
+    public Statistics getStatistics(String playerId)
+    {
+        return statistics.get(playerId);
+    }
+
+    /**
+     * @return The number of writes made to games.
+     */
+    public long getWrites()
+    {
+        return writes.get();
+    }
+
+    /**
+     * @return The size of the writes made to games, as the JSON Firebase would be sent, in bytes.
+     */
+    public long getBytesWritten()
+    {
+        return bytesWritten.get();
+    }
+
+    /**
+     * @return The number of calls made to listeners.
+     */
+    public long getCallbacks()
+    {
+        return callbacks.get();
+    }
+
+    /**
+     * Runs a task on the event thread of a game, where all the calls to its listeners are made.
+     *
+     * @param gameId The game.
+     * @param task The task.
+     */
+    public void execute(String gameId, Runnable task)
+    {
+        threadOf(gameId).execute(task);
+    }
+
+    /**
+     * Stops the event threads. The transport cannot be used afterwards.
+     */
+    public void shutdown()
+    {
+        for (ScheduledExecutorService thread : threads)
+        {
+            thread.shutdownNow();
+        }
+    }
+
+    private void countWrite(Map<String, Object> update)
+    {
+        writes.incrementAndGet();
+        bytesWritten.addAndGet(GameUpdates.estimateSize(update));
+    }
+
+    private StoredGame game(String gameId)
+    {
+        return games.computeIfAbsent(gameId, id -> new StoredGame(threadOf(id)));
+    }
+
+    private ScheduledExecutorService threadOf(String gameId)
+    {
+        return threads[Math.floorMod(gameId.hashCode(), threads.length)];
+    }
+
+    /**
+     * Picks the simulated delay of one change.
+     */
+    private long delayNanos()
+    {
+        return jitterNanos == 0 ? latencyNanos : latencyNanos + ThreadLocalRandom.current().nextLong(jitterNanos + 1);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.checkersnadav;
+
+import java.util.Locale;
+
+/**
+ * The outcome of a Monte Carlo search: the chosen move and statistics about how the search went.
+ */
+public class MonteCarloResult
+{
+    private final int bestMove; // The chosen move (see Move), or Move.NONE if the side to move has no moves.
+    private final double expectedScore; // The average result of the move's playouts, from 0 (lost) to 1 (won).
+    private final long playouts; // The number of random games played.
+    private final int treeNodes; // The number of nodes the tree grew to.
+    private final long elapsedNanos; // The wall-clock time the search took.
+
+    /**
+     * Constructs a Monte Carlo search result.
+     *
+     * @param bestMove The chosen move, or Move.NONE if there is none.
+     * @param expectedScore The average result of the move's playouts for the side to move, from 0 (lost) to 1 (won).
+     * @param playouts The number of random games played.
+     * @param treeNodes The number of nodes the tree grew to.
+     * @param elapsedNanos The time the search took, in nanoseconds.
+     */
+    public MonteCarloResult(int bestMove, double expectedScore, long playouts, int treeNodes, long elapsedNanos)
+    {
+        this.bestMove = bestMove;
+        this.expectedScore = expectedScore;
+        this.playouts = playouts;
+        this.treeNodes = treeNodes;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public int getBestMove()
+    {
+        return bestMove;
+    }
+
+    public double getExpectedScore()
+    {
+        return expectedScore;
+    }
+
+    public long getPlayouts()
+    {
+        return playouts;
+    }
+
+    public int getTreeNodes()
+    {
+        return treeNodes;
+    }
+
+    public long getElapsedNanos()
+    {
+        return elapsedNanos;
+    }
+
+    public long getElapsedMillis()
+    {
+        return elapsedNanos / 1000000;
+    }
+
+    /**
+     * Gets the search speed.
+     *
+     * @return The number of random games played per second.
+     */
+    public long getPlayoutsPerSecond()
+    {
+        return elapsedNanos == 0 ? 0 : playouts * 1000000000L / elapsedNanos;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format(Locale.US, "%s expected score %.3f playouts %d tree nodes %d time %d ms (%d playouts/s)",
+                bestMove == Move.NONE ? "none" : Move.toString(bestMove), expectedScore, playouts, treeNodes, getElapsedMillis(), getPlayoutsPerSecond());
+    }
+}
@@ -0,0 +1,380 @@
+package com.example.checkersnadav;
+
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A computer opponent that uses Monte Carlo tree search: it plays many random games (playouts) from the position,
+ * grows a tree towards the moves that win most often, picking children by UCT, and plays the most visited root move.
+ * It plays a more human, less precise game than SearchEngine, which suits a casual difficulty.
+ * The playouts run in parallel on a fork-join pool, all the workers growing the same tree. A worker counts its visit
+ * on the way down and its result only on the way back up, so while its playout runs the path looks like a loss to the
+ * other workers (a virtual loss) and they spread over other moves instead of all following the same one.
+ * The tree lives in preallocated arrays indexed by node, with the children of a node stored next to each other,
+ * so a search creates no node objects and no garbage; once the arrays are full the tree stops growing.
+ * One search must only be started by one thread at a time.
+ */
+public class MonteCarloSearch
+{
+    public static final double DEFAULT_EXPLORATION = 1.4; // About sqrt(2), the UCT constant for results between 0 and 1.
+
+    private static final int DEFAULT_MAX_NODES = 1 << 19; // 10 MB of tree.
+    private static final int MAX_TREE_DEPTH = 256; // Deeper paths stop growing the tree and play out from there.
+    private static final int UNEXPANDED = 0; // firstChild of a node whose children have not been added yet (the root is never a child).
+    private static final int EXPANDING = -1; // firstChild of a node whose children another worker is adding.
+    private static final int LEAF = -2; // firstChild of a node that will never have children: the game is over, or the tree is full.
+    private static final int WIN_POINTS = 2; // The results are counted in half points, so that draws stay integers.
+    private static final int DRAW_POINTS = 1;
+
+    // The tree. A node is an index into the arrays; its children are the nodes firstChild .. firstChild + childCount - 1.
+    private final AtomicIntegerArray firstChild; // The first child, or UNEXPANDED, EXPANDING or LEAF. Publishes the children.
+    private final int[] childCount; // Written before firstChild is set, so it is visible to every worker that sees the children.
+    private final int[] moves; // The move that leads from the parent to the node.
+    private final AtomicIntegerArray visits; // The playouts through the node, including the ones still running.
+    private final AtomicIntegerArray points; // The half points the playouts scored for the player who made the node's move.
+    private final AtomicInteger nodeCount; // The nodes in use; new children are allocated at the end.
+
+    private final Board root; // The position being searched.
+    private final Worker[] workers; // One per thread, each with its own board and buffers.
+    private final ForkJoinPool pool;
+    private final ForkJoinTask<?>[] tasks;
+    private final AtomicLong playoutsStarted; // Counts the playouts against the budget.
+    private double exploration = DEFAULT_EXPLORATION;
+    private long maxPlayouts;
+    private long deadline; // System.nanoTime() at which the search has to stop.
+    private volatile boolean stopRequested; // Set by stop(), possibly from another thread.
+
+    /**
+     * Constructs a Monte Carlo search with one thread per available processor.
+     */
+    public MonteCarloSearch()
+    {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_MAX_NODES);
+    }
+
+    /**
+     * Constructs a Monte Carlo search.
+     *
+     * @param threadCount The number of threads to run playouts on.
+     * @param maxNodes The most nodes the tree can grow to; every node takes 20 bytes.
+     */
+    public MonteCarloSearch(int threadCount, int maxNodes)
+    {
+        if (threadCount < 1)
+        {
+            throw new IllegalArgumentException("threadCount must be at least 1, got " + threadCount);
+        }
+        if (maxNodes <= MoveList.CAPACITY)
+        {
+            throw new IllegalArgumentException("maxNodes must be more than " + MoveList.CAPACITY + ", got " + maxNodes);
+        }
+
+        firstChild = new AtomicIntegerArray(maxNodes);
+        childCount = new int[maxNodes];
+        moves = new int[maxNodes];
+        visits = new AtomicIntegerArray(maxNodes);
+        points = new AtomicIntegerArray(maxNodes);
+        nodeCount = new AtomicInteger();
+        root = new Board();
+        workers = new Worker[threadCount];
+        for (int i = 0; i < threadCount; i++)
+        {
+            workers[i] = new Worker(System.nanoTime() + i * 0x9E3779B97F4A7C15L);
+        }
+        pool = new ForkJoinPool(threadCount); // Its threads are daemons, so they do not keep the app alive.
+        tasks = new ForkJoinTask<?>[threadCount];
+        playoutsStarted = new AtomicLong();
+    }
+
+    /**
+     * Searches for the best move in the given position, until either budget runs out.
+     *
+     * @param position The position to search. It is not modified.
+     * @param maxPlayouts The most playouts to run, or Long.MAX_VALUE to only limit the time.
+     * @param timeBudgetMillis The time the search may take, in milliseconds.
+     * @return The most visited move, with the search statistics.
+     */
+    public MonteCarloResult search(Board position, long maxPlayouts, long timeBudgetMillis)
+    {
+        long start = System.nanoTime();
+        stopRequested = false;
+        root.copyFrom(position);
+        this.maxPlayouts = maxPlayouts;
+        deadline = start + timeBudgetMillis * 1000000L;
+        playoutsStarted.set(0);
+
+        // Set up the root and add its children before the workers start
+        nodeCount.set(1);
+        firstChild.set(0, UNEXPANDED);
+        visits.set(0, 0);
+        points.set(0, 0);
+        Worker first = workers[0];
+        first.board.copyFrom(root);
+        first.expand(0);
+        if (firstChild.get(0) == LEAF || childCount[0] == 1)
+        {
+            // The game is over, or there is only one move to play: nothing to search
+            boolean over = firstChild.get(0) == LEAF;
+            return new MonteCarloResult(over ? Move.NONE : moves[firstChild.get(0)], over ? 0 : 0.5, 0, nodeCount.get(),
+                    System.nanoTime() - start);
+        }
+
+        for (int i = 0; i < workers.length; i++)
+        {
+            workers[i].playouts = 0;
+            tasks[i] = pool.submit(workers[i]);
+        }
+        long playouts = 0;
+        for (int i = 0; i < workers.length; i++)
+        {
+            tasks[i].join();
+            tasks[i] = null;
+            playouts += workers[i].playouts;
+        }
+
+        // Play the most visited move: unlike the best average, it is backed by enough playouts to trust
+        int children = firstChild.get(0);
+        int best = children;
+        for (int child = children + 1; child < children + childCount[0]; child++)
+        {
+            if (visits.get(child) > visits.get(best))
+            {
+                best = child;
+            }
+        }
+        double expectedScore = visits.get(best) == 0 ? 0.5 : points.get(best) / (double) (WIN_POINTS * visits.get(best));
+        return new MonteCarloResult(moves[best], expectedScore, playouts, Math.min(nodeCount.get(), moves.length),
+                System.nanoTime() - start);
+    }
+
+    /**
+     * Sets how much the search explores moves with few playouts instead of the ones that scored best so far.
+     *
+     * @param exploration The UCT exploration constant; higher values explore more.
+     */
+    public void setExploration(double exploration)
+    {
+        this.exploration = exploration;
+    }
+
+    /**
+     * Stops the current search as soon as possible. May be called from any thread.
+     */
+    public void stop()
+    {
+        stopRequested = true;
+    }
+
+    public int getThreadCount()
+    {
+        return workers.length;
+    }
+
+    /**
+     * Stops the worker threads. The search cannot be used afterwards.
+     */
+    public void shutdown()
+    {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Runs playouts on one thread until the budget runs out.
+     */
+    private final class Worker implements Runnable
+    {
+        final Board board = new Board(); // The worker's own copy of the position, played forward by every playout.
+        final MoveList moveList = new MoveList();
+        final int[] path = new int[MAX_TREE_DEPTH]; // The nodes visited on the way down.
+        final boolean[] movers = new boolean[MAX_TREE_DEPTH]; // The player who made the move of each node on the path.
+        long random; // The state of a xorshift generator, so that playouts do not share a Random.
+        long playouts; // The playouts this worker completed in the current search.
+
+        Worker(long seed)
+        {
+            random = seed == 0 ? 1 : seed;
+        }
+
+        @Override
+        public void run()
+        {
+            while (!stopRequested && playoutsStarted.getAndIncrement() < maxPlayouts && System.nanoTime() < deadline)
+            {
+                playout();
+                playouts++;
+            }
+        }
+
+        /**
+         * Walks down the tree by UCT, adds the children of the node it stops at, plays a random game from there
+         * and adds the result to every node on the way.
+         */
+        private void playout()
+        {
+            board.copyFrom(root);
+            int node = 0;
+            int depth = 0;
+            visits.incrementAndGet(0);
+            while (depth < MAX_TREE_DEPTH)
+            {
+                int children = firstChild.get(node);
+                if (children == UNEXPANDED)
+                {
+                    // Only nodes that were played out from before get children, so single visits do not fill the tree
+                    if (visits.get(node) < 2 || !firstChild.compareAndSet(node, UNEXPANDED, EXPANDING))
+                    {
+                        break;
+                    }
+                    children = expand(node);
+                }
+                if (children < 0)
+                {
+                    break; // A leaf, or another worker is still adding the children.
+                }
+
+                int child = selectChild(node, children);
+                movers[depth] = board.getTurn();
+                path[depth++] = child;
+                visits.incrementAndGet(child); // The virtual loss, until the result is added.
+                board.makeMove(moves[child]);
+                node = child;
+            }
+
+            int whitePoints = playRandomGame();
+            for (int i = 0; i < depth; i++)
+            {
+                int score = movers[i] == Board.WHITE ? whitePoints : WIN_POINTS - whitePoints;
+                if (score != 0)
+                {
+                    points.addAndGet(path[i], score);
+                }
+            }
+        }
+
+        /**
+         * Adds the children of a node, one per legal move of the worker's board.
+         *
+         * @return The first child, or LEAF if the node cannot have children.
+         */
+        int expand(int node)
+        {
+            int count = MoveGenerator.generateMoves(board, moveList);
+            int first = LEAF;
+            if (count > 0 && board.getMovesSinceCaptureOrKing() < SearchEngine.DRAW_MOVES
+                    && nodeCount.get() + count <= moves.length)
+            {
+                first = nodeCount.getAndAdd(count);
+                if (first + count > moves.length)
+                {
+                    first = LEAF; // Another worker took the last nodes first.
+                }
+            }
+
+            if (first != LEAF)
+            {
+                for (int i = 0; i < count; i++)
+                {
+                    int child = first + i;
+                    moves[child] = moveList.get(i);
+                    childCount[child] = 0;
+                    visits.set(child, 0);
+                    points.set(child, 0);
+                    firstChild.set(child, UNEXPANDED);
+                }
+                childCount[node] = count;
+            }
+            firstChild.set(node, first); // Publishes the children to the other workers.
+            return first;
+        }
+
+        /**
+         * Picks the child with the highest UCT value: its average result for the player who moves into it,
+         * plus a bonus for having few visits. A child nobody visited yet is picked first.
+         */
+        private int selectChild(int node, int children)
+        {
+            double logVisits = Math.log(Math.max(1, visits.get(node)));
+            int best = children;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (int child = children; child < children + childCount[node]; child++)
+            {
+                int childVisits = visits.get(child);
+                if (childVisits == 0)
+                {
+                    return child;
+                }
+                double value = points.get(child) / (double) (WIN_POINTS * childVisits)
+                        + exploration * Math.sqrt(logVisits / childVisits);
+                if (value > bestValue)
+                {
+                    bestValue = value;
+                    best = child;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Plays random moves on the worker's board until the game ends.
+         *
+         * @return The half points White scored.
+         */
+        private int playRandomGame()
+        {
+            while (board.getMovesSinceCaptureOrKing() < SearchEngine.DRAW_MOVES)
+            {
+                int count = MoveGenerator.generateMoves(board, moveList);
+                if (count == 0)
+                {
+                    return board.getTurn() == Board.WHITE ? 0 : WIN_POINTS; // The player to move is stuck or has no pieces left.
+                }
+                board.makeMove(moveList.get(nextRandom(count)));
+            }
+            return DRAW_POINTS;
+        }
+
+        private int nextRandom(int bound)
+        {
+            random ^= random << 13;
+            random ^= random >>> 7;
+            random ^= random << 17;
+            return (int) ((random >>> 33) % bound);
+        }
+    }
+
+    /**
+     * Reports how many playouts per second the search runs with one thread and with several threads.
+     * Usage: MonteCarloSearch [THREADS] [MILLIS]
+     *
+     * @param args The number of threads (by default, one per processor) and the time per search (by default 2000 ms).
+     */
+    public static void main(String[] args)
+    {
+        int threadCount = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        long millis = args.length > 1 ? Long.parseLong(args[1]) : 2000;
+        Board board = Board.fromFen(Perft.START_POSITION);
+
+        MonteCarloSearch single = new MonteCarloSearch(1, DEFAULT_MAX_NODES);
+        MonteCarloSearch parallel = new MonteCarloSearch(threadCount, DEFAULT_MAX_NODES);
+        try
+        {
+            single.search(board, Long.MAX_VALUE, millis / 4); // Warm up the JIT.
+            parallel.search(board, Long.MAX_VALUE, millis / 4);
+            MonteCarloResult singleResult = single.search(board, Long.MAX_VALUE, millis);
+            MonteCarloResult parallelResult = parallel.search(board, Long.MAX_VALUE, millis);
+            System.out.println("1 thread:   " + singleResult);
+            System.out.println(threadCount + " threads: " + parallelResult);
+            System.out.println(String.format(Locale.US, "Speedup: %.2fx playouts/s",
+                    parallelResult.getPlayoutsPerSecond() / (double) Math.max(1, singleResult.getPlayoutsPerSecond())));
+        }
+        finally
+        {
+            single.shutdown();
+            parallel.shutdown();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.checkersnadav;
+
+/**
+ * Encodes a single move (one step or one jump) into a primitive int, so that moves can be stored without allocating objects.
+ * A multi-capture is played as several moves by the same piece, exactly like Board.move() expects it.
+ * Layout: bits 0-4 source square, bits 5-9 destination square, bits 10-14 captured square,
+ * bit 15 capture flag, bit 16 promotion flag.
+ */
+public final class Move
+{
+    public static final int NONE = 0; // Marks the absence of a move (no real move has the same source and destination).
+
+    private static final int SQUARE_MASK = 0x1F;
+    private static final int CAPTURE_FLAG = 1 << 15;
+    private static final int PROMOTION_FLAG = 1 << 16;
+
+    private Move()
+    {
+        // Static helpers only.
+    }
+
+    /**
+     * Encodes a move.
+     *
+     * @param from The source square.
+     * @param to The destination square.
+     * @param captured The square of the captured piece, or Bitboard.NONE for a simple move.
+     * @param promotion true if the moving piece is promoted to a king by this move.
+     * @return The encoded move.
+     */
+    public static int create(int from, int to, int captured, boolean promotion)
+    {
+        int move = from | (to << 5);
+        if (captured != Bitboard.NONE)
+        {
+            move |= (captured << 10) | CAPTURE_FLAG;
+        }
+        if (promotion)
+        {
+            move |= PROMOTION_FLAG;
+        }
+        return move;
+    }
+
+    /**
+     * @param move The encoded move.
+     * @return The source square of the move.
+     */
+    public static int from(int move)
+    {
+        return move & SQUARE_MASK;
+    }
+
+    /**
+     * @param move The encoded move.
+     * @return The destination square of the move.
+     */
+    public static int to(int move)
+    {
+        return (move >>> 5) & SQUARE_MASK;
+    }
+
+    /**
+     * @param move The encoded move.
+     * @return The square of the captured piece, or Bitboard.NONE if the move is not a capture.
+     */
+    public static int captured(int move)
+    {
+        return isCapture(move) ? (move >>> 10) & SQUARE_MASK : Bitboard.NONE;
+    }
+
+    /**
+     * @param move The encoded move.
+     * @return true if the move captures a piece.
+     */
+    public static boolean isCapture(int move)
+    {
+        return (move & CAPTURE_FLAG) != 0;
+    }
+
+    /**
+     * @param move The encoded move.
+     * @return true if the move promotes the piece to a king.
+     */
+    public static boolean isPromotion(int move)
+    {
+        return (move & PROMOTION_FLAG) != 0;
+    }
+
+    /**
+     * Formats a move using board coordinates, for logs and debugging.
+     *
+     * @param move The encoded move.
+     * @return A string such as "2,1-3,2" or "2,1x4,3".
+     */
+    public static String toString(int move)
+    {
+        int from = from(move);
+        int to = to(move);
+        return Bitboard.toX(from) + "," + Bitboard.toY(from) + (isCapture(move) ? "x" : "-") + Bitboard.toX(to) + "," + Bitboard.toY(to);
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.checkersnadav;
+
+/**
+ * Generates every legal move for the player whose turn it is, in a single pass over the board's bitboards.
+ * The generated moves follow exactly the same rules as Board.isValidMove():
+ * captures are mandatory, only the capturing piece may continue a multi-capture, kings fly along the diagonals,
+ * and men that reach the last row are promoted.
+ */
+public final class MoveGenerator
+{
+    private MoveGenerator()
+    {
+        // Static helpers only.
+    }
+
+    /**
+     * Generates all the legal moves for the current player.
+     *
+     * @param board The board to generate the moves for.
+     * @param moves The buffer the moves are written into. It is cleared first.
+     * @return The number of generated moves.
+     */
+    public static int generateMoves(Board board, MoveList moves)
+    {
+        moves.clear();
+        boolean turn = board.getTurn();
+        int own = turn == Board.BLACK ? board.getBlackPieces() : board.getWhitePieces();
+        int opponents = turn == Board.BLACK ? board.getWhitePieces() : board.getBlackPieces();
+        int kings = board.getKings();
+        int empty = ~(own | opponents);
+
+        // Only the piece in the middle of a multi-capture may move.
+        int continuation = board.getCaptureContinuationSquare();
+        int movers = continuation != Bitboard.NONE ? 1 << continuation : own;
+
+        addCaptures(movers, own, opponents, kings, empty, turn, moves);
+
+        // Simple moves are only allowed when none of the player's pieces has a mandatory capture.
+        if (!Board.menHaveCapture(own & ~kings, opponents, empty) && !Board.kingsHaveMandatoryCapture(own & kings, opponents, empty))
+        {
+            addSimpleMoves(movers, kings, empty, turn, moves);
+        }
+        return moves.size();
+    }
+
+    /**
+     * Generates only the legal captures for the current player.
+     *
+     * @param board The board to generate the captures for.
+     * @param moves The buffer the captures are written into. It is cleared first.
+     * @return The number of generated captures.
+     */
+    public static int generateCaptures(Board board, MoveList moves)
+    {
+        moves.clear();
+        boolean turn = board.getTurn();
+        int own = turn == Board.BLACK ? board.getBlackPieces() : board.getWhitePieces();
+        int opponents = turn == Board.BLACK ? board.getWhitePieces() : board.getBlackPieces();
+        int continuation = board.getCaptureContinuationSquare();
+        int movers = continuation != Bitboard.NONE ? 1 << continuation : own;
+        addCaptures(movers, own, opponents, board.getKings(), ~(own | opponents), turn, moves);
+        return moves.size();
+    }
+
+    /**
+     * Adds the captures of the given pieces: men jump an adjacent opponent piece in any direction,
+     * kings jump exactly one opponent piece along a diagonal and may land on any empty square beyond it.
+     */
+    private static void addCaptures(int movers, int own, int opponents, int kings, int empty, boolean turn, MoveList moves)
+    {
+        int promotionRow = turn == Board.BLACK ? Bitboard.BLACK_PROMOTION_ROW : Bitboard.WHITE_PROMOTION_ROW;
+        int men = movers & ~kings;
+
+        for (int dir = 0; dir < 4; dir++)
+        {
+            int back = Bitboard.opposite(dir);
+            int jumpable = opponents & Bitboard.step(empty, back); // Opponent pieces with an empty square behind them.
+            for (int sources = men & Bitboard.step(jumpable, back); sources != 0; sources &= sources - 1)
+            {
+                int from = Integer.numberOfTrailingZeros(sources);
+                int captured = Bitboard.neighbor(from, dir);
+                int to = Bitboard.neighbor(captured, dir);
+                moves.add(Move.create(from, to, captured, ((1 << to) & promotionRow) != 0));
+            }
+        }
+
+        for (int kingMovers = movers & kings; kingMovers != 0; kingMovers &= kingMovers - 1)
+        {
+            int from = Integer.numberOfTrailingZeros(kingMovers);
+            for (int dir = 0; dir < 4; dir++)
+            {
+                int captured = Bitboard.NONE;
+                for (int cur = Bitboard.neighbor(from, dir); cur != Bitboard.NONE; cur = Bitboard.neighbor(cur, dir))
+                {
+                    int bit = 1 << cur;
+                    if ((opponents & bit) != 0)
+                    {
+                        if (captured != Bitboard.NONE)
+                        {
+                            break; // A second opponent piece on the path makes any further landing square illegal
+                        }
+                        captured = cur;
+                    }
+                    else if ((empty & bit) != 0 && captured != Bitboard.NONE)
+                    {
+                        moves.add(Move.create(from, cur, captured, false));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the non-capturing moves of the given pieces: men step forward, kings slide along any clear diagonal.
+     */
+    private static void addSimpleMoves(int movers, int kings, int empty, boolean turn, MoveList moves)
+    {
+        int promotionRow = turn == Board.BLACK ? Bitboard.BLACK_PROMOTION_ROW : Bitboard.WHITE_PROMOTION_ROW;
+        int men = movers & ~kings;
+
+        // Black men move towards row 0 (directions 2 and 3), white men towards row 7 (directions 0 and 1).
+        int firstForward = turn == Board.BLACK ? 2 : 0;
+        for (int dir = firstForward; dir < firstForward + 2; dir++)
+        {
+            int back = Bitboard.opposite(dir);
+            for (int sources = men & Bitboard.step(empty, back); sources != 0; sources &= sources - 1)
+            {
+                int from = Integer.numberOfTrailingZeros(sources);
+                int to = Bitboard.neighbor(from, dir);
+                moves.add(Move.create(from, to, Bitboard.NONE, ((1 << to) & promotionRow) != 0));
+            }
+        }
+
+        for (int kingMovers = movers & kings; kingMovers != 0; kingMovers &= kingMovers - 1)
+        {
+            int from = Integer.numberOfTrailingZeros(kingMovers);
+            for (int dir = 0; dir < 4; dir++)
+            {
+                for (int cur = Bitboard.neighbor(from, dir); cur != Bitboard.NONE && (empty & (1 << cur)) != 0; cur = Bitboard.neighbor(cur, dir))
+                {
+                    moves.add(Move.create(from, cur, Bitboard.NONE, false));
+                }
+            }
+        }
+    }
+}
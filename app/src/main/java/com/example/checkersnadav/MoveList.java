@@ -0,0 +1,129 @@
+package com.example.checkersnadav;
+
+/**
+ * A reusable buffer of encoded moves (see Move).
+ * The buffer is allocated once and cleared between uses, so move generation does not create garbage.
+ */
+public class MoveList
+{
+    public static final int CAPACITY = 256; // More than the number of moves any reachable position can have.
+
+    private final int[] moves; // The encoded moves.
+    private final int[] scores; // Ordering scores of the moves, filled in by MoveOrdering.
+    private int size; // The number of moves currently stored.
+
+    /**
+     * Constructs an empty move list.
+     */
+    public MoveList()
+    {
+        moves = new int[CAPACITY];
+        scores = new int[CAPACITY];
+        size = 0;
+    }
+
+    /**
+     * Removes all the moves from the list.
+     */
+    public void clear()
+    {
+        size = 0;
+    }
+
+    /**
+     * Appends a move to the list.
+     *
+     * @param move The encoded move.
+     */
+    public void add(int move)
+    {
+        moves[size++] = move;
+    }
+
+    /**
+     * Gets a move from the list.
+     *
+     * @param index The index of the move.
+     * @return The encoded move.
+     */
+    public int get(int index)
+    {
+        return moves[index];
+    }
+
+    /**
+     * Replaces a move in the list.
+     *
+     * @param index The index of the move.
+     * @param move The new encoded move.
+     */
+    public void set(int index, int move)
+    {
+        moves[index] = move;
+    }
+
+    /**
+     * Gets the ordering score of a move.
+     *
+     * @param index The index of the move.
+     * @return The score, higher for moves that should be searched earlier.
+     */
+    public int getScore(int index)
+    {
+        return scores[index];
+    }
+
+    /**
+     * Sets the ordering score of a move.
+     *
+     * @param index The index of the move.
+     * @param score The score, higher for moves that should be searched earlier.
+     */
+    public void setScore(int index, int score)
+    {
+        scores[index] = score;
+    }
+
+    /**
+     * Swaps two moves together with their scores.
+     *
+     * @param i The index of the first move.
+     * @param j The index of the second move.
+     */
+    public void swap(int i, int j)
+    {
+        int move = moves[i];
+        moves[i] = moves[j];
+        moves[j] = move;
+        int score = scores[i];
+        scores[i] = scores[j];
+        scores[j] = score;
+    }
+
+    /**
+     * @return The number of moves in the list.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Checks if the list contains a move with the given source and destination squares.
+     *
+     * @param from The source square.
+     * @param to The destination square.
+     * @return The matching encoded move, or Move.NONE if there is none.
+     */
+    public int find(int from, int to)
+    {
+        for (int i = 0; i < size; i++)
+        {
+            if (Move.from(moves[i]) == from && Move.to(moves[i]) == to)
+            {
+                return moves[i];
+            }
+        }
+        return Move.NONE;
+    }
+}
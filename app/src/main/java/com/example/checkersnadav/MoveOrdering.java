@@ -0,0 +1,218 @@
+package com.example.checkersnadav;
+
+/**
+ * Orders the moves of a position so that alpha-beta searches the likely best moves first and prunes the rest.
+ * The order is: the transposition table's move, then captures by the number of pieces they lead to taking,
+ * then the killer moves of the ply (quiet moves that caused a cutoff in a sibling position),
+ * then the other quiet moves by their history score (how often and how deep they caused cutoffs anywhere).
+ * All the scores live in primitive arrays indexed by ply or by side, source and destination square,
+ * and the moves are picked one at a time with selectNext(), so ordering never allocates.
+ * One instance belongs to one SearchEngine and must only be used by one thread.
+ */
+public class MoveOrdering
+{
+    private static final int HASH_MOVE_SCORE = 1 << 30;
+    private static final int CAPTURE_SCORE = 1 << 29;
+    private static final int KILLER_SCORE = 1 << 28; // The first killer; the second one scores one less.
+    private static final int HISTORY_LIMIT = 1 << 20; // All the history scores are halved when one reaches this.
+    private static final int KILLERS_PER_PLY = 2;
+
+    private final int[] killers; // Two killer moves per ply, the most recent one first.
+    private final int[] history; // History scores indexed by side to move, source square and destination square.
+
+    /**
+     * Constructs an empty move ordering.
+     */
+    public MoveOrdering()
+    {
+        killers = new int[(SearchEngine.MAX_PLY + 1) * KILLERS_PER_PLY];
+        history = new int[2 * Bitboard.SQUARES * Bitboard.SQUARES];
+    }
+
+    /**
+     * Prepares for a new search: the killers of the previous search are forgotten,
+     * and the history scores are halved so that recent cutoffs weigh more.
+     */
+    public void newSearch()
+    {
+        for (int i = 0; i < killers.length; i++)
+        {
+            killers[i] = Move.NONE;
+        }
+        ageHistory();
+    }
+
+    /**
+     * Scores the moves of a position. The moves should then be taken in order with selectNext().
+     *
+     * @param board The position the moves were generated for.
+     * @param list The moves; their scores are filled in.
+     * @param hashMove The move suggested by the transposition table, or Move.NONE.
+     * @param ply The distance from the root of the search.
+     */
+    public void scoreMoves(Board board, MoveList list, int hashMove, int ply)
+    {
+        int side = board.getTurn() == Board.BLACK ? 1 : 0;
+        int own = board.getTurn() == Board.BLACK ? board.getBlackPieces() : board.getWhitePieces();
+        int opponents = board.getTurn() == Board.BLACK ? board.getWhitePieces() : board.getBlackPieces();
+        int kings = board.getKings();
+        int killer0 = killers[ply * KILLERS_PER_PLY];
+        int killer1 = killers[ply * KILLERS_PER_PLY + 1];
+
+        for (int i = 0; i < list.size(); i++)
+        {
+            int move = list.get(i);
+            int score;
+            if (move == hashMove)
+            {
+                score = HASH_MOVE_SCORE;
+            }
+            else if (Move.isCapture(move))
+            {
+                score = CAPTURE_SCORE + captureScore(move, own, opponents, kings);
+            }
+            else if (move == killer0)
+            {
+                score = KILLER_SCORE;
+            }
+            else if (move == killer1)
+            {
+                score = KILLER_SCORE - 1;
+            }
+            else
+            {
+                score = history[historyIndex(side, move)];
+            }
+            list.setScore(i, score);
+        }
+    }
+
+    /**
+     * Moves the best scored of the remaining moves to the given index (one step of a selection sort).
+     * Usually only the first few moves are searched before a cutoff, so sorting the rest would be wasted.
+     *
+     * @param list The scored moves.
+     * @param index The index to fill; the moves before it have already been searched.
+     * @return The move at the index.
+     */
+    public static int selectNext(MoveList list, int index)
+    {
+        int best = index;
+        for (int i = index + 1; i < list.size(); i++)
+        {
+            if (list.getScore(i) > list.getScore(best))
+            {
+                best = i;
+            }
+        }
+        if (best != index)
+        {
+            list.swap(index, best);
+        }
+        return list.get(index);
+    }
+
+    /**
+     * Records a move that caused a beta cutoff. Quiet moves become killers of the ply and gain history.
+     * Captures are not recorded, since they are ordered first anyway.
+     *
+     * @param board The position the move was played in.
+     * @param move The move.
+     * @param ply The distance from the root of the search.
+     * @param depth The remaining depth of the search at the position.
+     */
+    public void recordCutoff(Board board, int move, int ply, int depth)
+    {
+        if (Move.isCapture(move))
+        {
+            return;
+        }
+
+        int first = ply * KILLERS_PER_PLY;
+        if (killers[first] != move)
+        {
+            killers[first + 1] = killers[first];
+            killers[first] = move;
+        }
+
+        int index = historyIndex(board.getTurn() == Board.BLACK ? 1 : 0, move);
+        history[index] += depth * depth; // Cutoffs near the root save the most work.
+        if (history[index] >= HISTORY_LIMIT)
+        {
+            ageHistory();
+        }
+    }
+
+    /**
+     * Forgets the killers and the history.
+     */
+    public void clear()
+    {
+        for (int i = 0; i < killers.length; i++)
+        {
+            killers[i] = Move.NONE;
+        }
+        for (int i = 0; i < history.length; i++)
+        {
+            history[i] = 0;
+        }
+    }
+
+    private void ageHistory()
+    {
+        for (int i = 0; i < history.length; i++)
+        {
+            history[i] >>= 1;
+        }
+    }
+
+    private static int historyIndex(int side, int move)
+    {
+        return (side * Bitboard.SQUARES + Move.from(move)) * Bitboard.SQUARES + Move.to(move);
+    }
+
+    /**
+     * Scores a capture by the number of pieces the capturing piece can take in a row starting with it,
+     * then by whether it takes a king, then by whether it promotes.
+     * Every jump of a multi-capture is its own move, so the pieces taken after the first one are counted by following
+     * the jumps a man could continue with. A flying king's continuations depend on where it lands and are not counted.
+     */
+    private static int captureScore(int move, int own, int opponents, int kings)
+    {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int capturedBit = 1 << Move.captured(move);
+        int taken = 1;
+        if ((kings & (1 << from)) == 0)
+        {
+            int empty = ~(own | opponents) | (1 << from) | capturedBit;
+            taken += countManJumps(to, opponents & ~capturedBit, empty & ~(1 << to));
+        }
+        return taken * 4 + ((kings & capturedBit) != 0 ? 2 : 0) + (Move.isPromotion(move) ? 1 : 0);
+    }
+
+    /**
+     * Counts the longest sequence of jumps a man can continue with from a square.
+     * Men capture in every direction, like Board.pieceHasMandatoryCapture() allows.
+     */
+    private static int countManJumps(int square, int opponents, int empty)
+    {
+        int longest = 0;
+        for (int dir = 0; dir < 4; dir++)
+        {
+            int over = Bitboard.neighbor(square, dir);
+            if (over == Bitboard.NONE || (opponents & (1 << over)) == 0)
+            {
+                continue;
+            }
+            int landing = Bitboard.neighbor(over, dir);
+            if (landing == Bitboard.NONE || (empty & (1 << landing)) == 0)
+            {
+                continue;
+            }
+            int jumps = 1 + countManJumps(landing, opponents & ~(1 << over), (empty | (1 << square) | (1 << over)) & ~(1 << landing));
+            longest = Math.max(longest, jumps);
+        }
+        return longest;
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.checkersnadav;
+
+/**
+ * One entry of the move log of an online game, which is stored under games/[gameId]/moves/[ply].
+ * Each jump of a multi-capture is a move of its own, the same as with Board.move().
+ * The hash lets the receiving player check that applying the move led to the same position as on the sender's side.
+ */
+public class MoveRecord
+{
+    private int from; // The square the piece moved from (see Bitboard).
+    private int to;   // The square the piece moved to.
+    private int ply;  // The number of moves made in the game, including this one.
+    private int hash; // The low 32 bits of the position's hash after the move (the database cannot store a long exactly).
+
+    /**
+     * Default constructor required for Firebase Database operations.
+     */
+    public MoveRecord()
+    {
+    }
+
+    /**
+     * Constructs a move record.
+     *
+     * @param from The square the piece moved from.
+     * @param to The square the piece moved to.
+     * @param ply The number of moves made in the game, including this one.
+     * @param hash The low 32 bits of the position's hash after the move.
+     */
+    public MoveRecord(int from, int to, int ply, int hash)
+    {
+        this.from = from;
+        this.to = to;
+        this.ply = ply;
+        this.hash = hash;
+    }
+
+    // Getters and Setters
+
+    /**
+     * @return The square the piece moved from.
+     */
+    public int getFrom()
+    {
+        return from;
+    }
+
+    /**
+     * @param from The square the piece moved from.
+     */
+    public void setFrom(int from)
+    {
+        this.from = from;
+    }
+
+    /**
+     * @return The square the piece moved to.
+     */
+    public int getTo()
+    {
+        return to;
+    }
+
+    /**
+     * @param to The square the piece moved to.
+     */
+    public void setTo(int to)
+    {
+        this.to = to;
+    }
+
+    /**
+     * @return The number of moves made in the game, including this one.
+     */
+    public int getPly()
+    {
+        return ply;
+    }
+
+    /**
+     * @param ply The number of moves made in the game, including this one.
+     */
+    public void setPly(int ply)
+    {
+        this.ply = ply;
+    }
+
+    /**
+     * @return The low 32 bits of the position's hash after the move.
+     */
+    public int getHash()
+    {
+        return hash;
+    }
+
+    /**
+     * @param hash The low 32 bits of the position's hash after the move.
+     */
+    public void setHash(int hash)
+    {
+        this.hash = hash;
+    }
+}
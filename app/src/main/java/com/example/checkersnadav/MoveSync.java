@@ -0,0 +1,316 @@
+package com.example.checkersnadav;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.TreeMap;
+
+/**
+ * Keeps a board in step with the move log of an online game.
+ * Instead of the whole position, every move is sent as a MoveRecord, which the other player replays with Board.move()
+ * and checks against the position hash that came with it. A full snapshot of the position (see PositionCodec) is
+ * only sent every SNAPSHOT_INTERVAL moves, so that a player who joins late does not have to replay the whole game,
+ * and when a player finds that its board no longer matches the hashes and asks for a resync.
+ * Moves that arrive ahead of their turn, or while waiting for a snapshot, are kept until they can be applied.
+ * This player's own moves are made on the board at once and stay unconfirmed until the database accepts them.
+ * When they come back from the log unchanged they are ignored; only if the log has another move at their ply,
+ * or the write fails, are they taken back.
+ * This class knows nothing about the database, so OnlineGame does the reading and writing.
+ */
+public class MoveSync
+{
+    public static final int SNAPSHOT_INTERVAL = 16; // A snapshot is sent after every this many moves.
+
+    /**
+     * What happened to a move received from the log.
+     */
+    public enum Result
+    {
+        APPLIED,     // The move was made on the board, possibly with moves that were waiting for it.
+        DUPLICATE,   // The move was already made, usually because it is this player's own move coming back.
+        BUFFERED,    // The move is kept until the moves before it, or a snapshot, have arrived.
+        ROLLED_BACK, // The move replaced unconfirmed moves of this player, which were taken back first.
+        OUT_OF_SYNC  // The move was illegal or led to another position than the sender's; a snapshot is needed.
+    }
+
+    private final Board board; // The board kept in step with the log.
+    private final TreeMap<Integer, MoveRecord> pending = new TreeMap<>(); // Received moves that cannot be applied yet, by ply.
+    private int ply; // The number of moves made on the board.
+    private boolean outOfSync; // The board is known to differ from the log and waits for a snapshot.
+    private final ArrayDeque<Unconfirmed> unconfirmed = new ArrayDeque<>(); // This player's moves not accepted yet, oldest first.
+    private byte[] encodedBoard = new byte[PositionCodec.SIZE]; // The board as of the last move or snapshot, to take moves back to.
+    private int stateVersion = -1; // The version of the last game state accepted, or -1.
+    private boolean stateActive = true; // Whether the game was active in the last game state accepted.
+
+    /**
+     * Constructs a move sync for a board, which is taken to be the position before the first move of the log.
+     *
+     * @param board The board to keep in step.
+     */
+    public MoveSync(Board board)
+    {
+        this.board = board;
+        PositionCodec.encode(board, encodedBoard, 0);
+    }
+
+    /**
+     * A move of this player that the database has not accepted yet, with the position to go back to without it.
+     */
+    private static final class Unconfirmed
+    {
+        final MoveRecord record;
+        final byte[] before;
+
+        Unconfirmed(MoveRecord record, byte[] before)
+        {
+            this.record = record;
+            this.before = before;
+        }
+    }
+
+    /**
+     * Records a move that this player has just made on the board. The move is unconfirmed until confirmMoves().
+     *
+     * @param xSrc The x-coordinate the piece moved from.
+     * @param ySrc The y-coordinate the piece moved from.
+     * @param xDst The x-coordinate the piece moved to.
+     * @param yDst The y-coordinate the piece moved to.
+     * @return The record to append to the log.
+     */
+    public MoveRecord recordMove(int xSrc, int ySrc, int xDst, int yDst)
+    {
+        ply++;
+        MoveRecord record = new MoveRecord(Bitboard.squareOf(xSrc, ySrc), Bitboard.squareOf(xDst, yDst), ply, hashOf(board));
+        unconfirmed.addLast(new Unconfirmed(record, encodedBoard));
+        encodedBoard = new byte[PositionCodec.SIZE];
+        PositionCodec.encode(board, encodedBoard, 0);
+        return record;
+    }
+
+    /**
+     * Marks this player's moves up to a ply as accepted by the database, so they will not be taken back.
+     *
+     * @param confirmedPly The ply of the last move that was written.
+     */
+    public void confirmMoves(int confirmedPly)
+    {
+        while (!unconfirmed.isEmpty() && unconfirmed.peekFirst().record.getPly() <= confirmedPly)
+        {
+            unconfirmed.removeFirst();
+        }
+    }
+
+    /**
+     * Takes back an unconfirmed move of this player, because writing it failed, with the moves made after it.
+     * The moves before it stay, since their writes may still succeed.
+     * The move is found by its record rather than its ply, because once it is taken back a new move can take its ply.
+     *
+     * @param failed The record of the move whose write failed, as returned by recordMove().
+     * @return The number of moves taken back, 0 if the move was already taken back.
+     */
+    public int rollback(MoveRecord failed)
+    {
+        int count = 0;
+        for (Iterator<Unconfirmed> iterator = unconfirmed.descendingIterator(); iterator.hasNext(); )
+        {
+            Unconfirmed move = iterator.next();
+            count++;
+            if (move.record == failed)
+            {
+                rollbackTo(move);
+                return count;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @return true if some of this player's moves are shown on the board but were not accepted by the database yet.
+     */
+    public boolean hasUnconfirmedMoves()
+    {
+        return !unconfirmed.isEmpty();
+    }
+
+    /**
+     * Checks if a snapshot should be sent along with the move that was just recorded.
+     *
+     * @return true every SNAPSHOT_INTERVAL moves.
+     */
+    public boolean isSnapshotDue()
+    {
+        return ply % SNAPSHOT_INTERVAL == 0;
+    }
+
+    /**
+     * Applies a move received from the log, if it is the next one.
+     *
+     * @param record The move.
+     * @return What happened to the move.
+     */
+    public Result receiveMove(MoveRecord record)
+    {
+        boolean rolledBack = false;
+        for (Unconfirmed move : unconfirmed)
+        {
+            if (move.record.getPly() == record.getPly())
+            {
+                if (isSameMove(move.record, record))
+                {
+                    return Result.DUPLICATE; // This player's own move coming back.
+                }
+                rollbackTo(move); // Another move was accepted at this ply, so this one and those after it are void.
+                rolledBack = true;
+                break;
+            }
+        }
+
+        if (record.getPly() <= ply && !outOfSync)
+        {
+            return Result.DUPLICATE;
+        }
+        if (outOfSync || record.getPly() > ply + 1)
+        {
+            pending.put(record.getPly(), record);
+            return Result.BUFFERED;
+        }
+        if (!apply(record))
+        {
+            return Result.OUT_OF_SYNC;
+        }
+        applyPending();
+        if (outOfSync)
+        {
+            return Result.OUT_OF_SYNC;
+        }
+        return rolledBack ? Result.ROLLED_BACK : Result.APPLIED;
+    }
+
+    /**
+     * Replaces the board with a snapshot received from the log, unless the board is already past it,
+     * and then applies the moves that were waiting for it.
+     *
+     * @param position The position, encoded with PositionCodec.encodeToString().
+     * @param snapshotPly The number of moves made before the position.
+     * @return true if the snapshot was used.
+     * @throws IllegalArgumentException if the position is not valid.
+     */
+    public boolean receiveSnapshot(String position, int snapshotPly)
+    {
+        if (snapshotPly <= ply && !outOfSync)
+        {
+            return false; // The moves already brought the board there.
+        }
+        PositionCodec.decode(position, board);
+        ply = snapshotPly;
+        outOfSync = false;
+        unconfirmed.clear();
+        PositionCodec.encode(board, encodedBoard, 0);
+        pending.headMap(ply, true).clear();
+        applyPending();
+        return true;
+    }
+
+    /**
+     * Checks if a game state read from the database is newer than the last one accepted, and accepts it if it is.
+     * The version is the ply of the state, so a state that is older, or the same one again, is ignored;
+     * the end of the game is the exception, since a forfeit ends it without a move.
+     *
+     * @param version The ply stored with the state.
+     * @param isActive Whether the state has the game active.
+     * @return true if the state is new and should be applied.
+     */
+    public boolean acceptState(int version, boolean isActive)
+    {
+        if (version < stateVersion || (version == stateVersion && isActive == stateActive) || !stateActive)
+        {
+            return false;
+        }
+        stateVersion = version;
+        stateActive = isActive;
+        return true;
+    }
+
+    /**
+     * @return The number of moves made on the board, which is also the ply of the last move in the log.
+     */
+    public int getPly()
+    {
+        return ply;
+    }
+
+    /**
+     * @return true if the board differs from the log and a snapshot is needed.
+     */
+    public boolean isOutOfSync()
+    {
+        return outOfSync;
+    }
+
+    /**
+     * Gets the part of a position's hash that goes into the move records.
+     *
+     * @param board The board.
+     * @return The low 32 bits of its hash.
+     */
+    public static int hashOf(Board board)
+    {
+        return (int) board.getHash();
+    }
+
+    /**
+     * Makes the next move of the log on the board and checks the position it leads to.
+     */
+    private boolean apply(MoveRecord record)
+    {
+        int from = record.getFrom();
+        int to = record.getTo();
+        if (from < 0 || from >= Bitboard.SQUARES || to < 0 || to >= Bitboard.SQUARES
+                || !board.move(Bitboard.toX(from), Bitboard.toY(from), Bitboard.toX(to), Bitboard.toY(to))
+                || hashOf(board) != record.getHash())
+        {
+            outOfSync = true;
+            return false;
+        }
+        ply = record.getPly();
+        unconfirmed.clear(); // The other player moved after them, so they were accepted.
+        PositionCodec.encode(board, encodedBoard, 0);
+        return true;
+    }
+
+    /**
+     * Takes back an unconfirmed move of this player and the ones made after it.
+     */
+    private void rollbackTo(Unconfirmed move)
+    {
+        PositionCodec.decode(move.before, 0, board);
+        encodedBoard = move.before;
+        ply = move.record.getPly() - 1;
+        for (Iterator<Unconfirmed> iterator = unconfirmed.descendingIterator(); iterator.hasNext(); )
+        {
+            Unconfirmed later = iterator.next();
+            iterator.remove();
+            if (later == move)
+            {
+                break;
+            }
+        }
+    }
+
+    private static boolean isSameMove(MoveRecord a, MoveRecord b)
+    {
+        return a.getFrom() == b.getFrom() && a.getTo() == b.getTo() && a.getHash() == b.getHash();
+    }
+
+    /**
+     * Applies the waiting moves for as long as they follow on from the board.
+     */
+    private void applyPending()
+    {
+        MoveRecord next;
+        while (!outOfSync && (next = pending.remove(ply + 1)) != null)
+        {
+            apply(next);
+        }
+        pending.headMap(ply, true).clear();
+    }
+}
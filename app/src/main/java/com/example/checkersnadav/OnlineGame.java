@@ -4,23 +4,11 @@ import static com.example.checkersnadav.Statistics.Outcomes.DRAW;
 import static com.example.checkersnadav.Statistics.Outcomes.LOSS;
 import static com.example.checkersnadav.Statistics.Outcomes.WIN;
 
-import android.util.Log;
-
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.ValueEventListener;
-
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.Locale;
 import java.util.Objects;
-import java.util.TimeZone;
 
 /**
- * Extends the Game class to add online multiplayer capabilities using Firebase.
- * This class handles synchronization of the game state with a Firebase backend,
+ * Extends the Game class to add online multiplayer capabilities.
+ * This class handles synchronization of the game state through a GameTransport (Firebase in the app),
  * ensuring that all moves made by players are updated in real-time across different sessions.
  */
 public class OnlineGame extends Game
@@ -28,103 +16,139 @@ public class OnlineGame extends Game
     private final String whiteId; // Firebase user ID for the player using white pieces.
     private final String blackId; // Firebase user ID for the player using black pieces.
     private final String gameId; // Unique game identifier for the Firebase database.
-    private DatabaseReference gameRef; // Firebase database reference for this game.
+    private final GameTransport transport; // Carries the moves and state between the players.
+    private final GameStateStream stream; // The one listener of the game's changes on this device.
+    private GameTransport.Subscription subscription; // This game's listener on the stream.
     private final String playerColor; // "WHITE" or "BLACK", indicates the player's color.
     private int playerMoves; // Counter for the player's moves.
-    private CheckersAdapter adapter; // Adapter to interact with the board view.
+    private BoardListener boardListener; // Told when the board changed other than by this player's move, or null.
+    private final MoveSync sync; // Keeps the board in step with the move log.
+    private boolean finished; // finishGame() was called.
 
     /**
-     * Constructor for OnlineGame. Initializes the game board and sets up Firebase
-     * synchronization based on the provided game ID and the player's assigned color.
+     * Receives the changes to the board that do not come from this player's moves.
+     */
+    public interface BoardListener
+    {
+        /**
+         * Called after the other player's moves were applied, a snapshot was loaded, or this player's moves were taken back.
+         *
+         * @param game The game whose board changed.
+         */
+        void onBoardChanged(OnlineGame game);
+    }
+
+    /**
+     * Constructor for OnlineGame. Initializes the game board and subscribes to the game through the transport,
+     * a FirebaseTransport in the app or a LoopbackTransport in tests and simulations.
      *
-     * @param gameId The unique identifier for the game session on Firebase.
+     * @param gameId The unique identifier for the game session.
      * @param playerColor The color assigned to the player ("WHITE" or "BLACK").
-     * @param whiteId The email of the player that is using the white pieces.
-     * @param blackId The email of the player that is using the black pieces.
+     * @param whiteId The ID of the player that is using the white pieces.
+     * @param blackId The ID of the player that is using the black pieces.
+     * @param transport The transport that carries the game.
      */
-    public OnlineGame(String gameId, String playerColor, String whiteId, String blackId)
+    public OnlineGame(String gameId, String playerColor, String whiteId, String blackId, GameTransport transport)
     {
         super(); // Initializes the board and sets the game to active
         this.whiteId = whiteId;
         this.blackId = blackId;
         this.playerColor = playerColor;
         this.gameId = gameId;
+        this.transport = transport;
         playerMoves = 0;
-        setupFirebase(gameId);
+        sync = new MoveSync(board);
+        stream = new GameStateStream(transport, gameId);
+        setupTransport();
     }
 
     /**
-     * Sets up the Firebase database reference and establishes a listener to handle
-     * updates to the game state from the database, reflecting changes made by the other player.
-     *
-     * @param gameId The unique identifier for the game session on Firebase.
+     * Subscribes to the changes of the game, which reflect the moves made by the other player.
+     * The moves are read one by one from the move log, so a change costs a single small record rather than the whole game.
+     * The game is the first subscriber of the stream, so the board is up to date before the screen hears of a change.
      */
-    private void setupFirebase(String gameId)
+    private void setupTransport()
     {
-        FirebaseDatabase database = FirebaseDatabase.getInstance();
-        gameRef = database.getReference("games").child(gameId);
-
-        // Listen for changes in the database, which indicate the other player's move
-        gameRef.addValueEventListener(new ValueEventListener()
+        subscription = stream.subscribe(new GameTransport.Listener()
         {
             @Override
-            public void onDataChange(DataSnapshot dataSnapshot)
+            public void onMove(MoveRecord record)
             {
-                if (dataSnapshot.exists())
+                MoveSync.Result result = sync.receiveMove(record);
+                if (result == MoveSync.Result.APPLIED || result == MoveSync.Result.ROLLED_BACK)
                 {
-                    // Sync the board state based on Firebase
-                    String boardState = dataSnapshot.child("boardState").getValue(String.class);
-                    // Sync the game turn based on Firebase
-                    String currentTurn = dataSnapshot.child("currentTurn").getValue(String.class);
-                    board.setTurn(!Objects.equals(currentTurn, Game.WHITE_STRING)); // White is false
-
-                    if (dataSnapshot.hasChild("lastMoveX") && dataSnapshot.hasChild("lastMoveY") &&
-                            dataSnapshot.hasChild("movesSinceCaptureOrKing") && dataSnapshot.hasChild("isActive") &&
-                            boardState != null)
-                    {
-                        // Update internal state tracking based on Firebase data
-                        board.setLastMoveX(dataSnapshot.child("lastMoveX").getValue(Integer.class));
-                        board.setLastMoveY(dataSnapshot.child("lastMoveY").getValue(Integer.class));
-                        board.forfeit(dataSnapshot.child("forfeit").getValue(String.class));
-                        board.setMovesSinceCaptureOrKing(dataSnapshot.child("movesSinceCaptureOrKing").getValue(Integer.class));
-                        updateLocalBoardState(boardState);
-                        adapter.updateGameState(board.getState());
+                    onRemoteMoves();
+                }
+                else if (result == MoveSync.Result.OUT_OF_SYNC)
+                {
+                    // The board differs from the other player's, ask for a snapshot
+                    transport.requestResync(gameId, sync.getPly());
+                }
+            }
 
-                        if (!dataSnapshot.child("isActive").getValue(Boolean.class))
-                        {
-                            isActive = false;
-                        }
-                    }
+            @Override
+            public void onSnapshot(String position, int ply)
+            {
+                if (sync.receiveSnapshot(position, ply))
+                {
+                    onRemoteMoves();
+                }
+            }
 
+            @Override
+            public void onState(GameState state)
+            {
+                if (!sync.acceptState(state.getPly(), state.isActive()))
+                {
+                    return; // A state that was already handled.
+                }
+                if (state.getForfeit() != null)
+                {
+                    board.forfeit(state.getForfeit());
+                }
+                if (!state.isActive())
+                {
                     // Handle game ending
-                    if (!isActive)
-                    {
-                        finishGame();
-                    }
+                    isActive = false;
+                    finishGame();
                 }
             }
 
             @Override
-            public void onCancelled(DatabaseError databaseError)
+            public void onResyncRequest(int ply)
             {
-                Log.e("OnlineGame", "Failed to read game data: " + databaseError.toException());
+                // Answer the other player's requests for a snapshot
+                if (!sync.isOutOfSync())
+                {
+                    transport.publishSnapshot(gameId, PositionCodec.encodeToString(board), sync.getPly());
+                }
             }
         });
 
-        // Making sure that Firebase will only get initialized once
+        // Making sure that the game will only get initialized once
         if (Objects.equals(playerColor, Game.WHITE_STRING))
         {
             // Initialize the board
-            gameRef.child("whiteId").setValue(whiteId);
-            gameRef.child("blackId").setValue(blackId);
-            gameRef.child("isActive").setValue(true);
-            updateGameStateInFirebase();
+            transport.createGame(gameId, whiteId, blackId, PositionCodec.encodeToString(board), GameState.of(board, 0, true));
+        }
+    }
+
+    /**
+     * Shows the board after moves of the other player were applied from the log, or this player's moves were taken back.
+     */
+    private void onRemoteMoves()
+    {
+        // The player who made the last move also marks the game as over in the database
+        isActive = Objects.equals(board.checkGameStatus(), Game.NONE_STRING);
+        if (boardListener != null)
+        {
+            boardListener.onBoardChanged(this);
         }
     }
 
     /**
      * Attempts to make a move on the board. Validates if the move is by the correct player
-     * and updates the board state in Firebase if the move is valid.
+     * and updates the board state in the database if the move is valid.
      *
      * @param xSrc Source x-coordinate.
      * @param ySrc Source y-coordinate.
@@ -144,7 +168,7 @@ public class OnlineGame extends Game
         if (success)
         {
             playerMoves++;
-            updateGameStateInFirebase();
+            sendMove(sync.recordMove(xSrc, ySrc, xDst, yDst));
         }
         return success;
     }
@@ -167,101 +191,57 @@ public class OnlineGame extends Game
     }
 
     /**
-     * Updates the Firebase database with the current state of the game board.
+     * Appends a move of this player to the move log, together with the new state of the game
+     * and, every few moves, a snapshot of the position, all in one atomic write.
+     *
+     * @param record The move, as recorded by the move sync.
      */
-    private void updateGameStateInFirebase()
+    private void sendMove(MoveRecord record)
     {
-        gameRef.child("boardState").setValue(serializeBoardState());
-        gameRef.child("currentTurn").setValue(board.getTurn() ? Game.BLACK_STRING : Game.WHITE_STRING);
-        gameRef.child("lastMoveX").setValue(board.getLastMoveX());
-        gameRef.child("lastMoveY").setValue(board.getLastMoveY());
-        gameRef.child("movesSinceCaptureOrKing").setValue(board.getMovesSinceCaptureOrKing());
-        gameRef.child("isActive").setValue(isActive);
-        gameRef.child("forfeit").setValue(board.getForfeit());
+        // The move is already on the board; it only has to be taken back if the database refuses it
+        String snapshot = sync.isSnapshotDue() ? PositionCodec.encodeToString(board) : null;
+        transport.publishMove(gameId, record, snapshot, GameState.of(board, record.getPly(), isActive), error ->
+        {
+            if (error == null)
+            {
+                sync.confirmMoves(record.getPly());
+            }
+            else
+            {
+                playerMoves -= sync.rollback(record);
+                onRemoteMoves();
+            }
+        });
     }
 
     /**
-     * Updates the local board state based on the serialized state from Firebase.
+     * Checks if some of this player's moves are shown on the board but were not accepted by the database yet.
      *
-     * @param boardState The serialized string representation of the game board.
+     * @return true while moves are waiting for the database.
      */
-    private void updateLocalBoardState(String boardState)
+    public boolean hasPendingMoves()
     {
-        deserializeBoardState(boardState);
+        return sync.hasUnconfirmedMoves();
     }
 
     /**
-     * Serializes the current state of the game board into a string format for storage in Firebase.
-     * Uppercase letters signify black pieces, while lowercase letters signify white pieces.
-     * The letter 'p' signifies a normal piece, and the letter 'k' signifies a king.
+     * Gets the number of moves made in the game, as far as this player knows.
      *
-     * @return A string representation of the game board.
+     * @return The ply of the last move on the board.
      */
-    private String serializeBoardState()
+    public int getPly()
     {
-        StringBuilder sb = new StringBuilder();
-        for (int y = 0; y < Board.BOARD_SIZE; y++)
-        {
-            for (int x = 0; x < Board.BOARD_SIZE; x++)
-            {
-                Piece piece = board.getState()[x][y];
-                if (piece == null)
-                {
-                    sb.append('_');
-                }
-                else
-                {
-                    if (piece.isBlack())
-                    {
-                        sb.append(piece.isKing() ? 'K' : 'P');
-                    }
-                    else
-                    {
-                        sb.append(piece.isKing() ? 'k' : 'p');
-                    }
-                }
-            }
-        }
-        return sb.toString();
+        return sync.getPly();
     }
 
     /**
-     * Deserializes the board state from a string representation and applies it to the local game board.
-     * Uppercase letters signify black pieces, while lowercase letters signify white pieces.
-     * The letter 'p' signifies a normal piece, and the letter 'k' signifies a king.
+     * Decodes a position received from the database straight into the local game board, without allocating pieces.
      *
-     * @param boardState The serialized string representation of the game board.
+     * @param boardState The encoded position, as written by PositionCodec.encodeToString().
      */
     public void deserializeBoardState(String boardState)
     {
-        int index = 0;
-        for (int y = 0; y < Board.BOARD_SIZE; y++)
-        {
-            for (int x = 0; x < Board.BOARD_SIZE; x++)
-            {
-                char ch = boardState.charAt(index++);
-                switch (ch)
-                {
-                    case '_':
-                        board.getState()[x][y] = null;
-                        break;
-                    case 'p':
-                        board.getState()[x][y] = new Piece(false); // White piece
-                        break;
-                    case 'k':
-                        board.getState()[x][y] = new Piece(false, true); // White king
-                        break;
-                    case 'P':
-                        board.getState()[x][y] = new Piece(true); // Black piece
-                        break;
-                    case 'K':
-                        board.getState()[x][y] = new Piece(true, true); // Black king
-                        break;
-                    default:
-                        throw new IllegalArgumentException("Unexpected character in board state: " + ch);
-                }
-            }
-        }
+        PositionCodec.decode(boardState, board);
     }
 
     /**
@@ -285,12 +265,33 @@ public class OnlineGame extends Game
     }
 
     /**
-     * Set the adapter for updating the UI based on game state changes.
-     * @param adapter CheckersAdapter for the game board UI.
+     * Sets the listener that is told when the board changed other than by this player's move, to update the UI.
+     *
+     * @param boardListener The listener, or null.
+     */
+    public void setBoardListener(BoardListener boardListener)
+    {
+        this.boardListener = boardListener;
+    }
+
+    /**
+     * Gets the stream of the game's changes, for the screen to follow the turn and the end of the game
+     * without a listener of its own.
+     *
+     * @return The stream.
+     */
+    public GameStateStream getStateStream()
+    {
+        return stream;
+    }
+
+    /**
+     * Stops listening to the game, when the screen showing it is destroyed. Calling it again does nothing.
      */
-    public void setAdapter(CheckersAdapter adapter)
+    public void close()
     {
-        this.adapter = adapter;
+        boardListener = null;
+        stream.close();
     }
 
     /**
@@ -303,59 +304,29 @@ public class OnlineGame extends Game
     {
         board.forfeit(color);
         isActive = false;
-        updateGameStateInFirebase();
+        transport.publishState(gameId, GameState.of(board, sync.getPly(), false));
         finishGame();
     }
 
     /**
-     * Concludes the game by deleting Firebase records and updating player statistics.
+     * Concludes the game by deleting its records and updating the player's statistics.
      * It also ensures the final game state is consistent across devices.
      */
     public void finishGame()
     {
-        String playerId = playerColor.equals(Game.WHITE_STRING) ? whiteId : blackId;
-
-        // References to the games and rooms in Firebase
-        DatabaseReference gamesRef = FirebaseDatabase.getInstance().getReference("games");
-        DatabaseReference roomsRef = FirebaseDatabase.getInstance().getReference("rooms");
-
-        // Delete the game and room from Firebase, using game ID
-        gamesRef.child(gameId).removeValue();
-        roomsRef.child(gameId).removeValue();
-
-        // Reference to the users in Firebase
-        DatabaseReference usersRef = FirebaseDatabase.getInstance().getReference("users");
-
-        // Fetch player details and update statistics
-        usersRef.addListenerForSingleValueEvent(new ValueEventListener()
+        if (finished)
         {
-            @Override
-            public void onDataChange(DataSnapshot dataSnapshot)
-            {
-                if (dataSnapshot.exists())
-                {
-                    // Extract and update player statistics
-                    Statistics stats = dataSnapshot.child(playerId).child("stats").getValue(Statistics.class);
-                    SimpleDateFormat sdf = new SimpleDateFormat("dd-MM-yyyy", new Locale("he", "IL"));
-                    sdf.setTimeZone(TimeZone.getTimeZone("Asia/Jerusalem"));
-                    String todayInIsrael = sdf.format(new Date());
-
-                    // Determine if the player earns a daily bonus
-                    boolean hasDailyBonus = !todayInIsrael.equals(dataSnapshot.child(playerId).child("lastWinDate").getValue(String.class));
-                    Statistics.Outcomes outcome = determineOutcome();
-
-                    // Update statistics based on game outcome
-                    String opponentId = playerColor.equals(Game.WHITE_STRING) ? blackId : whiteId;
-                    stats.updateStatistics(outcome, playerMoves, hasDailyBonus, dataSnapshot.child(opponentId).child("stats").child("elo").getValue(Integer.class));
-                    usersRef.child(playerId).child("stats").setValue(stats);
-                }
-            }
+            return; // Both the end of the game in the database and a forfeit on this device finish it.
+        }
+        finished = true;
+        if (subscription != null)
+        {
+            subscription.cancel();
+        }
 
-            @Override
-            public void onCancelled(DatabaseError databaseError)
-            {
-                Log.e("Failed to fetch player info", databaseError.getMessage());
-            }
-        });
+        String playerId = playerColor.equals(Game.WHITE_STRING) ? whiteId : blackId;
+        String opponentId = playerColor.equals(Game.WHITE_STRING) ? blackId : whiteId;
+        transport.endGame(gameId);
+        transport.updateStatistics(playerId, opponentId, determineOutcome(), playerMoves);
     }
 }
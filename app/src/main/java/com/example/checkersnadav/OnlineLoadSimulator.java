@@ -0,0 +1,246 @@
+package com.example.checkersnadav;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plays many online games at once through OnlineGame and a LoopbackTransport, to measure the sync without phones.
+ * Every match has two clients that play random legal moves as soon as it is their turn, each with its own OnlineGame,
+ * so the moves go through the same move log, snapshots, state updates and reconciliation as in the app.
+ * The report gives the moves per second over all matches, how long a move takes to reach the other player's board
+ * (from the makeMove() call to the board change on the other side), and the bytes written and listener calls per move.
+ */
+public class OnlineLoadSimulator
+{
+    private final int matchCount;
+    private final LoopbackTransport transport;
+    private final List<Match> matches = new ArrayList<>();
+    private long elapsedNanos;
+
+    /**
+     * One match between two random clients. All its calls happen on the event thread of its game.
+     */
+    private final class Match
+    {
+        final String gameId;
+        final OnlineGame white;
+        final OnlineGame black;
+        final CountDownLatch done;
+        long[] sentAt = new long[256]; // The System.nanoTime() each ply was sent, by ply.
+        long[] latencies = new long[256]; // The propagation times of the moves, in nanoseconds.
+        int latencyCount;
+        int whiteSeen; // The plies shown on each board so far.
+        int blackSeen;
+        boolean over;
+
+        Match(String gameId, CountDownLatch done)
+        {
+            this.gameId = gameId;
+            this.done = done;
+            white = new OnlineGame(gameId, Game.WHITE_STRING, gameId + "-white", gameId + "-black", transport);
+            black = new OnlineGame(gameId, Game.BLACK_STRING, gameId + "-white", gameId + "-black", transport);
+            white.setBoardListener(this::onBoardChanged);
+            black.setBoardListener(this::onBoardChanged);
+        }
+
+        /**
+         * Measures the moves that reached a board, and lets its player answer if it is now their turn.
+         */
+        void onBoardChanged(OnlineGame game)
+        {
+            long now = System.nanoTime();
+            int ply = game.getPly();
+            int seen = game == white ? whiteSeen : blackSeen;
+            for (int received = seen + 1; received <= ply; received++)
+            {
+                if (latencyCount == latencies.length)
+                {
+                    latencies = Arrays.copyOf(latencies, latencyCount * 2);
+                }
+                latencies[latencyCount++] = now - sentAt[received];
+            }
+            if (game == white)
+            {
+                whiteSeen = Math.max(seen, ply);
+            }
+            else
+            {
+                blackSeen = Math.max(seen, ply);
+            }
+            play(game);
+        }
+
+        /**
+         * Makes random moves for a player while it is their turn.
+         */
+        void play(OnlineGame game)
+        {
+            MoveList moves = new MoveList();
+            while (!over && game.isActive() && game.getBoard().getTurn() == (game == black)
+                    && MoveGenerator.generateMoves(game.getBoard(), moves) > 0)
+            {
+                int move = moves.get(ThreadLocalRandom.current().nextInt(moves.size()));
+                int ply = game.getPly() + 1;
+                if (ply >= sentAt.length)
+                {
+                    sentAt = Arrays.copyOf(sentAt, sentAt.length * 2);
+                }
+                sentAt[ply] = System.nanoTime();
+                if (!game.makeMove(Bitboard.toX(Move.from(move)), Bitboard.toY(Move.from(move)),
+                        Bitboard.toX(Move.to(move)), Bitboard.toY(Move.to(move))))
+                {
+                    throw new IllegalStateException("A legal move was refused in " + gameId + ": " + Move.toString(move));
+                }
+                if (game == white)
+                {
+                    whiteSeen = game.getPly();
+                }
+                else
+                {
+                    blackSeen = game.getPly();
+                }
+            }
+            if (!over && (!game.isActive() || MoveGenerator.generateMoves(game.getBoard(), moves) == 0))
+            {
+                over = true;
+                done.countDown();
+            }
+        }
+    }
+
+    /**
+     * Constructs a simulator.
+     *
+     * @param matchCount The number of matches to play at once.
+     * @param threads The number of event threads of the transport.
+     * @param latencyMillis The delay of every change, in milliseconds.
+     * @param jitterMillis The most random delay added to it, in milliseconds.
+     * @param lossRate The share of moves that are refused, from 0 to 1.
+     */
+    public OnlineLoadSimulator(int matchCount, int threads, double latencyMillis, double jitterMillis, double lossRate)
+    {
+        this.matchCount = matchCount;
+        transport = new LoopbackTransport(threads, latencyMillis, jitterMillis, lossRate);
+    }
+
+    /**
+     * Plays all the matches to the end.
+     *
+     * @param timeoutMillis The longest the matches may take, in milliseconds.
+     * @return true if all the matches ended in time.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public boolean run(long timeoutMillis) throws InterruptedException
+    {
+        CountDownLatch done = new CountDownLatch(matchCount);
+        long start = System.nanoTime();
+        for (int i = 0; i < matchCount; i++)
+        {
+            Match match = new Match("match-" + i, done);
+            matches.add(match);
+            transport.execute(match.gameId, () -> match.play(match.white));
+        }
+        boolean finished = done.await(timeoutMillis, TimeUnit.MILLISECONDS);
+        elapsedNanos = System.nanoTime() - start;
+        transport.shutdown();
+        return finished;
+    }
+
+    /**
+     * @return The number of moves that reached the other player's board.
+     */
+    public long getMoves()
+    {
+        long moves = 0;
+        for (Match match : matches)
+        {
+            moves += match.latencyCount;
+        }
+        return moves;
+    }
+
+    /**
+     * @return The moves that reached the other player's board per second, over all the matches.
+     */
+    public double getMovesPerSecond()
+    {
+        return getMoves() * 1e9 / Math.max(1, elapsedNanos);
+    }
+
+    /**
+     * Gets a percentile of the time it took the moves to reach the other player's board.
+     *
+     * @param percentile The percentile, from 0 to 100.
+     * @return The time in milliseconds.
+     */
+    public double getLatencyMillis(double percentile)
+    {
+        long[] all = new long[(int) getMoves()];
+        int count = 0;
+        for (Match match : matches)
+        {
+            System.arraycopy(match.latencies, 0, all, count, match.latencyCount);
+            count += match.latencyCount;
+        }
+        if (count == 0)
+        {
+            return 0;
+        }
+        Arrays.sort(all);
+        int index = (int) Math.min(count - 1, Math.max(0, Math.ceil(percentile / 100 * count) - 1));
+        return all[index] / 1e6;
+    }
+
+    /**
+     * @return The bytes written to the games per move.
+     */
+    public double getBytesPerMove()
+    {
+        return transport.getBytesWritten() / (double) Math.max(1, getMoves());
+    }
+
+    /**
+     * @return The listener calls per move, for both players together.
+     */
+    public double getCallbacksPerMove()
+    {
+        return transport.getCallbacks() / (double) Math.max(1, getMoves());
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format(Locale.US, "%d matches, %d moves in %.2f s: %.0f moves/s, latency p50 %.2f ms p99 %.2f ms, %.1f bytes/move, %.2f callbacks/move",
+                matchCount, getMoves(), elapsedNanos / 1e9, getMovesPerSecond(), getLatencyMillis(50), getLatencyMillis(99),
+                getBytesPerMove(), getCallbacksPerMove());
+    }
+
+    /**
+     * Runs the simulation from the command line.
+     *
+     * @param args The number of matches, the number of event threads, the latency and jitter in milliseconds,
+     *             and the share of moves lost, all optional.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public static void main(String[] args) throws InterruptedException
+    {
+        int matchCount = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        double latencyMillis = args.length > 2 ? Double.parseDouble(args[2]) : 50;
+        double jitterMillis = args.length > 3 ? Double.parseDouble(args[3]) : 20;
+        double lossRate = args.length > 4 ? Double.parseDouble(args[4]) : 0;
+
+        OnlineLoadSimulator simulator = new OnlineLoadSimulator(matchCount, threads, latencyMillis, jitterMillis, lossRate);
+        boolean finished = simulator.run(10L * 60 * 1000);
+        System.out.println(simulator);
+        if (!finished)
+        {
+            System.out.println("Not all matches ended within ten minutes");
+        }
+    }
+}
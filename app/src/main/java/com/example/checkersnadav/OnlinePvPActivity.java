@@ -15,12 +15,6 @@ import android.widget.Toast;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.ValueEventListener;
-
 import java.util.Objects;
 
 /**
@@ -66,7 +60,7 @@ public class OnlinePvPActivity extends AppCompatActivity
         String gameId = getIntent().getStringExtra("gameId");
 
         // Setup the game environment
-        game = new OnlineGame(gameId, playerColor, player1Id, player2Id);
+        game = new OnlineGame(gameId, playerColor, player1Id, player2Id, new FirebaseTransport());
 
         // Setup TextViews for displaying player names and current turn
         tvTop = findViewById(R.id.tv_top);
@@ -75,69 +69,31 @@ public class OnlinePvPActivity extends AppCompatActivity
 
         turnIndicator.setText("Current Turn: White");
 
-        // Firebase reference to user details
-        DatabaseReference usersRef = FirebaseDatabase.getInstance().getReference("users");
-        usersRef.addValueEventListener(new ValueEventListener()
-        {
-            @Override
-            public void onDataChange(DataSnapshot dataSnapshot)
-            {
-                if (dataSnapshot.exists())
-                {
-                    String opponentName = dataSnapshot.child(!playerColor.equals(Game.WHITE_STRING) ? player1Id : player2Id).child("username").getValue(String.class);
-                    String playerName = dataSnapshot.child(playerColor.equals(Game.WHITE_STRING) ? player1Id : player2Id).child("username").getValue(String.class);
-
-                    int opponentElo = dataSnapshot.child(!playerColor.equals(Game.WHITE_STRING) ? player1Id : player2Id).child("stats").child("elo").getValue(Integer.class);
-                    int playerElo = dataSnapshot.child(playerColor.equals(Game.WHITE_STRING) ? player1Id : player2Id).child("stats").child("elo").getValue(Integer.class);
-
-                    tvTop.setText(opponentName + " (" + opponentElo + ")"); // Display opponent name and elo at the top
-                    tvBottom.setText(playerName + " (" + playerElo + ")"); // Display player name and elo at the bottom
-                }
-            }
-
-            @Override
-            public void onCancelled(DatabaseError databaseError)
-            {
-                Toast.makeText(OnlinePvPActivity.this, "Failed to fetch players' names: " + databaseError.getMessage(), Toast.LENGTH_SHORT).show();
-            }
-        });
+        // Read the two players' names and elo, and nothing else of the users tree
+        PlayerProfiles profiles = new PlayerProfiles();
+        profiles.fetchProfile(playerColor.equals(Game.WHITE_STRING) ? player2Id : player1Id, new ProfileView(tvTop)); // The opponent at the top
+        profiles.fetchProfile(playerColor.equals(Game.WHITE_STRING) ? player1Id : player2Id, new ProfileView(tvBottom)); // The player at the bottom
 
         // Setup the game board view
         gridView = findViewById(R.id.grid_view);
         adapter = new CheckersAdapter(this, game.getBoard().getState(), !playerColor.equals(Game.WHITE_STRING));
         gridView.setAdapter(adapter);
-        game.setAdapter(adapter);
+        game.setBoardListener(changed -> adapter.updateGameState(changed.getBoard().getState()));
 
         // Setup touch listeners for making moves
         setupTouchListeners();
 
-        // Monitor game status changes
-        DatabaseReference gamesRef = FirebaseDatabase.getInstance().getReference("games");
-        gamesRef.child(gameId).addValueEventListener(new ValueEventListener()
+        // Monitor game status changes through the game's stream, which are written together with each move
+        game.getStateStream().subscribeToState(state ->
         {
-            @Override
-            public void onDataChange(DataSnapshot dataSnapshot)
-            {
-                if (dataSnapshot.exists())
-                {
-                    // Update the current turn on the board based on the Firebase data
-                    String turnText = "Current Turn: " + (Game.WHITE_STRING.equals(dataSnapshot.child("currentTurn").getValue(String.class)) ? "White" : "Black");
-                    turnIndicator.setText(turnText);
-
-                    Boolean isGameActive = dataSnapshot.child("isActive").getValue(Boolean.class);
-
-                    // Check if the game has ended
-                    if (isGameActive != null && !isGameActive)
-                    {
-                        moveToResultsScreen();
-                    }
-                }
-            }
+            // Update the current turn on the board based on the state
+            String turnText = "Current Turn: " + (Game.WHITE_STRING.equals(state.getCurrentTurn()) ? "White" : "Black");
+            turnIndicator.setText(turnText);
 
-            @Override
-            public void onCancelled(DatabaseError databaseError)
+            // Check if the game has ended
+            if (!state.isActive())
             {
-                Toast.makeText(OnlinePvPActivity.this, "Failed to fetch player's statistics: " + databaseError.getMessage(), Toast.LENGTH_SHORT).show();
+                moveToResultsScreen();
             }
         });
 
@@ -146,6 +102,41 @@ public class OnlinePvPActivity extends AppCompatActivity
         forfeitButton.setOnClickListener(view -> showForfeitConfirmationDialog());
     }
 
+    /**
+     * Shows a player's name and elo in a TextView once they were read.
+     */
+    private class ProfileView implements PlayerProfiles.ProfileListener
+    {
+        private final TextView textView;
+
+        ProfileView(TextView textView)
+        {
+            this.textView = textView;
+        }
+
+        @Override
+        public void onProfile(PlayerProfile profile)
+        {
+            textView.setText(profile.getUsername() + " (" + profile.getElo() + ")");
+        }
+
+        @Override
+        public void onError(String error)
+        {
+            Toast.makeText(OnlinePvPActivity.this, "Failed to fetch players' names: " + error, Toast.LENGTH_SHORT).show();
+        }
+    }
+
+    /**
+     * Called when the activity is destroyed. Stops listening to the game, so nothing is called after the screen is gone.
+     */
+    @Override
+    protected void onDestroy()
+    {
+        game.close();
+        super.onDestroy();
+    }
+
     /**
      * Shows a confirmation dialog to confirm if the user wants to forfeit the game.
      */
@@ -178,6 +169,8 @@ public class OnlinePvPActivity extends AppCompatActivity
      */
     private void moveToResultsScreen()
     {
+        game.close(); // The end of the game must not be handled again before the activity is destroyed.
+
         Intent intent;
         if (Objects.equals(game.getBoard().checkGameStatus(), playerColor))
         {
@@ -0,0 +1,164 @@
+package com.example.checkersnadav;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Moves played in the opening of recorded games, read from a file written by OpeningBookBuilder.
+ * The file holds one fixed-size entry per position and move, sorted by the position's Zobrist hash, so a lookup is a
+ * binary search over the memory-mapped file that reads the entries in place and creates no objects.
+ * A book may be probed by several threads at once.
+ */
+public class OpeningBook
+{
+    static final int MAGIC = 0x434B4F42; // "CKOB", at the start of every book file.
+    static final int HEADER_SIZE = 12; // The magic number, the number of plies and the number of entries.
+    static final int ENTRY_SIZE = 14; // The hash (8 bytes), the move's squares, the games and the score (2 bytes each).
+    static final int MAX_GAMES = 0xFFFF; // The game count of an entry saturates here.
+
+    private final ByteBuffer buffer; // The mapped file.
+    private final int plies; // The number of plies of every game the book was built from.
+    private final int entryCount;
+
+    private OpeningBook(ByteBuffer buffer, int plies, int entryCount)
+    {
+        this.buffer = buffer;
+        this.plies = plies;
+        this.entryCount = entryCount;
+    }
+
+    /**
+     * Maps a book file.
+     *
+     * @param file The file written by OpeningBookBuilder.
+     * @return The book.
+     * @throws IOException If the file cannot be mapped or is not a book file.
+     */
+    public static OpeningBook open(File file) throws IOException
+    {
+        MappedByteBuffer buffer;
+        try (RandomAccessFile in = new RandomAccessFile(file, "r"); FileChannel channel = in.getChannel())
+        {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()); // The mapping outlives the channel.
+        }
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC)
+        {
+            throw new IOException("Not an opening book file: " + file);
+        }
+
+        int plies = buffer.getInt(4);
+        int entryCount = buffer.getInt(8);
+        if (entryCount < 0 || buffer.capacity() != HEADER_SIZE + (long) ENTRY_SIZE * entryCount)
+        {
+            throw new IOException("Truncated opening book file: " + file);
+        }
+        return new OpeningBook(buffer, plies, entryCount);
+    }
+
+    /**
+     * Looks up the book move of a position: the legal move played in the most games, and on a tie the one that scored best.
+     * Does not allocate.
+     *
+     * @param board The position.
+     * @param legalMoves The legal moves of the position, as generated by MoveGenerator. A book move is only returned
+     *                   if it is one of them, so a hash collision cannot produce an illegal move.
+     * @return The move from legalMoves, or Move.NONE if the position is not in the book.
+     */
+    public int probe(Board board, MoveList legalMoves)
+    {
+        long hash = board.getHash();
+
+        // Find the first entry of the position
+        int low = 0;
+        int high = entryCount;
+        while (low < high)
+        {
+            int middle = (low + high) >>> 1;
+            if (buffer.getLong(offset(middle)) < hash)
+            {
+                low = middle + 1;
+            }
+            else
+            {
+                high = middle;
+            }
+        }
+
+        // The entries of a position are sorted from the most played move down
+        for (int i = low; i < entryCount && buffer.getLong(offset(i)) == hash; i++)
+        {
+            int squares = buffer.getShort(offset(i) + 8);
+            int move = legalMoves.find(squareFrom(squares), squareTo(squares));
+            if (move != Move.NONE)
+            {
+                return move;
+            }
+        }
+        return Move.NONE;
+    }
+
+    /**
+     * @return The number of plies of every game the book was built from; later positions are not in the book.
+     */
+    public int getPlies()
+    {
+        return plies;
+    }
+
+    /**
+     * @return The number of different position and move pairs in the book.
+     */
+    public int getEntryCount()
+    {
+        return entryCount;
+    }
+
+    /**
+     * Gets the number of games an entry's move was played in.
+     *
+     * @param index The index of the entry, in hash order.
+     * @return The number of games, at most MAX_GAMES.
+     */
+    int getGames(int index)
+    {
+        return buffer.getShort(offset(index) + 10) & 0xFFFF;
+    }
+
+    /**
+     * Gets how well an entry's move scored for the player who played it.
+     *
+     * @param index The index of the entry, in hash order.
+     * @return The wins minus the losses, in thousandths of the games.
+     */
+    int getScore(int index)
+    {
+        return buffer.getShort(offset(index) + 12);
+    }
+
+    private static int offset(int index)
+    {
+        return HEADER_SIZE + index * ENTRY_SIZE;
+    }
+
+    /**
+     * Packs the source and destination squares of a move into the two bytes an entry stores.
+     */
+    static int packSquares(int from, int to)
+    {
+        return from | (to << 5);
+    }
+
+    private static int squareFrom(int squares)
+    {
+        return squares & 0x1F;
+    }
+
+    private static int squareTo(int squares)
+    {
+        return (squares >>> 5) & 0x1F;
+    }
+}
@@ -0,0 +1,277 @@
+package com.example.checkersnadav;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Builds an opening book offline from recorded games.
+ * A game record is one line of moves in the format of Move.toString() ("2,1-3,0", or "3,2x5,4" for a jump),
+ * separated by spaces, optionally followed by the result (WHITE, BLACK or DRAW). Without a result, the game is
+ * scored by the position it ends in. Every jump of a multi-capture is its own move, like Board.move() expects it.
+ * The games are replayed through Board.move(), which rejects illegal records, and every position of their first
+ * plies is counted with the move played in it and how the game ended for the player of that move.
+ */
+public class OpeningBookBuilder
+{
+    private static final Pattern MOVE = Pattern.compile("(\\d),(\\d)[-x](\\d),(\\d)");
+
+    private final int plies; // The number of plies of every game to add to the book.
+    private final Map<Long, List<Entry>> positions = new HashMap<>(); // The moves played in every position, by hash.
+    private int entryCount;
+    private int gameCount;
+
+    /**
+     * Counts how often a move was played in a position, and how the games went for the player who played it.
+     */
+    private static class Entry
+    {
+        final long hash;
+        final int squares; // The move's source and destination squares, packed by OpeningBook.packSquares().
+        int games;
+        int wins;
+        int losses;
+
+        Entry(long hash, int squares)
+        {
+            this.hash = hash;
+            this.squares = squares;
+        }
+
+        /**
+         * @return The wins minus the losses, in thousandths of the games.
+         */
+        int score()
+        {
+            return (int) ((wins - losses) * 1000L / games);
+        }
+    }
+
+    /**
+     * Constructs an empty builder.
+     *
+     * @param plies The number of plies of every game to add to the book.
+     */
+    public OpeningBookBuilder(int plies)
+    {
+        if (plies < 1)
+        {
+            throw new IllegalArgumentException("plies must be at least 1, got " + plies);
+        }
+        this.plies = plies;
+    }
+
+    /**
+     * Replays a game and adds its first plies to the book.
+     *
+     * @param record The moves of the game, optionally followed by its result.
+     * @throws IllegalArgumentException If the record has a move that is malformed or illegal.
+     */
+    public void addGame(String record)
+    {
+        String[] tokens = record.trim().split("\\s+");
+        String result = null;
+        int moveCount = tokens.length;
+        String last = tokens[tokens.length - 1];
+        if (last.equals(Game.WHITE_STRING) || last.equals(Game.BLACK_STRING) || last.equals(Game.DRAW_STRING))
+        {
+            result = last;
+            moveCount--;
+        }
+
+        // Replay the whole game, to check every move and to score it when the record has no result
+        Board board = new Board();
+        long[] hashes = new long[Math.min(plies, moveCount)];
+        int[] squares = new int[hashes.length];
+        boolean[] movers = new boolean[hashes.length];
+        for (int i = 0; i < moveCount; i++)
+        {
+            Matcher matcher = MOVE.matcher(tokens[i]);
+            if (!matcher.matches())
+            {
+                throw new IllegalArgumentException("Malformed move " + tokens[i] + " in game: " + record);
+            }
+            int xSrc = Integer.parseInt(matcher.group(1));
+            int ySrc = Integer.parseInt(matcher.group(2));
+            int xDst = Integer.parseInt(matcher.group(3));
+            int yDst = Integer.parseInt(matcher.group(4));
+            if (i < hashes.length)
+            {
+                hashes[i] = board.getHash();
+                squares[i] = OpeningBook.packSquares(Bitboard.squareOf(xSrc, ySrc), Bitboard.squareOf(xDst, yDst));
+                movers[i] = board.getTurn();
+            }
+            if (!board.move(xSrc, ySrc, xDst, yDst))
+            {
+                throw new IllegalArgumentException("Illegal move " + tokens[i] + " in game: " + record);
+            }
+        }
+        if (result == null)
+        {
+            result = board.checkGameStatus();
+        }
+
+        for (int i = 0; i < hashes.length; i++)
+        {
+            Entry entry = entry(hashes[i], squares[i]);
+            entry.games++;
+            String player = movers[i] == Board.WHITE ? Game.WHITE_STRING : Game.BLACK_STRING;
+            if (result.equals(player))
+            {
+                entry.wins++;
+            }
+            else if (result.equals(Game.WHITE_STRING) || result.equals(Game.BLACK_STRING))
+            {
+                entry.losses++;
+            }
+        }
+        gameCount++;
+    }
+
+    /**
+     * Adds all the games of a file of records, one per line. Empty lines and lines starting with # are skipped.
+     *
+     * @param reader The records.
+     * @throws IOException If the records cannot be read.
+     * @throws IllegalArgumentException If a record has a move that is malformed or illegal.
+     */
+    public void addGames(BufferedReader reader) throws IOException
+    {
+        String line;
+        while ((line = reader.readLine()) != null)
+        {
+            line = line.trim();
+            if (!line.isEmpty() && !line.startsWith("#"))
+            {
+                addGame(line);
+            }
+        }
+    }
+
+    /**
+     * @return The number of games added so far.
+     */
+    public int getGameCount()
+    {
+        return gameCount;
+    }
+
+    /**
+     * @return The number of different position and move pairs found so far.
+     */
+    public int getEntryCount()
+    {
+        return entryCount;
+    }
+
+    /**
+     * Writes the book, sorted by position hash and, within a position, from the most played move down.
+     *
+     * @param file The file to write the book to.
+     * @throws IOException If the file cannot be written.
+     */
+    public void write(File file) throws IOException
+    {
+        List<Entry> entries = new ArrayList<>(entryCount);
+        for (List<Entry> moves : positions.values())
+        {
+            entries.addAll(moves);
+        }
+        Collections.sort(entries, new Comparator<Entry>()
+        {
+            @Override
+            public int compare(Entry a, Entry b)
+            {
+                if (a.hash != b.hash)
+                {
+                    return Long.compare(a.hash, b.hash);
+                }
+                if (a.games != b.games)
+                {
+                    return Integer.compare(b.games, a.games);
+                }
+                return Integer.compare(b.score(), a.score());
+            }
+        });
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file))))
+        {
+            out.writeInt(OpeningBook.MAGIC);
+            out.writeInt(plies);
+            out.writeInt(entries.size());
+            for (Entry entry : entries)
+            {
+                out.writeLong(entry.hash);
+                out.writeShort(entry.squares);
+                out.writeShort(Math.min(entry.games, OpeningBook.MAX_GAMES));
+                out.writeShort(entry.score());
+            }
+        }
+    }
+
+    /**
+     * Finds the entry of a position and move, adding it if the move was not played there before.
+     */
+    private Entry entry(long hash, int squares)
+    {
+        List<Entry> moves = positions.get(hash);
+        if (moves == null)
+        {
+            moves = new ArrayList<>(2);
+            positions.put(hash, moves);
+        }
+        for (Entry entry : moves)
+        {
+            if (entry.squares == squares)
+            {
+                return entry;
+            }
+        }
+        Entry entry = new Entry(hash, squares);
+        moves.add(entry);
+        entryCount++;
+        return entry;
+    }
+
+    /**
+     * Builds an opening book from the command line.
+     * Usage: OpeningBookBuilder PLIES OUTPUT GAMES...
+     *
+     * @param args The number of plies of every game to add, the book file to write and the files of game records.
+     * @throws IOException If a file cannot be read or written.
+     */
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length < 3)
+        {
+            System.out.println("Usage: OpeningBookBuilder PLIES OUTPUT GAMES...");
+            return;
+        }
+        OpeningBookBuilder builder = new OpeningBookBuilder(Integer.parseInt(args[0]));
+        for (int i = 2; i < args.length; i++)
+        {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(args[i]), StandardCharsets.UTF_8)))
+            {
+                builder.addGames(reader);
+            }
+        }
+        File output = new File(args[1]);
+        builder.write(output);
+        System.out.println(builder.getGameCount() + " games, " + builder.getEntryCount() + " entries, "
+                + output.length() + " bytes written to " + output);
+    }
+}
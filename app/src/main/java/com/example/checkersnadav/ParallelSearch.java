@@ -0,0 +1,264 @@
+package com.example.checkersnadav;
+
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Searches with several threads at once using Lazy SMP: every thread runs its own SearchEngine, with its own board,
+ * on the same root position, and all of them share one transposition table.
+ * The threads do not coordinate otherwise; they help each other only through the results they leave in the table.
+ * Half of the helper threads start their iterative deepening one ply deeper than the main thread, so the threads
+ * spread over different parts of the tree instead of repeating the same work.
+ * One parallel search must only be started by one thread at a time.
+ */
+public class ParallelSearch
+{
+    private static final int DEFAULT_TABLE_MB = 32;
+
+    private final TranspositionTable table; // Shared by all the threads.
+    private final SearchEngine[] engines; // The main engine first, then the helpers.
+    private final ExecutorService helperThreads; // Runs the helper engines; the main engine runs on the caller's thread.
+    private final Future<?>[] helperResults;
+
+    /**
+     * Constructs a parallel search with one thread per available processor.
+     */
+    public ParallelSearch()
+    {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_TABLE_MB);
+    }
+
+    /**
+     * Constructs a parallel search.
+     *
+     * @param threadCount The number of threads to search with, including the calling thread. 1 searches without helpers.
+     * @param tableSizeMb The size of the shared transposition table in megabytes.
+     */
+    public ParallelSearch(int threadCount, int tableSizeMb)
+    {
+        if (threadCount < 1)
+        {
+            throw new IllegalArgumentException("threadCount must be at least 1, got " + threadCount);
+        }
+
+        table = new TranspositionTable(tableSizeMb);
+        engines = new SearchEngine[threadCount];
+        for (int i = 0; i < threadCount; i++)
+        {
+            engines[i] = new SearchEngine(table);
+        }
+        helperResults = new Future<?>[threadCount - 1];
+        helperThreads = threadCount == 1 ? null : Executors.newFixedThreadPool(threadCount - 1, new ThreadFactory()
+        {
+            private int count;
+
+            @Override
+            public Thread newThread(Runnable runnable)
+            {
+                Thread thread = new Thread(runnable, "search-helper-" + (++count));
+                thread.setDaemon(true); // Helpers must not keep the app alive.
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Searches for the best move in the given position with all the threads.
+     * The calling thread runs the main search, and the helpers are stopped as soon as it finishes.
+     *
+     * @param position The position to search. It is not modified.
+     * @param maxDepth The maximum depth to search, in plies.
+     * @param timeBudgetMillis The time the search may take, in milliseconds.
+     * @return The result of the thread that completed the deepest iteration, with the nodes of all the threads.
+     */
+    public SearchResult search(final Board position, final int maxDepth, final long timeBudgetMillis)
+    {
+        long start = System.nanoTime();
+        table.newSearch();
+        for (SearchEngine engine : engines)
+        {
+            engine.clearStop(); // Before the helpers start, so that a stop() cannot be lost.
+        }
+
+        for (int i = 0; i < helperResults.length; i++)
+        {
+            final SearchEngine helper = engines[i + 1];
+            final int startDepth = 1 + (i & 1);
+            helperResults[i] = helperThreads.submit(() -> helper.search(position, startDepth, maxDepth, timeBudgetMillis));
+        }
+
+        SearchResult best = engines[0].search(position, 1, maxDepth, timeBudgetMillis);
+        long nodes = best.getNodes();
+        long quiescenceNodes = best.getQuiescenceNodes();
+        for (int i = 1; i < engines.length; i++)
+        {
+            engines[i].stop();
+        }
+        for (Future<?> helperResult : helperResults)
+        {
+            SearchResult result = waitFor(helperResult);
+            nodes += result.getNodes();
+            quiescenceNodes += result.getQuiescenceNodes();
+            if (result.getDepth() > best.getDepth())
+            {
+                best = result;
+            }
+        }
+        return new SearchResult(best.getBestMove(), best.getScore(), best.getDepth(), nodes, quiescenceNodes, System.nanoTime() - start);
+    }
+
+    /**
+     * Stops the current search as soon as possible. May be called from any thread.
+     */
+    public void stop()
+    {
+        for (SearchEngine engine : engines)
+        {
+            engine.stop();
+        }
+    }
+
+    /**
+     * Sets the evaluation used by all the threads, and forgets the scores found with the previous one.
+     *
+     * @param evaluation The evaluation.
+     */
+    public void setEvaluation(Evaluation evaluation)
+    {
+        for (SearchEngine engine : engines)
+        {
+            engine.setEvaluation(evaluation);
+        }
+        table.clear();
+    }
+
+    /**
+     * Sets the endgame tablebase used by all the threads.
+     *
+     * @param tablebase The tablebase, or null to search every position.
+     */
+    public void setTablebase(EndgameTablebase tablebase)
+    {
+        for (SearchEngine engine : engines)
+        {
+            engine.setTablebase(tablebase);
+        }
+    }
+
+    /**
+     * Sets the opening book used by all the threads. Positions found in it are answered without searching.
+     *
+     * @param openingBook The book, or null to search every position.
+     */
+    public void setOpeningBook(OpeningBook openingBook)
+    {
+        for (SearchEngine engine : engines)
+        {
+            engine.setOpeningBook(openingBook);
+        }
+    }
+
+    /**
+     * Forgets the results of earlier searches.
+     */
+    public void clear()
+    {
+        table.clear();
+    }
+
+    public int getThreadCount()
+    {
+        return engines.length;
+    }
+
+    /**
+     * Stops the helper threads. The parallel search cannot be used afterwards.
+     */
+    public void shutdown()
+    {
+        if (helperThreads != null)
+        {
+            helperThreads.shutdownNow();
+        }
+    }
+
+    /**
+     * Waits for a helper to finish its search.
+     */
+    private static SearchResult waitFor(Future<?> helperResult)
+    {
+        boolean interrupted = false;
+        try
+        {
+            while (true)
+            {
+                try
+                {
+                    return (SearchResult) helperResult.get();
+                }
+                catch (InterruptedException e)
+                {
+                    interrupted = true; // The helper was already told to stop, so it finishes soon.
+                }
+            }
+        }
+        catch (ExecutionException e)
+        {
+            throw new IllegalStateException("Search helper failed", e.getCause());
+        }
+        finally
+        {
+            if (interrupted)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Compares searching with one thread and with several threads on a few positions, and reports the speedup.
+     * Usage: ParallelSearch [THREADS] [DEPTH]
+     *
+     * @param args The number of threads (by default, one per processor) and the depth to search to (by default 16).
+     */
+    public static void main(String[] args)
+    {
+        int threadCount = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int depth = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        long timeBudgetMillis = 24L * 60 * 60 * 1000; // A day, so that only the depth limits the searches.
+        String[] positions = {
+                Perft.START_POSITION,
+                "pppp/pppp/.ppp/p.../.P../PP.P/PPPP/PPPP b",
+                "pp.p/p.pp/.p.p/p.p./.P.P/P.PP/PPP./P.PP w",
+                "..../.p.p/p.../...P/.k../P.P./..K./.... w"
+        };
+
+        ParallelSearch single = new ParallelSearch(1, DEFAULT_TABLE_MB);
+        ParallelSearch parallel = new ParallelSearch(threadCount, DEFAULT_TABLE_MB);
+        long singleTotal = 0;
+        long parallelTotal = 0;
+        for (String fen : positions)
+        {
+            Board board = Board.fromFen(fen);
+            single.clear();
+            parallel.clear();
+            SearchResult singleResult = single.search(board, depth, timeBudgetMillis);
+            SearchResult parallelResult = parallel.search(board, depth, timeBudgetMillis);
+            singleTotal += singleResult.getElapsedMillis();
+            parallelTotal += parallelResult.getElapsedMillis();
+
+            System.out.println("Position: " + fen);
+            System.out.println("  1 thread:   " + singleResult);
+            System.out.println(String.format(Locale.US, "  %d threads: %s", threadCount, parallelResult));
+        }
+        single.shutdown();
+        parallel.shutdown();
+
+        System.out.println(String.format(Locale.US, "Time to depth %d: %d ms with 1 thread, %d ms with %d threads, speedup %.2fx",
+                depth, singleTotal, parallelTotal, threadCount, singleTotal / (double) Math.max(1, parallelTotal)));
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.checkersnadav;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Performance test (perft) for the move rules: counts the leaf nodes of the game tree up to a given depth.
+ * Every ply is a single move, so each jump of a multi-capture counts as its own ply.
+ * The node counts of known positions pin the behavior of the rules, and the time it takes to count them
+ * measures the throughput of the board implementation.
+ */
+public class Perft
+{
+    public static final String START_POSITION = new Board().toFen(); // The standard starting position.
+
+    private final Board board; // The board the tree is explored on, using make/unmake.
+    private final MoveList[] moves; // One move buffer per ply.
+
+    /**
+     * Constructs a perft counter that can search up to the given depth.
+     *
+     * @param maxDepth The maximum depth that will be counted.
+     */
+    public Perft(int maxDepth)
+    {
+        board = new Board();
+        moves = new MoveList[maxDepth + 1];
+        for (int i = 0; i <= maxDepth; i++)
+        {
+            moves[i] = new MoveList();
+        }
+    }
+
+    /**
+     * Counts the leaf nodes reachable from the given position in exactly the given number of plies.
+     *
+     * @param position The position to count from. It is not modified.
+     * @param depth The number of plies.
+     * @return The number of leaf nodes.
+     */
+    public long perft(Board position, int depth)
+    {
+        board.copyFrom(position);
+        return count(0, depth);
+    }
+
+    /**
+     * Counts the leaf nodes separately for every legal move of the given position ("divide").
+     *
+     * @param position The position to count from. It is not modified.
+     * @param depth The number of plies, including the root move.
+     * @return The node count of every root move, in generation order.
+     */
+    public Map<String, Long> divide(Board position, int depth)
+    {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        board.copyFrom(position);
+        MoveList rootMoves = moves[0];
+        MoveGenerator.generateMoves(board, rootMoves);
+        for (int i = 0; i < rootMoves.size(); i++)
+        {
+            int move = rootMoves.get(i);
+            long undo = board.makeMove(move);
+            counts.put(Move.toString(move), count(1, depth - 1));
+            board.unmakeMove(undo);
+        }
+        return counts;
+    }
+
+    /**
+     * Counts the leaf nodes below the current position of the board.
+     */
+    private long count(int ply, int depth)
+    {
+        if (depth == 0)
+        {
+            return 1;
+        }
+
+        MoveList list = moves[ply];
+        int moveCount = MoveGenerator.generateMoves(board, list);
+        if (depth == 1)
+        {
+            return moveCount; // Bulk counting: every legal move is a leaf.
+        }
+
+        long nodes = 0;
+        for (int i = 0; i < moveCount; i++)
+        {
+            long undo = board.makeMove(list.get(i));
+            nodes += count(ply + 1, depth - 1);
+            board.unmakeMove(undo);
+        }
+        return nodes;
+    }
+
+    /**
+     * Counts the leaf nodes by trying every source and destination square with Board.isValidMove(), without the move generator.
+     * This is much slower, and is used to cross-check the generator against the rules.
+     *
+     * @param board The position to count from. It is not modified.
+     * @param depth The number of plies.
+     * @return The number of leaf nodes.
+     */
+    public static long perftByValidation(Board board, int depth)
+    {
+        if (depth == 0)
+        {
+            return 1;
+        }
+
+        long nodes = 0;
+        for (int from = 0; from < Bitboard.SQUARES; from++)
+        {
+            for (int to = 0; to < Bitboard.SQUARES; to++)
+            {
+                int xSrc = Bitboard.toX(from);
+                int ySrc = Bitboard.toY(from);
+                int xDst = Bitboard.toX(to);
+                int yDst = Bitboard.toY(to);
+                if (board.isValidMove(xSrc, ySrc, xDst, yDst))
+                {
+                    Board child = new Board(board);
+                    child.move(xSrc, ySrc, xDst, yDst);
+                    nodes += perftByValidation(child, depth - 1);
+                }
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * Runs perft from the command line and reports the node count and nodes per second.
+     * Usage: Perft DEPTH ["POSITION"] [--divide]
+     *
+     * @param args The depth, an optional position in the format of Board.fromFen(), and an optional --divide flag.
+     */
+    public static void main(String[] args)
+    {
+        if (args.length == 0)
+        {
+            System.out.println("Usage: Perft DEPTH [\"POSITION\"] [--divide]");
+            return;
+        }
+
+        int depth = Integer.parseInt(args[0]);
+        String fen = START_POSITION;
+        boolean divide = false;
+        for (int i = 1; i < args.length; i++)
+        {
+            if (args[i].equals("--divide"))
+            {
+                divide = true;
+            }
+            else
+            {
+                fen = args[i];
+            }
+        }
+
+        Board board = Board.fromFen(fen);
+        Perft perft = new Perft(depth);
+        long start = System.nanoTime();
+        long nodes;
+        if (divide)
+        {
+            nodes = 0;
+            for (Map.Entry<String, Long> entry : perft.divide(board, depth).entrySet())
+            {
+                System.out.println(entry.getKey() + ": " + entry.getValue());
+                nodes += entry.getValue();
+            }
+        }
+        else
+        {
+            nodes = perft.perft(board, depth);
+        }
+        long elapsed = Math.max(1, System.nanoTime() - start);
+
+        System.out.println("Position: " + fen);
+        System.out.println(String.format(Locale.US, "Depth %d: %d nodes in %.3f s (%.0f nodes/s)",
+                depth, nodes, elapsed / 1e9, nodes * 1e9 / elapsed));
+    }
+}
@@ -2,11 +2,13 @@ package com.example.checkersnadav;
 
 /**
  * Represents a single checkers piece with attributes to determine its color and whether it's a king.
+ * Pieces are immutable, since the board view shares one instance per kind of piece between all the squares and boards;
+ * a promotion puts a king in the square instead of changing the piece.
  */
-public class Piece
+public final class Piece
 {
     private final boolean color;  // true for black, false for white
-    private boolean isKing;       // true if the piece is promoted to a king
+    private final boolean isKing; // true if the piece is a king
 
     /**
      * Constructs a new Piece with the specified color.
@@ -65,14 +67,4 @@ public class Piece
     {
         return isKing;
     }
-
-    /**
-     * Sets the king status of this piece.
-     *
-     * @param isKing true if the piece should be a king, otherwise false
-     */
-    public void setKing(boolean isKing)
-    {
-        this.isKing = isKing;
-    }
 }
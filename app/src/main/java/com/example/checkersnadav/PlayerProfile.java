@@ -0,0 +1,50 @@
+package com.example.checkersnadav;
+
+/**
+ * The part of a player's record that is shown next to the board: the username and the Elo rating.
+ * Instances are immutable, and are read with PlayerProfiles without downloading the rest of the record.
+ */
+public final class PlayerProfile
+{
+    private final String userId; // The ID of the player in the database.
+    private final String username;
+    private final int elo;
+
+    /**
+     * Constructs a profile.
+     *
+     * @param userId The ID of the player.
+     * @param username The username of the player, or null if it is not known.
+     * @param elo The Elo rating of the player.
+     */
+    public PlayerProfile(String userId, String username, int elo)
+    {
+        this.userId = userId;
+        this.username = username;
+        this.elo = elo;
+    }
+
+    /**
+     * @return The ID of the player.
+     */
+    public String getUserId()
+    {
+        return userId;
+    }
+
+    /**
+     * @return The username of the player, or null if it is not known.
+     */
+    public String getUsername()
+    {
+        return username;
+    }
+
+    /**
+     * @return The Elo rating of the player.
+     */
+    public int getElo()
+    {
+        return elo;
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.checkersnadav;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.ValueEventListener;
+
+/**
+ * Reads the profiles of players from Firebase, one player at a time.
+ * Only users/[userId]/username and users/[userId]/stats/elo are read, with a single-value read each,
+ * so showing the two players of a game costs the same however many players are registered,
+ * instead of downloading the whole users tree.
+ */
+public class PlayerProfiles
+{
+    private final DatabaseReference usersRef; // The players, by user ID.
+
+    /**
+     * Receives a profile that was read.
+     */
+    public interface ProfileListener
+    {
+        /**
+         * Called once the profile was read.
+         *
+         * @param profile The profile.
+         */
+        void onProfile(PlayerProfile profile);
+
+        /**
+         * Called if the profile could not be read.
+         *
+         * @param error The reason.
+         */
+        void onError(String error);
+    }
+
+    /**
+     * A profile being read, whose two values arrive separately. Firebase calls back on the main thread,
+     * so it needs no locking.
+     */
+    private static final class PendingProfile
+    {
+        final String userId;
+        final ProfileListener listener;
+        String username;
+        Integer elo;
+        int remaining = 2; // The values not read yet.
+        boolean failed;
+
+        PendingProfile(String userId, ProfileListener listener)
+        {
+            this.userId = userId;
+            this.listener = listener;
+        }
+
+        void onValueRead()
+        {
+            if (--remaining == 0 && !failed)
+            {
+                listener.onProfile(new PlayerProfile(userId, username, elo == null ? new Statistics().getElo() : elo));
+            }
+        }
+
+        void onFailed(DatabaseError databaseError)
+        {
+            if (!failed)
+            {
+                failed = true;
+                listener.onError(databaseError.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Constructs the profile reader on the app's default Firebase database.
+     */
+    public PlayerProfiles()
+    {
+        usersRef = FirebaseDatabase.getInstance().getReference("users");
+    }
+
+    /**
+     * Reads a player's username and Elo rating. A player with no rating yet has the default one.
+     *
+     * @param userId The ID of the player.
+     * @param listener Told the profile once both values were read.
+     */
+    public void fetchProfile(String userId, ProfileListener listener)
+    {
+        PendingProfile pending = new PendingProfile(userId, listener);
+        DatabaseReference userRef = usersRef.child(userId);
+
+        // Both values are read at once, rather than the whole record with the password and statistics
+        userRef.child("username").addListenerForSingleValueEvent(new ValueEventListener()
+        {
+            @Override
+            public void onDataChange(DataSnapshot dataSnapshot)
+            {
+                pending.username = dataSnapshot.getValue(String.class);
+                pending.onValueRead();
+            }
+
+            @Override
+            public void onCancelled(DatabaseError databaseError)
+            {
+                pending.onFailed(databaseError);
+            }
+        });
+        userRef.child("stats").child("elo").addListenerForSingleValueEvent(new ValueEventListener()
+        {
+            @Override
+            public void onDataChange(DataSnapshot dataSnapshot)
+            {
+                pending.elo = dataSnapshot.getValue(Integer.class);
+                pending.onValueRead();
+            }
+
+            @Override
+            public void onCancelled(DatabaseError databaseError)
+            {
+                pending.onFailed(databaseError);
+            }
+        });
+    }
+}
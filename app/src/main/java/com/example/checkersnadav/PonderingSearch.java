@@ -0,0 +1,283 @@
+package com.example.checkersnadav;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A computer opponent that thinks on the player's time ("pondering").
+ * Once the engine's move has been played, it predicts the player's reply from the transposition table
+ * and searches the position after that reply on a background thread, while the player is still deciding.
+ * If the player makes the predicted move, the next search continues the pondering search for its time budget,
+ * so the engine answers with everything it found while waiting; otherwise the pondering is stopped the moment the
+ * move is made, and the next search starts over with the table the pondering filled.
+ * Register it with Game.setMoveListener() so that it sees the moves as they are made.
+ */
+public class PonderingSearch implements Game.MoveListener
+{
+    private static final long PONDER_MILLIS = 10L * 60 * 1000; // Pondering gives up by itself after ten minutes.
+    private static final int MAX_PREDICTED_MOVES = 16; // Enough for the longest multi-capture of the player.
+
+    private final SearchEngine engine; // Searches for the caller, or ponders between the searches.
+    private final ExecutorService ponderThread;
+    private final Board ponderBoard = new Board(); // The position after the predicted reply, read by the pondering search.
+    private final MoveList moveList = new MoveList();
+    private final int[] predicted = new int[MAX_PREDICTED_MOVES]; // The predicted reply, one move per jump.
+
+    // Guarded by this object's lock.
+    private int predictedCount;
+    private int matched; // The moves of the predicted reply that were played so far.
+    private boolean missed; // The player made another move than predicted.
+    private Future<SearchResult> ponder; // The pondering search, or null.
+    private int expectedMove = Move.NONE; // The engine's last move, which starts the pondering once it is played.
+    private boolean engineSide; // The player the engine searched for.
+    private int maxDepth; // The depth limit of the last search, also used for pondering.
+    private int hits;
+    private int misses;
+
+    /**
+     * Constructs a pondering search around an engine, which must not be used elsewhere.
+     *
+     * @param engine The engine.
+     */
+    public PonderingSearch(SearchEngine engine)
+    {
+        this.engine = engine;
+        ponderThread = Executors.newSingleThreadExecutor(runnable ->
+        {
+            Thread thread = new Thread(runnable, "ponder");
+            thread.setDaemon(true); // Pondering must not keep the app alive.
+            return thread;
+        });
+    }
+
+    /**
+     * Searches for the best move in the given position.
+     * When the position is the one that was pondered, the pondering search is continued for the time budget
+     * instead of starting over, and the result includes the time and nodes spent pondering.
+     *
+     * @param position The position to search. It is not modified.
+     * @param maxDepth The maximum depth to search, in plies.
+     * @param timeBudgetMillis The time the search may take, in milliseconds.
+     * @return The best move found, with the search statistics.
+     */
+    public SearchResult search(Board position, int maxDepth, long timeBudgetMillis)
+    {
+        Future<SearchResult> pondering;
+        boolean hit;
+        synchronized (this)
+        {
+            pondering = ponder;
+            ponder = null;
+            expectedMove = Move.NONE;
+            hit = pondering != null && !missed && matched == predictedCount
+                    && position.getHash() == ponderBoard.getHash()
+                    && position.getMovesSinceCaptureOrKing() == ponderBoard.getMovesSinceCaptureOrKing();
+        }
+
+        SearchResult result = null;
+        if (pondering != null)
+        {
+            if (hit)
+            {
+                result = waitFor(pondering, timeBudgetMillis * 1000000L);
+            }
+            else
+            {
+                engine.stop();
+                waitFor(pondering, 0);
+            }
+            synchronized (this)
+            {
+                if (hit)
+                {
+                    hits++;
+                }
+                else
+                {
+                    misses++;
+                }
+            }
+        }
+        if (result == null)
+        {
+            result = engine.search(position, maxDepth, timeBudgetMillis);
+        }
+
+        synchronized (this)
+        {
+            expectedMove = result.getBestMove();
+            engineSide = position.getTurn();
+            this.maxDepth = maxDepth;
+        }
+        return result;
+    }
+
+    /**
+     * Starts pondering when the engine's move is played, and stops it when the player makes another move than predicted.
+     */
+    @Override
+    public synchronized void onMove(Game game, int xSrc, int ySrc, int xDst, int yDst)
+    {
+        int from = Bitboard.squareOf(xSrc, ySrc);
+        int to = Bitboard.squareOf(xDst, yDst);
+        if (ponder == null)
+        {
+            if (expectedMove != Move.NONE && Move.from(expectedMove) == from && Move.to(expectedMove) == to)
+            {
+                expectedMove = Move.NONE;
+                if (game.isActive())
+                {
+                    startPondering(game.getBoard());
+                }
+            }
+            return;
+        }
+
+        if (!missed && matched < predictedCount && Move.from(predicted[matched]) == from && Move.to(predicted[matched]) == to)
+        {
+            matched++;
+            return;
+        }
+        missed = true;
+        engine.stop(); // Free the processor at once; the next search waits for the thread to finish.
+    }
+
+    /**
+     * Predicts the player's reply and starts searching the position after it.
+     * Nothing is pondered if the engine is still capturing or the reply cannot be predicted.
+     */
+    private void startPondering(Board board)
+    {
+        ponderBoard.copyFrom(board);
+        predictedCount = 0;
+        matched = 0;
+        missed = false;
+        while (ponderBoard.getTurn() != engineSide)
+        {
+            int count = MoveGenerator.generateMoves(ponderBoard, moveList);
+            if (count == 0 || predictedCount == MAX_PREDICTED_MOVES)
+            {
+                return; // The game is over, or the reply is longer than any real one.
+            }
+            int move = engine.getTableMove(ponderBoard);
+            move = move == Move.NONE ? Move.NONE : moveList.find(Move.from(move), Move.to(move));
+            if (move == Move.NONE)
+            {
+                if (count > 1)
+                {
+                    return; // The last search did not look at this position, so there is nothing to go on.
+                }
+                move = moveList.get(0);
+            }
+            predicted[predictedCount++] = move;
+            ponderBoard.makeMove(move);
+        }
+        if (predictedCount == 0 || MoveGenerator.generateMoves(ponderBoard, moveList) == 0)
+        {
+            return; // The engine is still capturing, or the predicted reply ends the game.
+        }
+
+        final int depth = maxDepth;
+        engine.clearStop();
+        ponder = ponderThread.submit(() -> engine.search(ponderBoard, 1, depth, PONDER_MILLIS));
+    }
+
+    /**
+     * Checks if a pondering search is running and the player has not left the predicted line.
+     *
+     * @return true if the engine is pondering.
+     */
+    public synchronized boolean isPondering()
+    {
+        return ponder != null && !missed;
+    }
+
+    /**
+     * Gets the next move of the predicted reply that the player has not made yet.
+     *
+     * @return The move, or Move.NONE if the engine is not pondering.
+     */
+    public synchronized int getPredictedMove()
+    {
+        return ponder == null || missed || matched == predictedCount ? Move.NONE : predicted[matched];
+    }
+
+    /**
+     * @return The number of searches that continued a pondering search, because the prediction was right.
+     */
+    public synchronized int getPonderHits()
+    {
+        return hits;
+    }
+
+    /**
+     * @return The number of pondering searches that were thrown away, because the prediction was wrong.
+     */
+    public synchronized int getPonderMisses()
+    {
+        return misses;
+    }
+
+    /**
+     * Stops the current search or pondering as soon as possible. May be called from any thread.
+     */
+    public void stop()
+    {
+        engine.stop();
+    }
+
+    /**
+     * Stops the pondering thread. The search cannot be used afterwards.
+     */
+    public void shutdown()
+    {
+        engine.stop();
+        ponderThread.shutdownNow();
+    }
+
+    /**
+     * Waits for the pondering search to finish, stopping it once the timeout has passed.
+     */
+    private SearchResult waitFor(Future<SearchResult> pondering, long timeoutNanos)
+    {
+        long deadline = System.nanoTime() + timeoutNanos;
+        boolean stopped = false;
+        boolean interrupted = false;
+        try
+        {
+            while (true)
+            {
+                try
+                {
+                    return stopped ? pondering.get() : pondering.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                }
+                catch (TimeoutException e)
+                {
+                    engine.stop(); // The time is up, take the deepest iteration the pondering completed.
+                    stopped = true;
+                }
+                catch (InterruptedException e)
+                {
+                    interrupted = true;
+                    engine.stop();
+                    stopped = true;
+                }
+            }
+        }
+        catch (ExecutionException e)
+        {
+            throw new IllegalStateException("Pondering failed", e.getCause());
+        }
+        finally
+        {
+            if (interrupted)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.checkersnadav;
+
+/**
+ * Converts a position to and from 12 bytes, or 16 Base64 characters where the database needs text.
+ * Only the 32 playable squares are stored:
+ * bytes 0-3 hold the bitboard of the occupied squares, bytes 4-9 hold two bits for every occupied square
+ * in square order (black, then king), and bytes 10-11 hold the player to move (1 bit), the square of the last move
+ * (5 bits), which marks the piece that has to continue a multi-capture, and the draw counter (10 bits).
+ * The 48 bits for the pieces fit the 24 pieces of a game. Decoding writes straight into an existing board,
+ * without creating Piece objects or other garbage.
+ */
+public final class PositionCodec
+{
+    public static final int SIZE = 12; // The length of an encoded position in bytes.
+    public static final int TEXT_LENGTH = 16; // The length of an encoded position in Base64 characters (no padding needed).
+
+    private static final int MAX_PIECES = 24; // The pieces that fit the 48 bits after the occupied squares.
+    private static final int MAX_COUNTER = (1 << 10) - 1; // The draw counter is stored in 10 bits and saturates.
+    private static final String BASE64 = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+
+    private PositionCodec()
+    {
+        // Static helpers only.
+    }
+
+    /**
+     * Encodes the position of a board.
+     *
+     * @param board The board to encode.
+     * @param out The array to write the SIZE bytes to.
+     * @param offset The index of the first byte to write.
+     * @throws IllegalArgumentException if the board has more pieces than a game can have.
+     */
+    public static void encode(Board board, byte[] out, int offset)
+    {
+        long pieces = pieceBits(board);
+        long high = packHigh(board, pieces);
+        int low = packLow(board, pieces);
+        for (int i = 0; i < 8; i++)
+        {
+            out[offset + i] = (byte) (high >>> (56 - 8 * i));
+        }
+        for (int i = 0; i < 4; i++)
+        {
+            out[offset + 8 + i] = (byte) (low >>> (24 - 8 * i));
+        }
+    }
+
+    /**
+     * Decodes a position into an existing board, replacing its pieces, turn, last move and draw counter.
+     *
+     * @param in The array holding the encoded position.
+     * @param offset The index of its first byte.
+     * @param board The board to write the position to.
+     * @throws IllegalArgumentException if the bytes are not a valid position.
+     */
+    public static void decode(byte[] in, int offset, Board board)
+    {
+        long high = 0;
+        for (int i = 0; i < 8; i++)
+        {
+            high = (high << 8) | (in[offset + i] & 0xFF);
+        }
+        int low = 0;
+        for (int i = 0; i < 4; i++)
+        {
+            low = (low << 8) | (in[offset + 8 + i] & 0xFF);
+        }
+        unpack(high, low, board);
+    }
+
+    /**
+     * Encodes the position of a board as text.
+     *
+     * @param board The board to encode.
+     * @return The TEXT_LENGTH Base64 characters of the position.
+     * @throws IllegalArgumentException if the board has more pieces than a game can have.
+     */
+    public static String encodeToString(Board board)
+    {
+        long pieces = pieceBits(board);
+        long high = packHigh(board, pieces);
+        long low = packLow(board, pieces) & 0xFFFFFFFFL;
+        char[] text = new char[TEXT_LENGTH];
+        for (int i = 0; i < TEXT_LENGTH; i++)
+        {
+            // Shift the 96 bits left by 6 at a time, taking the top 6 bits each time
+            text[i] = BASE64.charAt((int) (high >>> 58));
+            high = (high << 6) | (low >>> 26);
+            low = (low << 6) & 0xFFFFFFFFL;
+        }
+        return new String(text);
+    }
+
+    /**
+     * Decodes a position from text into an existing board, replacing its pieces, turn, last move and draw counter.
+     * Does not allocate.
+     *
+     * @param text The Base64 text written by encodeToString().
+     * @param board The board to write the position to.
+     * @throws IllegalArgumentException if the text is not a valid position.
+     */
+    public static void decode(String text, Board board)
+    {
+        if (text.length() != TEXT_LENGTH)
+        {
+            throw new IllegalArgumentException("An encoded position has " + TEXT_LENGTH + " characters, got " + text.length());
+        }
+        long high = 0;
+        long low = 0;
+        for (int i = 0; i < TEXT_LENGTH; i++)
+        {
+            int value = BASE64.indexOf(text.charAt(i));
+            if (value < 0)
+            {
+                throw new IllegalArgumentException("Unexpected character in encoded position: " + text.charAt(i));
+            }
+            high = (high << 6) | (low >>> 26);
+            low = ((low << 6) & 0xFFFFFFFFL) | value;
+        }
+        unpack(high, (int) low, board);
+    }
+
+    /**
+     * Packs the occupied squares and the first 32 bits of the pieces.
+     */
+    private static long packHigh(Board board, long pieces)
+    {
+        int occupied = board.getWhitePieces() | board.getBlackPieces();
+        return ((long) occupied << 32) | (pieces >>> 16);
+    }
+
+    /**
+     * Packs the last 16 bits of the pieces, the turn, the last move and the draw counter.
+     */
+    private static int packLow(Board board, long pieces)
+    {
+        int lastMove = Bitboard.squareOf(board.getLastMoveX(), board.getLastMoveY());
+        if (lastMove == Bitboard.NONE)
+        {
+            // Any square without a piece of the player to move decodes to no pending capture
+            lastMove = Integer.numberOfTrailingZeros(~(board.getTurn() == Board.BLACK ? board.getBlackPieces() : board.getWhitePieces()));
+        }
+        int counter = Math.min(MAX_COUNTER, board.getMovesSinceCaptureOrKing());
+        return (int) (pieces & 0xFFFF) << 16
+                | (board.getTurn() == Board.BLACK ? 1 << 15 : 0)
+                | lastMove << 10
+                | counter;
+    }
+
+    /**
+     * Gets the 48 bits of the pieces: two bits per occupied square, the first square in the top bits.
+     */
+    private static long pieceBits(Board board)
+    {
+        int occupied = board.getWhitePieces() | board.getBlackPieces();
+        if (Integer.bitCount(occupied) > MAX_PIECES)
+        {
+            throw new IllegalArgumentException("Cannot encode more than " + MAX_PIECES + " pieces");
+        }
+        long bits = 0;
+        int shift = 46;
+        for (int remaining = occupied; remaining != 0; remaining &= remaining - 1, shift -= 2)
+        {
+            int bit = remaining & -remaining;
+            int code = ((board.getBlackPieces() & bit) != 0 ? 2 : 0) | ((board.getKings() & bit) != 0 ? 1 : 0);
+            bits |= (long) code << shift;
+        }
+        return bits;
+    }
+
+    private static void unpack(long high, int low, Board board)
+    {
+        int occupied = (int) (high >>> 32);
+        if (Integer.bitCount(occupied) > MAX_PIECES)
+        {
+            throw new IllegalArgumentException("An encoded position cannot have more than " + MAX_PIECES + " pieces");
+        }
+        long bits = ((high & 0xFFFFFFFFL) << 16) | ((low >>> 16) & 0xFFFF);
+        int blackPieces = 0;
+        int kings = 0;
+        int shift = 46;
+        for (int remaining = occupied; remaining != 0; remaining &= remaining - 1, shift -= 2)
+        {
+            int bit = remaining & -remaining;
+            int code = (int) (bits >>> shift) & 3;
+            if ((code & 2) != 0)
+            {
+                blackPieces |= bit;
+            }
+            if ((code & 1) != 0)
+            {
+                kings |= bit;
+            }
+        }
+
+        int lastMove = (low >>> 10) & 0x1F;
+        board.setTurn((low & (1 << 15)) != 0 ? Board.BLACK : Board.WHITE);
+        board.setLastMoveX(Bitboard.toX(lastMove));
+        board.setLastMoveY(Bitboard.toY(lastMove));
+        board.setMovesSinceCaptureOrKing(low & MAX_COUNTER);
+        board.setPieces(occupied & ~blackPieces, blackPieces, kings);
+    }
+}
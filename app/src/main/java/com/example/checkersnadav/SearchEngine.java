@@ -0,0 +1,547 @@
+package com.example.checkersnadav;
+
+/**
+ * A computer opponent that searches the game tree with negamax alpha-beta and iterative deepening.
+ * The search runs on its own copy of the board using make/unmake, and stops as soon as its time budget runs out,
+ * returning the best move of the deepest completed iteration.
+ * At the leaves, a quiescence search plays out pending captures before evaluating, up to a node limit.
+ * Positions in the opening book are answered with the book move without searching.
+ * One engine must only be used by one thread at a time; see ParallelSearch for searching with several threads.
+ */
+public class SearchEngine
+{
+    public static final int MAX_PLY = 128; // The deepest ply the search can reach.
+    public static final int WIN_SCORE = 30000; // The score of a won position, minus the number of plies to the win.
+    public static final int DRAW_SCORE = 0;
+    public static final int TABLEBASE_WIN_SCORE = WIN_SCORE - 2 * MAX_PLY; // The score of a tablebase win, minus its distance in turns.
+    public static final int DRAW_MOVES = 80; // Moves without a capture or kinging that end the game in a draw, as in Board.checkGameStatus().
+
+    private static final int CHECK_INTERVAL = 1023; // The clock is checked every 1024 nodes.
+    private static final int DEFAULT_TABLE_MB = 8;
+    private static final int DEFAULT_QUIESCENCE_NODE_LIMIT = 1024;
+
+    private final Board board; // The engine's own board, explored with make/unmake.
+    private final MoveList[] moves; // One move buffer per ply.
+    private final TranspositionTable table; // Results of earlier searches, possibly shared with other engines.
+    private Evaluation evaluation = Evaluation.getDefault(); // Scores the positions at the leaves.
+    private final MoveOrdering ordering; // Killer moves and history scores of this engine's searches.
+    private boolean orderingEnabled = true; // When false, moves are searched in generation order, to measure the ordering.
+    private EndgameTablebase tablebase; // Perfect results for positions with few pieces, or null.
+    private OpeningBook openingBook; // Moves played in the opening of recorded games, or null.
+    private int quiescenceNodeLimit = DEFAULT_QUIESCENCE_NODE_LIMIT; // Quiescence nodes allowed below one leaf of the main search.
+
+    private long nodes; // Positions visited in the current search, including quiescence nodes.
+    private long quiescenceNodes; // Positions visited in the current search by the quiescence search.
+    private long quiescenceStart; // quiescenceNodes when the current quiescence search started.
+    private int rootScore; // The score of the best move of the last root search.
+    private long deadline; // System.nanoTime() at which the current search has to stop.
+    private boolean stopped; // Set once the current search has run out of time or was stopped.
+    private volatile boolean stopRequested; // Set by stop(), possibly from another thread.
+
+    /**
+     * Constructs a search engine with its own transposition table.
+     */
+    public SearchEngine()
+    {
+        this(new TranspositionTable(DEFAULT_TABLE_MB));
+    }
+
+    /**
+     * Constructs a search engine that uses the given transposition table.
+     *
+     * @param table The transposition table. It may be shared with engines searching on other threads.
+     */
+    public SearchEngine(TranspositionTable table)
+    {
+        this.table = table;
+        ordering = new MoveOrdering();
+        board = new Board();
+        moves = new MoveList[MAX_PLY + 1];
+        for (int i = 0; i <= MAX_PLY; i++)
+        {
+            moves[i] = new MoveList();
+        }
+    }
+
+    /**
+     * Searches for the best move in the given position.
+     * The search deepens one ply at a time until the time budget or the maximum depth is reached.
+     *
+     * @param position The position to search. It is not modified.
+     * @param maxDepth The maximum depth to search, in plies.
+     * @param timeBudgetMillis The time the search may take, in milliseconds.
+     * @return The best move found, with the search statistics.
+     */
+    public SearchResult search(Board position, int maxDepth, long timeBudgetMillis)
+    {
+        stopRequested = false;
+        table.newSearch();
+        return search(position, 1, maxDepth, timeBudgetMillis);
+    }
+
+    /**
+     * Searches for the best move in a timed game, thinking as long as the time manager allows.
+     * A forced move is returned at once, as a result of depth 0 with no nodes searched.
+     *
+     * @param position The position to search. It is not modified.
+     * @param maxDepth The maximum depth to search, in plies.
+     * @param timeManager The time manager, already started for this move with TimeManager.startMove().
+     * @return The best move found, with the search statistics.
+     */
+    public SearchResult search(Board position, int maxDepth, TimeManager timeManager)
+    {
+        stopRequested = false;
+        table.newSearch();
+        return search(position, 1, maxDepth, timeManager.getHardDeadline(), timeManager);
+    }
+
+    /**
+     * Searches for the best move, starting the iterative deepening at the given depth.
+     * Unlike search(Board, int, long), this does not clear a pending stop request or start a new search in the
+     * transposition table, so that ParallelSearch can do both once for all its threads.
+     *
+     * @param position The position to search. It is not modified.
+     * @param startDepth The depth of the first iteration.
+     * @param maxDepth The maximum depth to search, in plies.
+     * @param timeBudgetMillis The time the search may take, in milliseconds.
+     * @return The best move found, with the search statistics.
+     */
+    SearchResult search(Board position, int startDepth, int maxDepth, long timeBudgetMillis)
+    {
+        return search(position, startDepth, maxDepth, System.nanoTime() + timeBudgetMillis * 1000000L, null);
+    }
+
+    /**
+     * Runs the iterative deepening until the deadline, the maximum depth or, with a time manager, its soft limit.
+     */
+    private SearchResult search(Board position, int startDepth, int maxDepth, long deadline, TimeManager timeManager)
+    {
+        long start = System.nanoTime();
+        board.copyFrom(position);
+        nodes = 0;
+        quiescenceNodes = 0;
+        stopped = false;
+        this.deadline = deadline;
+        maxDepth = Math.min(maxDepth, MAX_PLY - 1);
+        ordering.newSearch();
+
+        MoveList rootMoves = moves[0];
+        if (MoveGenerator.generateMoves(board, rootMoves) == 0)
+        {
+            return new SearchResult(Move.NONE, -WIN_SCORE, 0, 0, 0, System.nanoTime() - start);
+        }
+        if (timeManager != null && timeManager.isForced())
+        {
+            return new SearchResult(rootMoves.get(0), 0, 0, 0, 0, System.nanoTime() - start);
+        }
+        int bookMove = openingBook == null ? Move.NONE : openingBook.probe(board, rootMoves);
+        if (bookMove != Move.NONE)
+        {
+            return new SearchResult(bookMove, 0, 0, 0, 0, System.nanoTime() - start);
+        }
+
+        int bestMove = rootMoves.get(0);
+        int bestScore = 0;
+        int completedDepth = 0;
+        for (int depth = Math.min(startDepth, maxDepth); depth <= maxDepth; depth++)
+        {
+            int iterationBest = searchRoot(depth, bestMove);
+            if (stopped)
+            {
+                break; // The unfinished iteration cannot be trusted, keep the previous one.
+            }
+            bestMove = iterationBest;
+            bestScore = rootScore;
+            completedDepth = depth;
+
+            if (Math.abs(bestScore) >= WIN_SCORE - MAX_PLY)
+            {
+                break; // A forced win or loss was found, searching deeper will not change it.
+            }
+            if (timeManager != null && depth < maxDepth && !timeManager.shouldStartIteration(bestMove))
+            {
+                break; // The next iteration would take longer than the move is worth.
+            }
+        }
+        return new SearchResult(bestMove, bestScore, completedDepth, nodes, quiescenceNodes, System.nanoTime() - start);
+    }
+
+    /**
+     * Sets the evaluation used to score positions, for example one with weights loaded from a file.
+     * The transposition table should be cleared afterwards, since its scores came from the old weights.
+     *
+     * @param evaluation The evaluation.
+     */
+    public void setEvaluation(Evaluation evaluation)
+    {
+        this.evaluation = evaluation;
+        board.setEvaluation(evaluation);
+    }
+
+    /**
+     * Turns move ordering on or off. Without ordering, the moves are searched in the order they are generated,
+     * which is only useful to measure how much the ordering saves.
+     *
+     * @param enabled true to order the moves (the default), false to search them in generation order.
+     */
+    public void setMoveOrdering(boolean enabled)
+    {
+        orderingEnabled = enabled;
+        ordering.clear();
+    }
+
+    /**
+     * Sets the endgame tablebase the search looks positions with few pieces up in, instead of searching them.
+     *
+     * @param tablebase The tablebase, or null to search every position.
+     */
+    public void setTablebase(EndgameTablebase tablebase)
+    {
+        this.tablebase = tablebase;
+    }
+
+    /**
+     * Sets the opening book. A position found in the book is answered with its book move at once,
+     * as a result of depth 0 with no nodes searched.
+     *
+     * @param openingBook The book, or null to search every position.
+     */
+    public void setOpeningBook(OpeningBook openingBook)
+    {
+        this.openingBook = openingBook;
+    }
+
+    /**
+     * Sets how many quiescence nodes may be searched below a single leaf of the main search.
+     * When the limit is reached, the remaining positions of the capture sequence are evaluated as they are.
+     *
+     * @param limit The number of nodes; 0 evaluates the leaves without a quiescence search.
+     */
+    public void setQuiescenceNodeLimit(int limit)
+    {
+        quiescenceNodeLimit = limit;
+    }
+
+    /**
+     * Stops the current search as soon as possible. May be called from any thread.
+     */
+    public void stop()
+    {
+        stopRequested = true;
+    }
+
+    /**
+     * Clears a stop request, before starting a search with search(Board, int, int, long).
+     */
+    void clearStop()
+    {
+        stopRequested = false;
+    }
+
+    /**
+     * Gets the move the transposition table holds for a position, such as the reply the last search expected.
+     *
+     * @param position The position.
+     * @return The move, or Move.NONE if the table has none. It may be illegal after a hash collision.
+     */
+    int getTableMove(Board position)
+    {
+        long entry = table.probe(position.getHash());
+        return entry == 0 ? Move.NONE : TranspositionTable.move(entry);
+    }
+
+    /**
+     * Searches all the root moves to the given depth, starting with the best move of the previous iteration.
+     *
+     * @return The best root move.
+     */
+    private int searchRoot(int depth, int previousBest)
+    {
+        MoveList rootMoves = moves[0];
+        moveToFront(rootMoves, previousBest);
+
+        int alpha = -WIN_SCORE - 1;
+        int bestMove = rootMoves.get(0);
+        boolean turn = board.getTurn();
+        for (int i = 0; i < rootMoves.size(); i++)
+        {
+            int move = rootMoves.get(i);
+            long undo = board.makeMove(move);
+            int score = board.getTurn() == turn
+                    ? negamax(depth - 1, 1, alpha, WIN_SCORE + 1) // The same player continues a multi-capture.
+                    : -negamax(depth - 1, 1, -WIN_SCORE - 1, -alpha);
+            board.unmakeMove(undo);
+            if (stopped)
+            {
+                break;
+            }
+            if (score > alpha)
+            {
+                alpha = score;
+                bestMove = move;
+            }
+        }
+        if (!stopped)
+        {
+            table.store(board.getHash(), bestMove, toTableScore(alpha, 0), depth, TranspositionTable.BOUND_EXACT);
+        }
+        rootScore = alpha;
+        return bestMove;
+    }
+
+    /**
+     * Searches the current position with alpha-beta pruning.
+     * When a move leaves the same player to move (a multi-capture), the child is searched without switching sides.
+     *
+     * @return The score of the position from the point of view of the side to move.
+     */
+    private int negamax(int depth, int ply, int alpha, int beta)
+    {
+        if ((++nodes & CHECK_INTERVAL) == 0 && (stopRequested || System.nanoTime() >= deadline))
+        {
+            stopped = true;
+        }
+        if (stopped)
+        {
+            return 0;
+        }
+
+        // Look for the result of an earlier search of this position. The table ignores the draw counter,
+        // so it is not consulted once the draw is close enough to matter.
+        long key = board.getHash();
+        int hashMove = Move.NONE;
+        boolean nearDraw = board.getMovesSinceCaptureOrKing() + depth >= DRAW_MOVES;
+        long entry = nearDraw ? 0 : table.probe(key);
+        if (entry != 0)
+        {
+            hashMove = TranspositionTable.move(entry);
+            if (TranspositionTable.depth(entry) >= depth)
+            {
+                int score = fromTableScore(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.BOUND_EXACT
+                        || (bound == TranspositionTable.BOUND_LOWER && score >= beta)
+                        || (bound == TranspositionTable.BOUND_UPPER && score <= alpha))
+                {
+                    return score;
+                }
+            }
+        }
+
+        MoveList list = moves[ply];
+        int moveCount = MoveGenerator.generateMoves(board, list);
+        if (moveCount == 0)
+        {
+            return -WIN_SCORE + ply; // The side to move cannot move and loses.
+        }
+        if (board.getMovesSinceCaptureOrKing() >= DRAW_MOVES)
+        {
+            return DRAW_SCORE;
+        }
+        if (tablebase != null)
+        {
+            int result = tablebase.probe(board);
+            if (result == EndgameTablebase.DRAW)
+            {
+                return DRAW_SCORE;
+            }
+            if (result != EndgameTablebase.UNKNOWN && EndgameTablebase.isWithinDrawLimit(result, board))
+            {
+                // Not a win in a known number of plies, so it is ranked below the wins the search proves itself
+                int score = TABLEBASE_WIN_SCORE - EndgameTablebase.getDistance(result);
+                return EndgameTablebase.isWin(result) ? score : -score;
+            }
+        }
+        if (depth <= 0 || ply >= MAX_PLY)
+        {
+            quiescenceStart = quiescenceNodes;
+            return searchCaptures(list, ply, alpha, beta);
+        }
+
+        if (orderingEnabled)
+        {
+            ordering.scoreMoves(board, list, hashMove, ply);
+        }
+
+        int originalAlpha = alpha;
+        int bestScore = -WIN_SCORE - 1;
+        int bestMove = Move.NONE;
+        boolean turn = board.getTurn();
+        for (int i = 0; i < moveCount; i++)
+        {
+            int move = orderingEnabled ? MoveOrdering.selectNext(list, i) : list.get(i);
+            long undo = board.makeMove(move);
+            int score = board.getTurn() == turn
+                    ? negamax(depth - 1, ply + 1, alpha, beta)
+                    : -negamax(depth - 1, ply + 1, -beta, -alpha);
+            board.unmakeMove(undo);
+            if (stopped)
+            {
+                return 0;
+            }
+            if (score > bestScore)
+            {
+                bestScore = score;
+                bestMove = move;
+                if (score > alpha)
+                {
+                    alpha = score;
+                    if (alpha >= beta)
+                    {
+                        if (orderingEnabled)
+                        {
+                            ordering.recordCutoff(board, move, ply, depth);
+                        }
+                        break; // The opponent will avoid this position.
+                    }
+                }
+            }
+        }
+
+        int bound = bestScore >= beta ? TranspositionTable.BOUND_LOWER
+                : bestScore > originalAlpha ? TranspositionTable.BOUND_EXACT : TranspositionTable.BOUND_UPPER;
+        if (!nearDraw)
+        {
+            table.store(key, bestMove, toTableScore(bestScore, ply), depth, bound);
+        }
+        return bestScore;
+    }
+
+    /**
+     * Searches only captures until the position is quiet, so that a leaf in the middle of a forced capture sequence
+     * is not evaluated with pieces still hanging.
+     * Captures are mandatory, so a side that can capture has no choice but to, and cannot simply keep the evaluation
+     * of the current position instead.
+     *
+     * @return The score of the position from the point of view of the side to move.
+     */
+    private int quiescence(int ply, int alpha, int beta)
+    {
+        quiescenceNodes++;
+        if ((++nodes & CHECK_INTERVAL) == 0 && (stopRequested || System.nanoTime() >= deadline))
+        {
+            stopped = true;
+        }
+        if (stopped)
+        {
+            return 0;
+        }
+
+        MoveList list = moves[ply];
+        if (MoveGenerator.generateMoves(board, list) == 0)
+        {
+            return -WIN_SCORE + ply; // The side to move cannot move and loses.
+        }
+        if (board.getMovesSinceCaptureOrKing() >= DRAW_MOVES)
+        {
+            return DRAW_SCORE;
+        }
+        return searchCaptures(list, ply, alpha, beta);
+    }
+
+    /**
+     * Searches the captures of a position, or evaluates the position if it has none.
+     * The captures come first in the list, but quiet moves may follow them: a king jumping over its own piece to
+     * capture does not make captures mandatory (see Board.kingsHaveMandatoryCapture()), and those are not searched.
+     *
+     * @param list The legal moves of the position.
+     * @return The score of the position from the point of view of the side to move.
+     */
+    private int searchCaptures(MoveList list, int ply, int alpha, int beta)
+    {
+        if (!Move.isCapture(list.get(0)) || ply >= MAX_PLY || quiescenceNodes - quiescenceStart >= quiescenceNodeLimit)
+        {
+            return evaluation.evaluate(board);
+        }
+
+        if (orderingEnabled)
+        {
+            ordering.scoreMoves(board, list, Move.NONE, ply);
+        }
+
+        int bestScore = -WIN_SCORE - 1;
+        boolean turn = board.getTurn();
+        for (int i = 0; i < list.size(); i++)
+        {
+            int move = orderingEnabled ? MoveOrdering.selectNext(list, i) : list.get(i);
+            if (!Move.isCapture(move))
+            {
+                break; // Captures are generated and ordered before quiet moves.
+            }
+            long undo = board.makeMove(move);
+            int score = board.getTurn() == turn
+                    ? quiescence(ply + 1, alpha, beta) // The same player continues a multi-capture.
+                    : -quiescence(ply + 1, -beta, -alpha);
+            board.unmakeMove(undo);
+            if (stopped)
+            {
+                return 0;
+            }
+            if (score > bestScore)
+            {
+                bestScore = score;
+                if (score > alpha)
+                {
+                    alpha = score;
+                    if (alpha >= beta)
+                    {
+                        break;
+                    }
+                }
+            }
+        }
+        return bestScore;
+    }
+
+    /**
+     * Converts a score to the form stored in the transposition table, where win scores count plies from the stored position
+     * rather than from the root, so they stay correct when the position is reached at another ply.
+     */
+    private static int toTableScore(int score, int ply)
+    {
+        if (score >= WIN_SCORE - MAX_PLY)
+        {
+            return score + ply;
+        }
+        if (score <= -WIN_SCORE + MAX_PLY)
+        {
+            return score - ply;
+        }
+        return score;
+    }
+
+    /**
+     * Converts a score read from the transposition table back to a score relative to the root.
+     */
+    private static int fromTableScore(int score, int ply)
+    {
+        if (score >= WIN_SCORE - MAX_PLY)
+        {
+            return score - ply;
+        }
+        if (score <= -WIN_SCORE + MAX_PLY)
+        {
+            return score + ply;
+        }
+        return score;
+    }
+
+    /**
+     * Moves the given move to the front of the list, keeping the order of the other moves.
+     */
+    private static void moveToFront(MoveList list, int move)
+    {
+        for (int i = 0; i < list.size(); i++)
+        {
+            if (list.get(i) == move)
+            {
+                for (int j = i; j > 0; j--)
+                {
+                    list.set(j, list.get(j - 1));
+                }
+                list.set(0, move);
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.checkersnadav;
+
+import java.util.Locale;
+
+/**
+ * The outcome of an engine search: the chosen move and statistics about how the search went.
+ */
+public class SearchResult
+{
+    private final int bestMove; // The chosen move (see Move), or Move.NONE if the side to move has no moves.
+    private final int score; // The score of the move from the point of view of the side to move.
+    private final int depth; // The deepest fully completed iteration.
+    private final long nodes; // The number of positions visited, including by the quiescence search.
+    private final long quiescenceNodes; // The number of positions visited by the quiescence search.
+    private final long elapsedNanos; // The wall-clock time the search took.
+
+    /**
+     * Constructs a search result.
+     *
+     * @param bestMove The chosen move, or Move.NONE if there is none.
+     * @param score The score of the move from the point of view of the side to move.
+     * @param depth The deepest fully completed iteration.
+     * @param nodes The number of positions visited, including by the quiescence search.
+     * @param quiescenceNodes The number of positions visited by the quiescence search.
+     * @param elapsedNanos The time the search took, in nanoseconds.
+     */
+    public SearchResult(int bestMove, int score, int depth, long nodes, long quiescenceNodes, long elapsedNanos)
+    {
+        this.bestMove = bestMove;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.quiescenceNodes = quiescenceNodes;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public int getBestMove()
+    {
+        return bestMove;
+    }
+
+    public int getScore()
+    {
+        return score;
+    }
+
+    public int getDepth()
+    {
+        return depth;
+    }
+
+    public long getNodes()
+    {
+        return nodes;
+    }
+
+    public long getQuiescenceNodes()
+    {
+        return quiescenceNodes;
+    }
+
+    public long getElapsedMillis()
+    {
+        return elapsedNanos / 1000000;
+    }
+
+    /**
+     * Gets the search speed.
+     *
+     * @return The number of positions visited per second.
+     */
+    public long getNodesPerSecond()
+    {
+        return elapsedNanos == 0 ? 0 : nodes * 1000000000L / elapsedNanos;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format(Locale.US, "%s score %d depth %d nodes %d (%d quiescence) time %d ms (%d nodes/s)",
+                bestMove == Move.NONE ? "none" : Move.toString(bestMove), score, depth, nodes, quiescenceNodes, getElapsedMillis(), getNodesPerSecond());
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.checkersnadav;
+
+/**
+ * Decides how long the engine thinks about each move of a timed game.
+ * Every move gets a soft limit, after which no new iteration of the iterative deepening is started, and a hard limit,
+ * at which the running iteration is abandoned. The soft limit is the remaining clock time shared over the moves
+ * still expected, and it shrinks while the best move stays the same from one iteration to the next and grows when it
+ * changes. A move that is forced (the only legal move, usually a mandatory capture) is played without thinking.
+ * The limits are kept as System.nanoTime() deadlines, so the search only has to compare the clock against a field.
+ */
+public class TimeManager
+{
+    private static final long MOVE_OVERHEAD_MILLIS = 50; // Kept back on every move for the animation and the UI thread.
+    private static final int EXPECTED_GAME_MOVES = 45; // The moves a game is planned to last, per player.
+    private static final int MIN_MOVES_TO_GO = 12; // Late in a long game, the time is still shared over this many moves.
+    private static final int MAX_SOFT_FACTOR = 4; // The hard limit is at most this many soft limits,
+    private static final int MAX_CLOCK_DIVISOR = 3; // and at most this share of the remaining time.
+    private static final double CHANGED_FACTOR = 1.3; // The soft limit scale right after the best move changed,
+    private static final double STABLE_STEP = 0.2; // which drops by this much for every iteration it stays the same,
+    private static final double MIN_STABLE_FACTOR = 0.5; // down to this.
+
+    private final MoveList moves = new MoveList();
+    private long start; // System.nanoTime() when the move's clock started.
+    private long softLimitNanos;
+    private long hardLimitNanos;
+    private boolean forced; // The position has a single legal move.
+    private int lastBestMove; // The best move of the previous iteration.
+    private int stableIterations; // The iterations in a row that ended with the same best move.
+
+    /**
+     * Starts the clock for the engine's next move and computes its time limits.
+     *
+     * @param position The position the engine is to move in.
+     * @param moveNumber The number of the engine's move in the game, starting at 1.
+     * @param remainingMillis The time left on the engine's clock.
+     * @param incrementMillis The time added to the engine's clock after every move, or 0.
+     */
+    public void startMove(Board position, int moveNumber, long remainingMillis, long incrementMillis)
+    {
+        start = System.nanoTime();
+        lastBestMove = Move.NONE;
+        stableIterations = 0;
+        forced = MoveGenerator.generateMoves(position, moves) == 1;
+        if (forced)
+        {
+            softLimitNanos = 0;
+            hardLimitNanos = 0;
+            return;
+        }
+
+        long available = Math.max(1, remainingMillis - MOVE_OVERHEAD_MILLIS);
+        int movesToGo = Math.max(MIN_MOVES_TO_GO, EXPECTED_GAME_MOVES - moveNumber);
+        long softMillis = Math.min(available, available / movesToGo + incrementMillis * 3 / 4);
+        long hardMillis = Math.max(softMillis, Math.min(softMillis * MAX_SOFT_FACTOR, available / MAX_CLOCK_DIVISOR));
+        softLimitNanos = Math.max(1, softMillis) * 1000000L;
+        hardLimitNanos = Math.max(1, hardMillis) * 1000000L;
+    }
+
+    /**
+     * Records the best move of a completed iteration and decides if the next iteration may start.
+     *
+     * @param bestMove The best move of the iteration.
+     * @return true if there is time for another iteration.
+     */
+    public boolean shouldStartIteration(int bestMove)
+    {
+        return shouldStartIteration(bestMove, System.nanoTime() - start);
+    }
+
+    /**
+     * Decides if the next iteration may start, given the time used so far.
+     */
+    boolean shouldStartIteration(int bestMove, long elapsedNanos)
+    {
+        if (bestMove == lastBestMove)
+        {
+            stableIterations++;
+        }
+        else
+        {
+            stableIterations = 0;
+            lastBestMove = bestMove;
+        }
+        double factor = Math.max(MIN_STABLE_FACTOR, CHANGED_FACTOR - STABLE_STEP * stableIterations);
+        return elapsedNanos < Math.min(hardLimitNanos, (long) (softLimitNanos * factor));
+    }
+
+    /**
+     * @return true if the position has a single legal move, which needs no thinking.
+     */
+    public boolean isForced()
+    {
+        return forced;
+    }
+
+    /**
+     * @return The System.nanoTime() at which the search must stop, even in the middle of an iteration.
+     */
+    public long getHardDeadline()
+    {
+        return start + hardLimitNanos;
+    }
+
+    /**
+     * @return The time planned for the move when the best move does not change, in milliseconds.
+     */
+    public long getSoftLimitMillis()
+    {
+        return softLimitNanos / 1000000;
+    }
+
+    /**
+     * @return The most time the move may take, in milliseconds.
+     */
+    public long getHardLimitMillis()
+    {
+        return hardLimitNanos / 1000000;
+    }
+}
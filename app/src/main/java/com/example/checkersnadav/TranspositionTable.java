@@ -0,0 +1,167 @@
+package com.example.checkersnadav;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size table of search results keyed by position hash (see Board.getHash()).
+ * Every entry is packed into a primitive long inside one preallocated array, so the table never creates garbage.
+ * The table is shared by several search threads without locks: each slot stores the entry together with
+ * the entry XOR-ed with its key, and a probe only accepts a slot whose two halves match the key.
+ * A slot torn by two threads writing at once therefore reads as a miss instead of a wrong result.
+ * Entries live in buckets of two; a new entry replaces the entry of the same position, otherwise the one
+ * left over from an older search, otherwise the shallower one.
+ */
+public class TranspositionTable
+{
+    public static final int BOUND_EXACT = 1; // The score is exact.
+    public static final int BOUND_LOWER = 2; // The search failed high, the real score is at least the stored score.
+    public static final int BOUND_UPPER = 3; // The search failed low, the real score is at most the stored score.
+
+    private static final int BUCKET_SIZE = 2; // Entries per bucket.
+    private static final int LONGS_PER_ENTRY = 2; // The checksum (key XOR data) and the data.
+
+    // Layout of an entry: bits 0-16 move, bits 17-32 score, bits 33-40 depth, bits 41-42 bound, bits 43-48 age.
+    private static final int SCORE_SHIFT = 17;
+    private static final int DEPTH_SHIFT = 33;
+    private static final int BOUND_SHIFT = 41;
+    private static final int AGE_SHIFT = 43;
+    private static final long MOVE_MASK = 0x1FFFF;
+    private static final int AGE_MASK = 0x3F;
+
+    private final long[] table; // The buckets, one after the other.
+    private final long bucketMask; // Number of buckets - 1; the number of buckets is a power of two.
+    private int age; // Incremented at every new search, so entries from earlier searches are replaced first.
+
+    /**
+     * Constructs a transposition table. The whole table is allocated up front.
+     *
+     * @param sizeMb The size of the table in megabytes; the actual size is rounded down to a power of two.
+     */
+    public TranspositionTable(int sizeMb)
+    {
+        long bytesPerBucket = BUCKET_SIZE * LONGS_PER_ENTRY * 8L;
+        long buckets = Long.highestOneBit(Math.max(1, sizeMb * 1024L * 1024L / bytesPerBucket));
+        table = new long[(int) (buckets * BUCKET_SIZE * LONGS_PER_ENTRY)];
+        bucketMask = buckets - 1;
+    }
+
+    /**
+     * Looks up a position.
+     *
+     * @param key The hash of the position.
+     * @return The packed entry, or 0 if the position is not in the table.
+     */
+    public long probe(long key)
+    {
+        int index = bucketIndex(key);
+        for (int i = 0; i < BUCKET_SIZE; i++, index += LONGS_PER_ENTRY)
+        {
+            long data = table[index + 1];
+            if ((table[index] ^ data) == key && data != 0)
+            {
+                return data;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Stores the result of searching a position.
+     *
+     * @param key The hash of the position.
+     * @param move The best move found, or Move.NONE.
+     * @param score The score, adjusted by the caller so that win scores do not depend on the ply.
+     * @param depth The depth the position was searched to.
+     * @param bound BOUND_EXACT, BOUND_LOWER or BOUND_UPPER.
+     */
+    public void store(long key, int move, int score, int depth, int bound)
+    {
+        int index = bucketIndex(key);
+        int victim = index;
+        int victimPriority = Integer.MAX_VALUE;
+        for (int i = 0; i < BUCKET_SIZE; i++, index += LONGS_PER_ENTRY)
+        {
+            long data = table[index + 1];
+            if ((table[index] ^ data) == key)
+            {
+                // Same position: keep the old best move if the new search did not find one
+                if (move == Move.NONE)
+                {
+                    move = move(data);
+                }
+                victim = index;
+                break;
+            }
+
+            // Prefer replacing empty slots, then entries from older searches, then shallower entries
+            int priority = data == 0 ? Integer.MIN_VALUE : (age(data) == age ? 256 : 0) + depth(data);
+            if (priority < victimPriority)
+            {
+                victimPriority = priority;
+                victim = index;
+            }
+        }
+
+        long data = (move & MOVE_MASK)
+                | ((long) (score & 0xFFFF) << SCORE_SHIFT)
+                | ((long) (depth & 0xFF) << DEPTH_SHIFT)
+                | ((long) bound << BOUND_SHIFT)
+                | ((long) age << AGE_SHIFT);
+        table[victim] = key ^ data;
+        table[victim + 1] = data;
+    }
+
+    /**
+     * Marks the start of a new search, so that entries from earlier searches are replaced first.
+     */
+    public void newSearch()
+    {
+        age = (age + 1) & AGE_MASK;
+    }
+
+    /**
+     * Removes all the entries.
+     */
+    public void clear()
+    {
+        Arrays.fill(table, 0);
+    }
+
+    /**
+     * @return The number of entries the table can hold.
+     */
+    public int capacity()
+    {
+        return table.length / LONGS_PER_ENTRY;
+    }
+
+    private int bucketIndex(long key)
+    {
+        return (int) ((key >>> 16) & bucketMask) * BUCKET_SIZE * LONGS_PER_ENTRY;
+    }
+
+    public static int move(long entry)
+    {
+        return (int) (entry & MOVE_MASK);
+    }
+
+    public static int score(long entry)
+    {
+        return (short) (entry >>> SCORE_SHIFT);
+    }
+
+    public static int depth(long entry)
+    {
+        return (int) ((entry >>> DEPTH_SHIFT) & 0xFF);
+    }
+
+    public static int bound(long entry)
+    {
+        return (int) ((entry >>> BOUND_SHIFT) & 3);
+    }
+
+    private static int age(long entry)
+    {
+        return (int) ((entry >>> AGE_SHIFT) & AGE_MASK);
+    }
+}
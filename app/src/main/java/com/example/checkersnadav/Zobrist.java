@@ -0,0 +1,80 @@
+package com.example.checkersnadav;
+
+/**
+ * Random keys for Zobrist hashing of board positions.
+ * A position's hash is the XOR of the keys of every piece on its square, the side-to-move key when it is Black's turn,
+ * and the key of the pending multi-capture square, if any.
+ * The keys come from a fixed seed, so the same position hashes the same on every device and in every stored file.
+ */
+public final class Zobrist
+{
+    private static final long SEED = 0x436865636B657273L; // "Checkers"
+
+    private static final long[] PIECES = new long[4 * Bitboard.SQUARES]; // Keys per piece type (see pieceIndex()) and square.
+    private static final long[] CONTINUATIONS = new long[Bitboard.SQUARES]; // Keys for the square of a pending multi-capture.
+    public static final long BLACK_TO_MOVE;
+
+    static
+    {
+        long state = SEED;
+        for (int i = 0; i < PIECES.length; i++)
+        {
+            state += 0x9E3779B97F4A7C15L;
+            PIECES[i] = mix(state);
+        }
+        for (int i = 0; i < CONTINUATIONS.length; i++)
+        {
+            state += 0x9E3779B97F4A7C15L;
+            CONTINUATIONS[i] = mix(state);
+        }
+        state += 0x9E3779B97F4A7C15L;
+        BLACK_TO_MOVE = mix(state);
+    }
+
+    private Zobrist()
+    {
+        // Static keys only.
+    }
+
+    /**
+     * Gets the key of a piece on a square.
+     *
+     * @param black true for a black piece, false for a white piece.
+     * @param king true if the piece is a king.
+     * @param square The square of the piece.
+     * @return The key.
+     */
+    public static long piece(boolean black, boolean king, int square)
+    {
+        return PIECES[pieceIndex(black, king) * Bitboard.SQUARES + square];
+    }
+
+    /**
+     * Gets the key of a pending multi-capture by the piece on the given square.
+     *
+     * @param square The square of the capturing piece.
+     * @return The key.
+     */
+    public static long continuation(int square)
+    {
+        return CONTINUATIONS[square];
+    }
+
+    /**
+     * Maps a piece to an index: white man, white king, black man, black king.
+     */
+    private static int pieceIndex(boolean black, boolean king)
+    {
+        return (black ? 2 : 0) + (king ? 1 : 0);
+    }
+
+    /**
+     * The SplitMix64 finalizer, which turns a counter into well distributed random bits.
+     */
+    private static long mix(long z)
+    {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
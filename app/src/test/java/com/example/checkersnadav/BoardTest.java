@@ -0,0 +1,141 @@
+package com.example.checkersnadav;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import org.junit.Test;
+
+/**
+ * Tests of Board behavior that perft counts alone do not cover.
+ */
+public class BoardTest
+{
+    private static final String[] POSITIONS = {
+            Perft.START_POSITION,
+            "..../..../.p../.P../..../.P../..../K... w",
+            "..../..P./..../..../..../p.../PP../.... w",
+            "p.../..../..../..../p.../.P../..../K... w 4,1",
+            "pppp/.p.p/...p/PpP./P..p/.P../...P/Pk.P b 3,2",
+            "K.../k.../..../p.../..../PK.p/..../.... b 5,6"
+    };
+
+    @Test
+    public void unmakeMoveRestoresThePosition()
+    {
+        for (String fen : POSITIONS)
+        {
+            Board board = Board.fromFen(fen);
+            board.setMovesSinceCaptureOrKing(17);
+            checkMakeUnmake(board, 4);
+        }
+    }
+
+    @Test
+    public void makeMoveMatchesMove()
+    {
+        for (String fen : POSITIONS)
+        {
+            Board board = Board.fromFen(fen);
+            MoveList moves = new MoveList();
+            MoveGenerator.generateMoves(board, moves);
+            for (int i = 0; i < moves.size(); i++)
+            {
+                int move = moves.get(i);
+                Board expected = new Board(board);
+                expected.move(Bitboard.toX(Move.from(move)), Bitboard.toY(Move.from(move)), Bitboard.toX(Move.to(move)), Bitboard.toY(Move.to(move)));
+                Board actual = new Board(board);
+                actual.makeMove(move);
+                assertEquals(describe(expected), describe(actual));
+            }
+        }
+    }
+
+    @Test
+    public void hashIsUpdatedIncrementally()
+    {
+        for (String fen : POSITIONS)
+        {
+            checkHash(Board.fromFen(fen), 4);
+        }
+    }
+
+    @Test
+    public void hashDependsOnTurnAndPendingCapture()
+    {
+        Board pending = Board.fromFen("p.../..../..../..../p.../.P../..../K... w 4,1");
+        Board free = Board.fromFen("p.../..../..../..../p.../.P../..../K... w");
+        Board blackToMove = Board.fromFen("p.../..../..../..../p.../.P../..../K... b");
+        assertNotEquals(pending.getHash(), free.getHash());
+        assertNotEquals(free.getHash(), blackToMove.getHash());
+
+        // The setters used by online play keep the hash in sync as well
+        free.setLastMoveX(4);
+        free.setLastMoveY(1);
+        assertEquals(pending.getHash(), free.getHash());
+        free.setPieceInPosition(null, 4 * Board.BOARD_SIZE + 1);
+        free.setTurn(Board.BLACK);
+        assertEquals(free.computeHash(), free.getHash());
+    }
+
+    /**
+     * Plays every move down to the given depth, checking the incremental hash against a full computation.
+     */
+    private static void checkHash(Board board, int depth)
+    {
+        assertEquals(board.computeHash(), board.getHash());
+        if (depth == 0)
+        {
+            return;
+        }
+
+        long before = board.getHash();
+        MoveList moves = new MoveList();
+        MoveGenerator.generateMoves(board, moves);
+        for (int i = 0; i < moves.size(); i++)
+        {
+            long undo = board.makeMove(moves.get(i));
+            checkHash(board, depth - 1);
+            board.unmakeMove(undo);
+            assertEquals(before, board.getHash());
+        }
+    }
+
+    /**
+     * Makes and takes back every move down to the given depth, checking that each position is restored exactly.
+     */
+    private static void checkMakeUnmake(Board board, int depth)
+    {
+        if (depth == 0)
+        {
+            return;
+        }
+
+        String before = describe(board);
+        MoveList moves = new MoveList();
+        MoveGenerator.generateMoves(board, moves);
+        for (int i = 0; i < moves.size(); i++)
+        {
+            long undo = board.makeMove(moves.get(i));
+            checkMakeUnmake(board, depth - 1);
+            board.unmakeMove(undo);
+            assertEquals(before, describe(board));
+        }
+    }
+
+    /**
+     * Describes the full game state of a board, including the board view.
+     */
+    private static String describe(Board board)
+    {
+        StringBuilder sb = new StringBuilder(board.toFen());
+        sb.append(' ').append(board.getMovesSinceCaptureOrKing()).append(' ');
+        for (Piece[] row : board.getState())
+        {
+            for (Piece piece : row)
+            {
+                sb.append(piece == null ? '.' : piece.isBlack() ? (piece.isKing() ? 'K' : 'P') : (piece.isKing() ? 'k' : 'p'));
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.checkersnadav;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Tests of the endgame tablebase, generated for up to 3 pieces.
+ */
+public class EndgameTablebaseTest
+{
+    private static File directory;
+    private static EndgameTablebase tablebase;
+
+    @BeforeClass
+    public static void generateTables() throws IOException
+    {
+        directory = Files.createTempDirectory("tablebase").toFile();
+        EndgameTablebaseGenerator.generate(3, directory, null);
+        tablebase = EndgameTablebase.open(directory);
+    }
+
+    @AfterClass
+    public static void deleteTables()
+    {
+        for (File file : directory.listFiles())
+        {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void indexesArePackedWithoutGaps()
+    {
+        // Every placement of a man and a king against a king has its own index below the table size
+        long size = EndgameTablebase.size(1, 1, 0, 1);
+        boolean[] seen = new boolean[(int) size];
+        for (int man = 0; man < Bitboard.SQUARES; man++)
+        {
+            for (int king = 0; king < Bitboard.SQUARES; king++)
+            {
+                for (int opponent = 0; opponent < Bitboard.SQUARES; opponent++)
+                {
+                    if (man != king && man != opponent && king != opponent)
+                    {
+                        int index = (int) EndgameTablebase.index(1 << man, 1 << king, 0, 1 << opponent, Board.BLACK);
+                        assertTrue(!seen[index]);
+                        seen[index] = true;
+                    }
+                }
+            }
+        }
+        assertEquals(size / 2, Bitboard.SQUARES * (Bitboard.SQUARES - 1) * (Bitboard.SQUARES - 2));
+    }
+
+    @Test
+    public void everyTableFitsOneMapping()
+    {
+        // Even the largest table, one man and one king against two of each (326 million positions), has int offsets into its file
+        for (int pieces = 2; pieces <= EndgameTablebase.MAX_PIECES; pieces++)
+        {
+            for (int whiteMen = 0; whiteMen <= pieces; whiteMen++)
+            {
+                for (int whiteKings = 0; whiteMen + whiteKings <= pieces; whiteKings++)
+                {
+                    for (int blackMen = 0; whiteMen + whiteKings + blackMen <= pieces; blackMen++)
+                    {
+                        int blackKings = pieces - whiteMen - whiteKings - blackMen;
+                        assertTrue(EndgameTablebase.size(whiteMen, whiteKings, blackMen, blackKings) <= EndgameTablebase.MAX_SIZE);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tablesLargerThanTheLimitAreRefused() throws IOException
+    {
+        EndgameTablebaseGenerator.generate(EndgameTablebase.MAX_PIECES + 1, directory, null);
+    }
+
+    @Test
+    public void blockedSideIsLostOnTheSpot()
+    {
+        Board board = Board.fromFen("k.../P.../..../..../..../..../..../.... b");
+        int result = tablebase.probe(board);
+        assertTrue(EndgameTablebase.isLoss(result));
+        assertEquals(0, EndgameTablebase.getDistance(result));
+    }
+
+    @Test
+    public void positionsWithMorePiecesAreUnknown()
+    {
+        assertEquals(3, tablebase.getMaxPieces());
+        assertEquals(EndgameTablebase.UNKNOWN, tablebase.probe(new Board()));
+        assertEquals(EndgameTablebase.UNKNOWN, tablebase.probe(Board.fromFen("p.../..../..../..../p.../.P../..../K... w 4,1")));
+    }
+
+    @Test
+    public void shortWinsAndLossesAgreeWithTheSearch()
+    {
+        Random random = new Random(7);
+        Board board = new Board();
+        int checked = 0;
+        while (checked < 100)
+        {
+            // A random position with a piece of each color and a third piece of either color
+            int white = 0;
+            int black = 0;
+            int kings = 0;
+            for (int i = 0; i < 3; i++)
+            {
+                int square = random.nextInt(Bitboard.SQUARES);
+                if (((white | black) & (1 << square)) != 0)
+                {
+                    continue;
+                }
+                if (i == 0 || (i == 2 && random.nextBoolean()))
+                {
+                    white |= 1 << square;
+                }
+                else
+                {
+                    black |= 1 << square;
+                }
+                if (random.nextBoolean())
+                {
+                    kings |= 1 << square;
+                }
+            }
+            if (white == 0 || black == 0 || (white & ~kings & Bitboard.WHITE_PROMOTION_ROW) != 0 || (black & ~kings & Bitboard.BLACK_PROMOTION_ROW) != 0)
+            {
+                continue;
+            }
+            board.setPosition(white, black, kings, random.nextBoolean());
+            int result = tablebase.probe(board);
+            if (result == EndgameTablebase.DRAW || EndgameTablebase.getDistance(result) > 4)
+            {
+                continue;
+            }
+
+            SearchEngine engine = new SearchEngine();
+            int score = engine.search(board, 24, 5000).getScore();
+            assertEquals(board.toFen(), EndgameTablebase.isWin(result), score >= SearchEngine.WIN_SCORE - SearchEngine.MAX_PLY);
+            assertEquals(board.toFen(), EndgameTablebase.isLoss(result), score <= -SearchEngine.WIN_SCORE + SearchEngine.MAX_PLY);
+            checked++;
+        }
+    }
+
+    @Test
+    public void searchScoresTablebaseWins()
+    {
+        // A white king against a lone black man is won in 7 turns, further than the search can see at depth 2
+        Board board = Board.fromFen("..../..../..../..../..../..k./..../.P.. w");
+        int result = tablebase.probe(board);
+        assertTrue(EndgameTablebase.isWin(result));
+        assertEquals(7, EndgameTablebase.getDistance(result));
+
+        SearchEngine engine = new SearchEngine();
+        engine.setTablebase(tablebase);
+        assertEquals(SearchEngine.TABLEBASE_WIN_SCORE - 6, engine.search(board, 2, 1000).getScore());
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.checkersnadav;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+/**
+ * Tests of the static evaluation and the board's incremental positional score.
+ */
+public class EvaluationTest
+{
+    private static final String[] POSITIONS = {
+            Perft.START_POSITION,
+            "..../.p.p/p.../...P/.k../P.P./..K./.... w",
+            "p.../..../..../..../p.../.P../..../K... w 4,1"
+    };
+
+    @Test
+    public void positionalScoreIsUpdatedIncrementally()
+    {
+        for (String fen : POSITIONS)
+        {
+            checkPositionalScore(Board.fromFen(fen), 4);
+        }
+    }
+
+    @Test
+    public void symmetricPositionIsWorthTheTempo()
+    {
+        Evaluation evaluation = Evaluation.getDefault();
+        Board board = new Board();
+        int tempo = evaluation.evaluate(board);
+        board.setTurn(Board.BLACK);
+        assertEquals(tempo, evaluation.evaluate(board));
+        assertEquals(0, board.getPositionalScore());
+    }
+
+    @Test
+    public void kingsAreWorthMoreThanMen()
+    {
+        Evaluation evaluation = Evaluation.getDefault();
+        Board withKing = Board.fromFen("..../..../.k../..../..../..P./..../.... w");
+        Board withMan = Board.fromFen("..../..../.p../..../..../..P./..../.... w");
+        assertTrue(evaluation.evaluate(withKing) > evaluation.evaluate(withMan));
+    }
+
+    @Test
+    public void weightsCanBeLoadedAndSaved() throws IOException
+    {
+        String config = "man = 90\nking=250\nadvancement=0,1,2,3,4,5,6,7\n";
+        Evaluation loaded = Evaluation.load(new ByteArrayInputStream(config.getBytes(StandardCharsets.UTF_8)));
+        assertEquals(90, loaded.getManValue());
+        assertEquals(250, loaded.getKingValue());
+
+        ByteArrayOutputStream saved = new ByteArrayOutputStream();
+        loaded.save(saved);
+        Evaluation reloaded = Evaluation.load(new ByteArrayInputStream(saved.toByteArray()));
+        boolean differsFromDefault = false;
+        for (int pieceIndex = 0; pieceIndex < 4; pieceIndex++)
+        {
+            for (int square = 0; square < Bitboard.SQUARES; square++)
+            {
+                assertEquals(loaded.pieceValue(pieceIndex, square), reloaded.pieceValue(pieceIndex, square));
+                differsFromDefault |= loaded.pieceValue(pieceIndex, square) != Evaluation.getDefault().pieceValue(pieceIndex, square);
+            }
+        }
+        assertTrue(differsFromDefault); // Otherwise the tables would match without being saved.
+
+        // The positional score of a board is built from the weights it was given, not the default ones
+        String fen = "..../.p.p/p.../...P/.k../P.P./..K./.... w";
+        Board board = Board.fromFen(fen);
+        Board reloadedBoard = Board.fromFen(fen);
+        board.setEvaluation(loaded);
+        reloadedBoard.setEvaluation(reloaded);
+        assertEquals(loaded.evaluate(board), reloaded.evaluate(reloadedBoard));
+        assertTrue(loaded.evaluate(board) != Evaluation.getDefault().evaluate(Board.fromFen(fen)));
+
+        assertEquals(board.computePositionalScore(), board.getPositionalScore());
+        Board copy = new Board();
+        copy.copyFrom(board);
+        assertEquals(copy.computePositionalScore(), copy.getPositionalScore());
+    }
+
+    /**
+     * Plays every move down to the given depth, checking the incremental score against a full computation.
+     */
+    private static void checkPositionalScore(Board board, int depth)
+    {
+        assertEquals(board.computePositionalScore(), board.getPositionalScore());
+        if (depth == 0)
+        {
+            return;
+        }
+
+        int before = board.getPositionalScore();
+        MoveList moves = new MoveList();
+        MoveGenerator.generateMoves(board, moves);
+        for (int i = 0; i < moves.size(); i++)
+        {
+            long undo = board.makeMove(moves.get(i));
+            checkPositionalScore(board, depth - 1);
+            board.unmakeMove(undo);
+            assertEquals(before, board.getPositionalScore());
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.checkersnadav;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of sharing one subscription to a game between several listeners.
+ */
+public class GameStateStreamTest
+{
+    private static final String GAME_ID = "game";
+
+    private LoopbackTransport transport;
+    private GameThread thread; // Runs the checks where the transport calls the games.
+    private OnlineGame white;
+
+    @Before
+    public void setUp()
+    {
+        transport = new LoopbackTransport(1, 0, 0, 0);
+        thread = new GameThread(transport, GAME_ID);
+        white = new OnlineGame(GAME_ID, Game.WHITE_STRING, "white", "black", transport);
+    }
+
+    @After
+    public void tearDown()
+    {
+        transport.shutdown();
+    }
+
+    @Test
+    public void everySubscriberGetsTheSameState() throws Exception
+    {
+        List<GameState> first = new ArrayList<>();
+        List<GameState> second = new ArrayList<>();
+        thread.call(() -> white.getStateStream().subscribeToState(first::add));
+        thread.call(() -> white.getStateStream().subscribeToState(second::add));
+        thread.await(() -> !first.isEmpty() && !second.isEmpty());
+        long callbacks = transport.getCallbacks();
+
+        assertTrue(thread.call(() -> white.makeMove(2, 1, 3, 2)));
+        thread.await(() -> first.size() == 2 && second.size() == 2);
+
+        assertSame(first.get(1), second.get(1)); // Decoded once and shared.
+        assertEquals(1, first.get(1).getPly());
+        assertEquals(Game.BLACK_STRING, first.get(1).getCurrentTurn());
+        assertEquals(callbacks + 2, transport.getCallbacks()); // The move and the state, once for all the listeners.
+    }
+
+    @Test
+    public void aLateSubscriberIsToldTheLastState() throws Exception
+    {
+        thread.await(() -> white.getStateStream().getLastState() != null);
+        List<GameState> states = new ArrayList<>();
+        thread.call(() -> white.getStateStream().subscribeToState(states::add));
+
+        assertEquals(1, states.size());
+        assertEquals(0, states.get(0).getPly());
+    }
+
+    @Test
+    public void nothingIsCalledAfterClosing() throws Exception
+    {
+        List<GameState> states = new ArrayList<>();
+        thread.call(() -> white.getStateStream().subscribeToState(states::add));
+        thread.await(() -> !states.isEmpty());
+        thread.call(() ->
+        {
+            white.close();
+            return null;
+        });
+
+        OnlineGame black = new OnlineGame(GAME_ID, Game.BLACK_STRING, "white", "black", transport);
+        thread.call(() ->
+        {
+            black.forfeitGame(Game.BLACK_STRING);
+            return null;
+        });
+        thread.await(() -> transport.getStatistics("black") != null);
+        Thread.sleep(20);
+
+        assertEquals(1, thread.call(states::size).intValue());
+        assertTrue(thread.call(white::isActive)); // The white game no longer listens either.
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.checkersnadav;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Runs test code on the event thread of a game on a LoopbackTransport, where the transport calls the games,
+ * so that the test reads the games the way their listeners do.
+ */
+final class GameThread
+{
+    private final LoopbackTransport transport;
+    private final String gameId;
+
+    /**
+     * Constructs a helper for a game.
+     *
+     * @param transport The transport that carries the game.
+     * @param gameId The game.
+     */
+    GameThread(LoopbackTransport transport, String gameId)
+    {
+        this.transport = transport;
+        this.gameId = gameId;
+    }
+
+    /**
+     * Runs a task on the game's event thread and waits for its result.
+     *
+     * @param task The task.
+     * @return The result of the task.
+     * @throws Exception if the task threw.
+     */
+    <T> T call(Callable<T> task) throws Exception
+    {
+        FutureTask<T> future = new FutureTask<>(task);
+        transport.execute(gameId, future);
+        return future.get();
+    }
+
+    /**
+     * Waits until a condition, checked on the game's event thread, is true, for five seconds at most.
+     *
+     * @param condition The condition.
+     * @throws Exception if checking the condition threw.
+     */
+    void await(Callable<Boolean> condition) throws Exception
+    {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!call(condition))
+        {
+            assertTrue("Timed out", System.currentTimeMillis() < deadline);
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.checkersnadav;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Tests of the multi-location updates written by online games.
+ */
+public class GameUpdatesTest
+{
+    @Test
+    public void aMoveIsWrittenWithItsState()
+    {
+        Board board = new Board();
+        MoveSync sync = new MoveSync(board);
+        board.move(2, 1, 3, 2);
+        MoveRecord record = sync.recordMove(2, 1, 3, 2);
+
+        Map<String, Object> update = GameUpdates.move(record, null, GameState.of(board, 1, true));
+        assertEquals(record.getHash(), update.get("moves/1/hash"));
+        assertEquals(1, update.get("state/ply"));
+        assertEquals(Game.BLACK_STRING, update.get("state/currentTurn"));
+        assertEquals(true, update.get("state/isActive"));
+        assertFalse(update.containsKey("snapshot/position"));
+
+        update = GameUpdates.move(record, PositionCodec.encodeToString(board), GameState.of(board, 1, true));
+        assertEquals(PositionCodec.encodeToString(board), update.get("snapshot/position"));
+        assertEquals(1, update.get("snapshot/ply"));
+    }
+
+    @Test
+    public void aResyncClearsTheRequest()
+    {
+        Map<String, Object> update = GameUpdates.resync(PositionCodec.encodeToString(new Board()), 0);
+        assertTrue(update.containsKey(GameUpdates.RESYNC));
+        assertEquals(null, update.get(GameUpdates.RESYNC));
+    }
+
+    @Test
+    public void staleAndRepeatedStatesAreIgnored()
+    {
+        MoveSync sync = new MoveSync(new Board());
+        assertTrue(sync.acceptState(0, true));
+        assertTrue(sync.acceptState(2, true));
+        assertFalse(sync.acceptState(2, true)); // The same state again.
+        assertFalse(sync.acceptState(1, true)); // An older one, arriving late.
+        assertTrue(sync.acceptState(2, false)); // A forfeit, without a move.
+        assertFalse(sync.acceptState(3, true)); // Nothing comes after the end.
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.checkersnadav;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Tests of online games played through the in-memory transport.
+ */
+public class LoopbackTransportTest
+{
+    private static final String GAME_ID = "game";
+
+    private LoopbackTransport transport;
+    private GameThread thread; // Runs the checks where the transport calls the games.
+    private OnlineGame white;
+    private OnlineGame black;
+
+    @After
+    public void tearDown()
+    {
+        transport.shutdown();
+    }
+
+    @Test
+    public void movesReachTheOtherPlayer() throws Exception
+    {
+        start(1, 0.5);
+        assertTrue(thread.call(() -> white.makeMove(2, 1, 3, 2)));
+        thread.await(() -> black.getBoard().getTurn() && !white.hasPendingMoves());
+        assertTrue(thread.call(() -> black.makeMove(5, 0, 4, 1)));
+        thread.await(() -> !white.getBoard().getTurn() && !black.hasPendingMoves());
+
+        assertEquals(thread.call(() -> white.getBoard().toFen()), thread.call(() -> black.getBoard().toFen()));
+        assertFalse(thread.call(() -> black.makeMove(3, 2, 4, 3))); // Not black's piece.
+    }
+
+    @Test
+    public void aForfeitEndsTheGameForBoth() throws Exception
+    {
+        start(0, 0);
+        thread.call(() ->
+        {
+            black.forfeitGame(Game.BLACK_STRING);
+            return null;
+        });
+        thread.await(() -> !white.isActive() && transport.getStatistics("white") != null);
+
+        assertEquals(1, transport.getStatistics("white").getWins());
+        assertEquals(1, transport.getStatistics("black").getLosses());
+    }
+
+    @Test
+    public void refusedMovesAreTakenBack() throws Exception
+    {
+        transport = new LoopbackTransport(1, 0, 0, 1); // Every move is lost.
+        thread = new GameThread(transport, GAME_ID);
+        white = new OnlineGame(GAME_ID, Game.WHITE_STRING, "white", "black", transport);
+        String start = thread.call(() -> white.getBoard().toFen());
+
+        assertTrue(thread.call(() -> white.makeMove(2, 1, 3, 2)));
+        thread.await(() -> !white.hasPendingMoves());
+        assertEquals(start, thread.call(() -> white.getBoard().toFen()));
+    }
+
+    @Test
+    public void onlyTheNextPlyCanBeWritten() throws Exception
+    {
+        start(0, 0);
+        assertTrue(thread.call(() -> white.makeMove(2, 1, 3, 2)));
+        thread.await(() -> !white.hasPendingMoves());
+
+        // Like the database rules, a taken ply or a gap in the log is refused
+        assertEquals("The move does not follow ply 1", publish(1));
+        assertEquals("The move does not follow ply 1", publish(3));
+        assertEquals(null, publish(2));
+    }
+
+    /**
+     * Writes a move record at a ply straight to the transport and waits for the outcome.
+     */
+    private String publish(int ply) throws Exception
+    {
+        AtomicReference<String> error = new AtomicReference<>("pending");
+        GameState state = new GameState(ply, Game.WHITE_STRING, true, null);
+        transport.publishMove(GAME_ID, new MoveRecord(0, 4, ply, 0), null, state, error::set);
+        thread.await(() -> !"pending".equals(error.get()));
+        return error.get();
+    }
+
+    private void start(double latencyMillis, double jitterMillis)
+    {
+        transport = new LoopbackTransport(2, latencyMillis, jitterMillis, 0);
+        thread = new GameThread(transport, GAME_ID);
+        white = new OnlineGame(GAME_ID, Game.WHITE_STRING, "white", "black", transport);
+        black = new OnlineGame(GAME_ID, Game.BLACK_STRING, "white", "black", transport);
+    }
+}
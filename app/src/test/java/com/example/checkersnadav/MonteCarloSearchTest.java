@@ -0,0 +1,83 @@
+package com.example.checkersnadav;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests of the Monte Carlo tree search.
+ */
+public class MonteCarloSearchTest
+{
+    @Test
+    public void findsTheMoveThatBlocksTheLastPiece()
+    {
+        // The white king wins at once by taking the only square the black man could move to
+        Board board = Board.fromFen("..../Pk../..../..../..../..../..p./.... w");
+        MonteCarloSearch search = new MonteCarloSearch(2, 1 << 16);
+        try
+        {
+            MonteCarloResult result = search.search(board, 20000, 10000);
+            assertEquals("1,2-0,1", Move.toString(result.getBestMove()));
+            assertTrue(result.getExpectedScore() > 0.9);
+        }
+        finally
+        {
+            search.shutdown();
+        }
+    }
+
+    @Test
+    public void stopsAtThePlayoutBudget()
+    {
+        MonteCarloSearch search = new MonteCarloSearch(3, 1 << 16);
+        try
+        {
+            MonteCarloResult result = search.search(new Board(), 2000, 10000);
+            assertEquals(2000, result.getPlayouts());
+            assertTrue(result.getTreeNodes() > 1);
+        }
+        finally
+        {
+            search.shutdown();
+        }
+    }
+
+    @Test
+    public void stopsWhenTheTimeBudgetRunsOut()
+    {
+        MonteCarloSearch search = new MonteCarloSearch(2, 1 << 16);
+        try
+        {
+            long start = System.nanoTime();
+            MonteCarloResult result = search.search(new Board(), Long.MAX_VALUE, 100);
+            long elapsedMillis = (System.nanoTime() - start) / 1000000;
+            assertTrue("search took " + elapsedMillis + " ms", elapsedMillis < 300);
+            assertTrue(result.getPlayouts() > 0);
+            assertTrue(result.getPlayoutsPerSecond() > 0);
+        }
+        finally
+        {
+            search.shutdown();
+        }
+    }
+
+    @Test
+    public void playsAForcedMoveWithoutPlayouts()
+    {
+        // The black man has to take the white man
+        Board board = Board.fromFen("..../..../..../..p./..P./..../..../.... b");
+        MonteCarloSearch search = new MonteCarloSearch(1, 1 << 16);
+        try
+        {
+            MonteCarloResult result = search.search(board, Long.MAX_VALUE, 10000);
+            assertTrue(Move.isCapture(result.getBestMove()));
+            assertEquals(0, result.getPlayouts());
+        }
+        finally
+        {
+            search.shutdown();
+        }
+    }
+}
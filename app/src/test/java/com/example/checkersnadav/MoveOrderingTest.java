@@ -0,0 +1,46 @@
+package com.example.checkersnadav;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Tests of the order in which the search tries moves.
+ */
+public class MoveOrderingTest
+{
+    @Test
+    public void hashMoveComesFirstThenKillersThenHistory()
+    {
+        Board board = new Board();
+        MoveList list = new MoveList();
+        MoveGenerator.generateMoves(board, list);
+        int hashMove = list.get(3);
+        int killer = list.get(5);
+        int historyMove = list.get(6);
+
+        MoveOrdering ordering = new MoveOrdering();
+        ordering.recordCutoff(board, historyMove, 4, 6); // At another ply, so it only gains history.
+        ordering.recordCutoff(board, killer, 2, 1);
+        ordering.scoreMoves(board, list, hashMove, 2);
+
+        assertEquals(hashMove, MoveOrdering.selectNext(list, 0));
+        assertEquals(killer, MoveOrdering.selectNext(list, 1));
+        assertEquals(historyMove, MoveOrdering.selectNext(list, 2));
+    }
+
+    @Test
+    public void capturesTakingMorePiecesComeFirst()
+    {
+        // Only the jump from 2,3 over 3,4 can continue, over 5,6
+        Board board = Board.fromFen("..../..../.pp./.PP./..../...P/..../.... w");
+        MoveList list = new MoveList();
+        MoveGenerator.generateMoves(board, list);
+
+        MoveOrdering ordering = new MoveOrdering();
+        ordering.scoreMoves(board, list, Move.NONE, 0);
+        int first = MoveOrdering.selectNext(list, 0);
+        assertEquals(Bitboard.squareOf(2, 3), Move.from(first));
+        assertEquals(Bitboard.squareOf(4, 5), Move.to(first));
+    }
+}
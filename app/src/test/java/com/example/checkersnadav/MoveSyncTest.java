@@ -0,0 +1,146 @@
+package com.example.checkersnadav;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests of keeping two boards in step through the move log.
+ */
+public class MoveSyncTest
+{
+    private final Board senderBoard = new Board();
+    private final MoveSync sender = new MoveSync(senderBoard);
+    private final Board receiverBoard = new Board();
+    private final MoveSync receiver = new MoveSync(receiverBoard);
+
+    @Test
+    public void movesAreReplayed()
+    {
+        MoveRecord first = play(2, 1, 3, 2);
+        assertEquals(MoveSync.Result.APPLIED, receiver.receiveMove(first));
+        MoveRecord second = play(5, 0, 4, 1);
+        assertEquals(MoveSync.Result.APPLIED, receiver.receiveMove(second));
+
+        assertEquals(senderBoard.toFen(), receiverBoard.toFen());
+        assertEquals(2, receiver.getPly());
+        assertEquals(MoveSync.Result.DUPLICATE, sender.receiveMove(second)); // The sender's own move coming back.
+    }
+
+    @Test
+    public void movesThatArriveEarlyWaitForTheirTurn()
+    {
+        MoveRecord first = play(2, 1, 3, 2);
+        MoveRecord second = play(5, 0, 4, 1);
+        assertEquals(MoveSync.Result.BUFFERED, receiver.receiveMove(second));
+        assertEquals(MoveSync.Result.APPLIED, receiver.receiveMove(first));
+        assertEquals(2, receiver.getPly());
+        assertEquals(senderBoard.toFen(), receiverBoard.toFen());
+    }
+
+    @Test
+    public void aHashMismatchIsRepairedByASnapshot()
+    {
+        MoveRecord first = play(2, 1, 3, 2);
+        String position = PositionCodec.encodeToString(senderBoard);
+        first.setHash(first.getHash() + 1);
+        assertEquals(MoveSync.Result.OUT_OF_SYNC, receiver.receiveMove(first));
+        assertTrue(receiver.isOutOfSync());
+
+        MoveRecord second = play(5, 0, 4, 1);
+        assertEquals(MoveSync.Result.BUFFERED, receiver.receiveMove(second));
+        assertTrue(receiver.receiveSnapshot(position, 1));
+        assertFalse(receiver.isOutOfSync());
+        assertEquals(2, receiver.getPly());
+        assertEquals(senderBoard.toFen(), receiverBoard.toFen());
+    }
+
+    @Test
+    public void anIllegalMoveIsOutOfSync()
+    {
+        assertEquals(MoveSync.Result.OUT_OF_SYNC, receiver.receiveMove(new MoveRecord(Bitboard.squareOf(2, 1), Bitboard.squareOf(4, 3), 1, 0)));
+    }
+
+    @Test
+    public void snapshotsAreDueEveryInterval()
+    {
+        int due = 0;
+        for (int i = 1; i <= MoveSync.SNAPSHOT_INTERVAL * 2; i++)
+        {
+            sender.recordMove(0, 0, 0, 0);
+            if (sender.isSnapshotDue())
+            {
+                due++;
+                assertEquals(0, i % MoveSync.SNAPSHOT_INTERVAL);
+            }
+        }
+        assertEquals(2, due);
+    }
+
+    @Test
+    public void aLateJoinerStartsFromTheSnapshot()
+    {
+        play(2, 1, 3, 2);
+        play(5, 4, 4, 5);
+        String position = PositionCodec.encodeToString(senderBoard);
+        MoveRecord third = play(2, 3, 3, 4);
+
+        assertTrue(receiver.receiveSnapshot(position, 2));
+        assertFalse(receiver.receiveSnapshot(position, 2)); // Nothing new.
+        assertEquals(MoveSync.Result.APPLIED, receiver.receiveMove(third));
+        assertEquals(senderBoard.toFen(), receiverBoard.toFen());
+    }
+
+    @Test
+    public void aConflictingMoveTakesBackTheUnconfirmedOnes()
+    {
+        MoveRecord first = play(2, 1, 3, 2);
+        receiver.receiveMove(first);
+        String before = receiverBoard.toFen();
+        assertTrue(receiverBoard.move(5, 0, 4, 1));
+        MoveRecord mine = receiver.recordMove(5, 0, 4, 1);
+        assertTrue(receiver.hasUnconfirmedMoves());
+        assertEquals(MoveSync.Result.DUPLICATE, receiver.receiveMove(mine)); // The echo changes nothing.
+
+        MoveRecord theirs = play(5, 2, 4, 3); // Accepted at the same ply, from a stale board.
+        assertEquals(MoveSync.Result.ROLLED_BACK, receiver.receiveMove(theirs));
+        assertFalse(receiver.hasUnconfirmedMoves());
+        assertEquals(2, receiver.getPly());
+        assertEquals(senderBoard.toFen(), receiverBoard.toFen());
+        assertTrue(!before.equals(receiverBoard.toFen()));
+    }
+
+    @Test
+    public void aFailedWriteIsTakenBack()
+    {
+        String start = senderBoard.toFen();
+        MoveRecord first = play(2, 1, 3, 2);
+        String afterFirst = senderBoard.toFen();
+        MoveRecord second = play(5, 0, 4, 1);
+        MoveRecord third = play(3, 2, 5, 0); // The capture white has to make.
+        sender.confirmMoves(first.getPly());
+
+        assertEquals(2, sender.rollback(second)); // With the move made after it.
+        assertEquals(afterFirst, senderBoard.toFen());
+        assertEquals(1, sender.getPly());
+        assertEquals(0, sender.rollback(third));
+        assertTrue(!start.equals(senderBoard.toFen()));
+
+        // A late failure of the old move must not take back the new move made at its ply
+        play(5, 4, 4, 5);
+        String afterRetry = senderBoard.toFen();
+        assertEquals(0, sender.rollback(second));
+        assertEquals(afterRetry, senderBoard.toFen());
+    }
+
+    /**
+     * Makes a move on the sender's board and records it.
+     */
+    private MoveRecord play(int xSrc, int ySrc, int xDst, int yDst)
+    {
+        assertTrue(senderBoard.move(xSrc, ySrc, xDst, yDst));
+        return sender.recordMove(xSrc, ySrc, xDst, yDst);
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.checkersnadav;
+
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests of the online load simulator.
+ */
+public class OnlineLoadSimulatorTest
+{
+    @Test
+    public void allMatchesArePlayed() throws InterruptedException
+    {
+        OnlineLoadSimulator simulator = new OnlineLoadSimulator(20, 2, 0, 0.2, 0.05);
+        assertTrue(simulator.run(60000));
+        assertTrue(simulator.getMoves() >= 20 * 10);
+        assertTrue(simulator.getLatencyMillis(99) >= simulator.getLatencyMillis(50));
+        assertTrue(simulator.getBytesPerMove() > 0);
+        assertTrue(simulator.getCallbacksPerMove() >= 4); // The move and the state, for both players.
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.checkersnadav;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Test;
+
+/**
+ * Tests of the opening book and its builder.
+ */
+public class OpeningBookTest
+{
+    private static final String[] GAMES = {
+            "2,1-3,2 5,0-4,1 WHITE",
+            "2,1-3,2 5,2-4,3 BLACK",
+            "2,1-3,2 5,0-4,1 DRAW",
+            "2,3-3,4 5,0-4,1 BLACK"
+    };
+
+    @Test
+    public void theMostPlayedMoveIsChosen() throws IOException
+    {
+        OpeningBook book = build(2, GAMES);
+        assertEquals(5, book.getEntryCount());
+
+        Board board = new Board();
+        assertEquals("2,1-3,2", Move.toString(probe(book, board)));
+        board.move(2, 1, 3, 2);
+        assertEquals("5,0-4,1", Move.toString(probe(book, board))); // Played twice, although it scored worse.
+    }
+
+    @Test
+    public void tiesGoToTheMoveThatScoredBetter() throws IOException
+    {
+        OpeningBook book = build(1, "2,3-3,4 BLACK", "2,1-3,2 WHITE");
+        assertEquals("2,1-3,2", Move.toString(probe(book, new Board())));
+        assertEquals(1, book.getGames(0));
+        assertEquals(1000, Math.abs(book.getScore(0)));
+    }
+
+    @Test
+    public void positionsBeyondThePliesAreNotInTheBook() throws IOException
+    {
+        OpeningBook book = build(1, GAMES);
+        assertEquals(1, book.getPlies());
+
+        Board board = new Board();
+        board.move(2, 1, 3, 2);
+        assertEquals(Move.NONE, probe(book, board));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void illegalMovesAreRejected()
+    {
+        new OpeningBookBuilder(4).addGame("2,1-4,3 WHITE");
+    }
+
+    @Test
+    public void searchPlaysBookMovesWithoutSearching() throws IOException
+    {
+        SearchEngine engine = new SearchEngine();
+        engine.setOpeningBook(build(2, GAMES));
+
+        Board board = new Board();
+        SearchResult result = engine.search(board, 6, 1000);
+        assertEquals("2,1-3,2", Move.toString(result.getBestMove()));
+        assertEquals(0, result.getNodes());
+
+        board.move(2, 1, 3, 2);
+        board.move(5, 0, 4, 1);
+        result = engine.search(board, 6, 1000);
+        assertEquals(6, result.getDepth()); // Out of the book, so searched as usual.
+        assertTrue(result.getNodes() > 0);
+    }
+
+    private static OpeningBook build(int plies, String... games) throws IOException
+    {
+        OpeningBookBuilder builder = new OpeningBookBuilder(plies);
+        for (String game : games)
+        {
+            builder.addGame(game);
+        }
+        File file = File.createTempFile("book", ".bin");
+        file.deleteOnExit();
+        builder.write(file);
+        return OpeningBook.open(file);
+    }
+
+    private static int probe(OpeningBook book, Board board)
+    {
+        MoveList moves = new MoveList();
+        MoveGenerator.generateMoves(board, moves);
+        return book.probe(board, moves);
+    }
+}
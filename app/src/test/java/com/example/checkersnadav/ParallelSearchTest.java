@@ -0,0 +1,77 @@
+package com.example.checkersnadav;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests of the multi-threaded search.
+ */
+public class ParallelSearchTest
+{
+    @Test
+    public void findsTheSameMoveAsOneThread()
+    {
+        Board board = Board.fromFen("..../..../.p../.P../..../.P../..../.... w");
+        ParallelSearch search = new ParallelSearch(4, 1);
+        try
+        {
+            SearchResult result = search.search(board, 10, 1000);
+            assertEquals(new SearchEngine().search(board, 10, 1000).getBestMove(), result.getBestMove());
+            assertTrue(result.getScore() >= SearchEngine.WIN_SCORE - SearchEngine.MAX_PLY);
+        }
+        finally
+        {
+            search.shutdown();
+        }
+    }
+
+    @Test
+    public void stopsAllThreadsWhenTheTimeBudgetRunsOut() throws InterruptedException
+    {
+        ParallelSearch search = new ParallelSearch(3, 1);
+        try
+        {
+            for (int i = 0; i < 3; i++)
+            {
+                // Without the budget a search to MAX_PLY from the start would not end, so the bound only has to be loose
+                long start = System.nanoTime();
+                SearchResult result = search.search(new Board(), SearchEngine.MAX_PLY, 100);
+                long elapsedMillis = (System.nanoTime() - start) / 1000000;
+                assertTrue("search took " + elapsedMillis + " ms", elapsedMillis < 10000);
+                assertTrue(result.getDepth() > 0);
+                assertHelpersAreIdle();
+            }
+        }
+        finally
+        {
+            search.shutdown();
+        }
+    }
+
+    /**
+     * Waits until every helper thread is back waiting for work, and fails if one is still searching after a few seconds.
+     */
+    private static void assertHelpersAreIdle() throws InterruptedException
+    {
+        long deadline = System.nanoTime() + 5000000000L;
+        while (true)
+        {
+            boolean idle = true;
+            for (Thread thread : Thread.getAllStackTraces().keySet())
+            {
+                if (thread.getName().startsWith("search-helper-") && thread.getState() == Thread.State.RUNNABLE)
+                {
+                    idle = false;
+                }
+            }
+            if (idle)
+            {
+                return;
+            }
+            assertTrue("a helper thread is still searching", System.nanoTime() < deadline);
+            Thread.sleep(10);
+        }
+    }
+}
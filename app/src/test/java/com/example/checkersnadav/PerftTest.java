@@ -0,0 +1,73 @@
+package com.example.checkersnadav;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.util.Map;
+
+/**
+ * Pins the perft node counts of the move rules, so that any change in how moves, captures,
+ * multi-captures or promotions are handled shows up as a changed count.
+ */
+public class PerftTest
+{
+    private static final String MULTI_CAPTURE = "..../..../.p../.P../..../.P../..../K... w";
+    private static final String PROMOTION_DURING_CAPTURE = "..../..P./..../..../..../p.../PP../.... w";
+    private static final String KING_ENDGAME = "k.../..../..p./..../..../.P../..../...K w";
+    private static final String PENDING_CONTINUATION = "p.../..../..../..../p.../.P../..../K... w 4,1";
+    private static final String CROWDED_MIDGAME = "pppp/.p.p/...p/PpP./P..p/.P../...P/Pk.P b 3,2";
+    private static final String FLYING_KINGS = "K.../k.../..../p.../..../PK.p/..../.... b 5,6";
+
+    @Test
+    public void startPosition()
+    {
+        long[] expected = {1, 7, 49, 302, 1469, 7350, 36644, 177113, 823348};
+        assertCounts(Perft.START_POSITION, expected);
+    }
+
+    @Test
+    public void customPositions()
+    {
+        assertCounts(MULTI_CAPTURE, new long[]{1, 1, 1, 7, 13, 123, 772});
+        assertCounts(PROMOTION_DURING_CAPTURE, new long[]{1, 1, 4, 7, 57, 353, 2603});
+        assertCounts(KING_ENDGAME, new long[]{1, 9, 79, 629, 4553, 31709, 219405});
+        assertCounts(PENDING_CONTINUATION, new long[]{1, 1, 7, 25, 232, 1292, 9811});
+        assertCounts(CROWDED_MIDGAME, new long[]{1, 1, 13, 53, 234, 884, 3936});
+        assertCounts(FLYING_KINGS, new long[]{1, 1, 8, 112, 840, 9666, 65330});
+    }
+
+    @Test
+    public void generatorMatchesValidation()
+    {
+        String[] positions = {Perft.START_POSITION, MULTI_CAPTURE, PROMOTION_DURING_CAPTURE, KING_ENDGAME, PENDING_CONTINUATION, CROWDED_MIDGAME, FLYING_KINGS};
+        Perft perft = new Perft(4);
+        for (String fen : positions)
+        {
+            Board board = Board.fromFen(fen);
+            assertEquals(fen, Perft.perftByValidation(board, 4), perft.perft(board, 4));
+        }
+    }
+
+    @Test
+    public void divideSumsToPerft()
+    {
+        Board board = Board.fromFen(Perft.START_POSITION);
+        long total = 0;
+        for (Map.Entry<String, Long> entry : new Perft(5).divide(board, 5).entrySet())
+        {
+            total += entry.getValue();
+        }
+        assertEquals(7350, total);
+    }
+
+    private static void assertCounts(String fen, long[] expected)
+    {
+        Board board = Board.fromFen(fen);
+        Perft perft = new Perft(expected.length - 1);
+        for (int depth = 0; depth < expected.length; depth++)
+        {
+            assertEquals(fen + " depth " + depth, expected[depth], perft.perft(board, depth));
+        }
+    }
+}
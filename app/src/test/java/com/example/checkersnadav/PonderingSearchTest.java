@@ -0,0 +1,74 @@
+package com.example.checkersnadav;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests of searching on the player's time.
+ */
+public class PonderingSearchTest
+{
+    private static final long BUDGET_MILLIS = 60000; // So large that the depth limit ends every search, even on a slow machine.
+
+    @Test
+    public void reusesThePonderingWhenThePredictionIsRight()
+    {
+        Game game = new Game();
+        PonderingSearch search = new PonderingSearch(new SearchEngine());
+        game.setMoveListener(search);
+        try
+        {
+            play(game, search.search(game.getBoard(), 8, BUDGET_MILLIS).getBestMove());
+            assertTrue(search.isPondering());
+
+            play(game, search.getPredictedMove());
+            assertTrue(search.isPondering());
+            SearchResult result = search.search(game.getBoard(), 8, BUDGET_MILLIS);
+            assertEquals(1, search.getPonderHits());
+            assertEquals(8, result.getDepth());
+            assertNotEquals(Move.NONE, result.getBestMove());
+        }
+        finally
+        {
+            search.shutdown();
+        }
+    }
+
+    @Test
+    public void stopsPonderingWhenThePlayerMakesAnotherMove()
+    {
+        Game game = new Game();
+        PonderingSearch search = new PonderingSearch(new SearchEngine());
+        game.setMoveListener(search);
+        try
+        {
+            play(game, search.search(game.getBoard(), 8, BUDGET_MILLIS).getBestMove());
+            int predicted = search.getPredictedMove();
+            MoveList moves = new MoveList();
+            MoveGenerator.generateMoves(game.getBoard(), moves);
+            int other = moves.get(0) == predicted ? moves.get(1) : moves.get(0);
+            assertNotEquals(predicted, other);
+
+            play(game, other);
+            assertFalse(search.isPondering());
+            SearchResult result = search.search(game.getBoard(), 6, BUDGET_MILLIS);
+            assertEquals(1, search.getPonderMisses());
+            assertEquals(0, search.getPonderHits());
+            assertEquals(6, result.getDepth());
+        }
+        finally
+        {
+            search.shutdown();
+        }
+    }
+
+    private static void play(Game game, int move)
+    {
+        assertTrue(game.makeMove(Bitboard.toX(Move.from(move)), Bitboard.toY(Move.from(move)),
+                Bitboard.toX(Move.to(move)), Bitboard.toY(Move.to(move))));
+    }
+}
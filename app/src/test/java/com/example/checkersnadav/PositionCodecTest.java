@@ -0,0 +1,88 @@
+package com.example.checkersnadav;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests of the compact position encoding used by online games.
+ */
+public class PositionCodecTest
+{
+    @Test
+    public void theStartPositionRoundTrips()
+    {
+        assertRoundTrip(new Board());
+    }
+
+    @Test
+    public void aPendingCaptureRoundTrips()
+    {
+        Board board = Board.fromFen("..../..../..../..../..p./..P./..../.... w 4,5"); // White jumped to 4,5 and must jump on.
+        assertTrue(board.getCaptureContinuationSquare() != Bitboard.NONE);
+        Board decoded = assertRoundTrip(board);
+        assertEquals(board.getCaptureContinuationSquare(), decoded.getCaptureContinuationSquare());
+    }
+
+    @Test
+    public void theDrawCounterRoundTrips()
+    {
+        Board board = Board.fromFen("..k./..../..../..../..../..../..../K... w");
+        board.setMovesSinceCaptureOrKing(37);
+        assertEquals(37, assertRoundTrip(board).getMovesSinceCaptureOrKing());
+    }
+
+    @Test
+    public void bytesAndTextDecodeAlike()
+    {
+        Board board = new Board();
+        board.move(2, 1, 3, 2);
+        byte[] bytes = new byte[PositionCodec.SIZE + 3];
+        PositionCodec.encode(board, bytes, 3);
+
+        Board decoded = new Board();
+        PositionCodec.decode(bytes, 3, decoded);
+        assertEquals(board.toFen(), decoded.toFen());
+        assertEquals(board.getHash(), decoded.getHash());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void textOfTheWrongLengthIsRejected()
+    {
+        PositionCodec.decode("AAAA", new Board());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void textWithBadCharactersIsRejected()
+    {
+        PositionCodec.decode("AAAAAAAAAAAAAAA*", new Board());
+    }
+
+    @Test
+    public void theBoardSerializerStillRoundTrips()
+    {
+        Board board = Board.fromFen("pppp/.p.p/...p/PpP./P..p/.P../...P/Pk.P b 3,2");
+        Board decoded = Board.fromFen(board.toFen());
+        BoardSerializer.deserialize(BoardSerializer.serialize(new Board()), decoded);
+        BoardSerializer.deserialize(BoardSerializer.serialize(board), decoded);
+        assertEquals(board.toFen(), decoded.toFen());
+        assertEquals(board.getHash(), decoded.getHash());
+    }
+
+    /**
+     * Encodes a board as text and decodes it into a board that held another position.
+     */
+    private static Board assertRoundTrip(Board board)
+    {
+        String text = PositionCodec.encodeToString(board);
+        assertEquals(PositionCodec.TEXT_LENGTH, text.length());
+
+        Board decoded = Board.fromFen("..../..../..K./..../..../.p../..../.... w");
+        PositionCodec.decode(text, decoded);
+        assertEquals(board.toFen(), decoded.toFen());
+        assertEquals(board.getHash(), decoded.getHash());
+        assertEquals(board.getMovesSinceCaptureOrKing(), decoded.getMovesSinceCaptureOrKing());
+        return decoded;
+    }
+}
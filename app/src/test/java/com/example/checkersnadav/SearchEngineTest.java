@@ -0,0 +1,69 @@
+package com.example.checkersnadav;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests of the computer opponent's search.
+ */
+public class SearchEngineTest
+{
+    @Test
+    public void returnsALegalMove()
+    {
+        Board board = new Board();
+        SearchResult result = new SearchEngine().search(board, 6, 1000);
+        int move = result.getBestMove();
+        assertNotEquals(Move.NONE, move);
+        assertTrue(board.isValidMove(Bitboard.toX(Move.from(move)), Bitboard.toY(Move.from(move)), Bitboard.toX(Move.to(move)), Bitboard.toY(Move.to(move))));
+        assertEquals(6, result.getDepth());
+    }
+
+    @Test
+    public void stopsWhenTheTimeBudgetRunsOut()
+    {
+        long start = System.nanoTime();
+        SearchResult result = new SearchEngine().search(new Board(), SearchEngine.MAX_PLY, 100);
+        long elapsedMillis = (System.nanoTime() - start) / 1000000;
+        assertTrue("search took " + elapsedMillis + " ms", elapsedMillis < 300);
+        assertTrue(result.getDepth() > 0);
+        assertTrue(result.getNodes() > 0);
+    }
+
+    @Test
+    public void takesTheOnlyCaptureAndSeesTheWin()
+    {
+        // White's man must jump twice, which captures all of Black's pieces
+        Board board = Board.fromFen("..../..../.p../.P../..../.P../..../.... w");
+        SearchResult result = new SearchEngine().search(board, 10, 1000);
+        assertEquals(Bitboard.squareOf(2, 3), Move.from(result.getBestMove()));
+        assertTrue(result.getScore() >= SearchEngine.WIN_SCORE - SearchEngine.MAX_PLY);
+    }
+
+    @Test
+    public void quiescenceSeesCapturesBeyondTheHorizon()
+    {
+        // Moving 3,2 to the center square 4,3 looks best at depth 1, but Black then captures it from 5,4
+        Board board = Board.fromFen("p.../..../..../.p../..../..P./..../...P w");
+        SearchEngine withoutQuiescence = new SearchEngine();
+        withoutQuiescence.setQuiescenceNodeLimit(0);
+        SearchResult horizon = withoutQuiescence.search(board, 1, 1000);
+        assertEquals(Bitboard.squareOf(4, 3), Move.to(horizon.getBestMove()));
+        assertEquals(0, horizon.getQuiescenceNodes());
+
+        SearchResult result = new SearchEngine().search(board, 1, 1000);
+        assertNotEquals(Bitboard.squareOf(4, 3), Move.to(result.getBestMove()));
+        assertTrue(result.getQuiescenceNodes() > 0);
+        assertTrue(result.getNodes() > result.getQuiescenceNodes());
+    }
+
+    @Test
+    public void reportsNoMoveWhenThereIsNone()
+    {
+        Board board = Board.fromFen(".pp./p..p/p.../.kp./..../..../...p/.... b");
+        assertEquals(Move.NONE, new SearchEngine().search(board, 4, 1000).getBestMove());
+    }
+}
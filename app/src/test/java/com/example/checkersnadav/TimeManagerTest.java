@@ -0,0 +1,93 @@
+package com.example.checkersnadav;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests of the time management of timed games.
+ */
+public class TimeManagerTest
+{
+    @Test
+    public void aForcedCaptureIsPlayedAtOnce()
+    {
+        Board board = Board.fromFen("..../..../..../..p./..P./..../..../.... b");
+        TimeManager timeManager = new TimeManager();
+        timeManager.startMove(board, 10, 60000, 0);
+        assertTrue(timeManager.isForced());
+
+        SearchResult result = new SearchEngine().search(board, SearchEngine.MAX_PLY, timeManager);
+        assertTrue(Move.isCapture(result.getBestMove()));
+        assertEquals(0, result.getNodes());
+    }
+
+    @Test
+    public void theLimitsFollowTheClock()
+    {
+        TimeManager timeManager = new TimeManager();
+        timeManager.startMove(new Board(), 1, 60000, 0);
+        long soft = timeManager.getSoftLimitMillis();
+        assertFalse(timeManager.isForced());
+        assertTrue(soft > 0);
+        assertTrue(timeManager.getHardLimitMillis() >= soft);
+        assertTrue(timeManager.getHardLimitMillis() <= 60000 / 3);
+
+        timeManager.startMove(new Board(), 1, 6000, 0);
+        assertTrue(timeManager.getSoftLimitMillis() < soft);
+        timeManager.startMove(new Board(), 1, 60000, 2000);
+        assertTrue(timeManager.getSoftLimitMillis() > soft);
+        timeManager.startMove(new Board(), 40, 60000, 0);
+        assertTrue(timeManager.getSoftLimitMillis() > soft); // Fewer moves are left to share the time with.
+    }
+
+    @Test
+    public void aStableBestMoveStopsTheSearchEarlier()
+    {
+        TimeManager timeManager = new TimeManager();
+        timeManager.startMove(new Board(), 1, 60000, 0);
+        long elapsed = timeManager.getSoftLimitMillis() * 1000000L * 8 / 10;
+        int move = Move.create(9, 13, Bitboard.NONE, false);
+        int other = Move.create(9, 12, Bitboard.NONE, false);
+
+        assertTrue(timeManager.shouldStartIteration(move, elapsed));
+        assertTrue(timeManager.shouldStartIteration(move, elapsed));
+        assertTrue(timeManager.shouldStartIteration(move, elapsed));
+        assertFalse(timeManager.shouldStartIteration(move, elapsed));
+        assertTrue(timeManager.shouldStartIteration(other, elapsed)); // A change of mind earns more time.
+    }
+
+    @Test
+    public void noIterationStartsAfterTheHardLimit()
+    {
+        TimeManager timeManager = new TimeManager();
+        long before = System.nanoTime();
+        timeManager.startMove(new Board(), 1, 3000, 0);
+        long hard = timeManager.getHardLimitMillis() * 1000000L;
+        assertTrue(timeManager.getHardDeadline() >= before + hard);
+        assertTrue(timeManager.getHardDeadline() <= System.nanoTime() + hard);
+
+        // Even a best move that keeps changing, which earns the most time, gets no iteration past the hard limit
+        int move = Move.create(9, 13, Bitboard.NONE, false);
+        int other = Move.create(9, 12, Bitboard.NONE, false);
+        assertTrue(timeManager.shouldStartIteration(move, 0));
+        assertFalse(timeManager.shouldStartIteration(other, hard));
+        assertFalse(timeManager.shouldStartIteration(move, hard * 2));
+    }
+
+    @Test
+    public void theSearchStopsAtTheHardLimit()
+    {
+        Board board = new Board();
+        TimeManager timeManager = new TimeManager();
+        timeManager.startMove(board, 1, 3000, 0);
+        long start = System.nanoTime();
+        SearchResult result = new SearchEngine().search(board, SearchEngine.MAX_PLY, timeManager);
+        long elapsedMillis = (System.nanoTime() - start) / 1000000;
+        // The search only looks at the clock every few nodes, so the bound is loose; without the limit it would not end
+        assertTrue("search took " + elapsedMillis + " ms", elapsedMillis < timeManager.getHardLimitMillis() + 5000);
+        assertTrue(result.getDepth() > 0);
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.checkersnadav;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Tests of the shared transposition table.
+ */
+public class TranspositionTableTest
+{
+    @Test
+    public void storedEntriesCanBeProbed()
+    {
+        TranspositionTable table = new TranspositionTable(1);
+        long key = new Board().getHash();
+        int move = Move.create(9, 13, Bitboard.NONE, false);
+        table.store(key, move, -1234, 7, TranspositionTable.BOUND_LOWER);
+
+        long entry = table.probe(key);
+        assertEquals(move, TranspositionTable.move(entry));
+        assertEquals(-1234, TranspositionTable.score(entry));
+        assertEquals(7, TranspositionTable.depth(entry));
+        assertEquals(TranspositionTable.BOUND_LOWER, TranspositionTable.bound(entry));
+        assertEquals(0, table.probe(key + 1));
+    }
+
+    @Test
+    public void keepsTheBestMoveWhenAnUpdateHasNone()
+    {
+        TranspositionTable table = new TranspositionTable(1);
+        int move = Move.create(9, 13, Bitboard.NONE, false);
+        table.store(42, move, 10, 3, TranspositionTable.BOUND_EXACT);
+        table.store(42, Move.NONE, -50, 4, TranspositionTable.BOUND_UPPER);
+
+        long entry = table.probe(42);
+        assertEquals(move, TranspositionTable.move(entry));
+        assertEquals(-50, TranspositionTable.score(entry));
+        assertEquals(4, TranspositionTable.depth(entry));
+    }
+
+    @Test
+    public void replacesEntriesOfOlderSearchesFirst()
+    {
+        TranspositionTable table = new TranspositionTable(1);
+        long stride = (long) table.capacity() / 2 << 16; // Keys that differ by this much share a bucket.
+        table.store(1, Move.NONE, 0, 20, TranspositionTable.BOUND_EXACT);
+        table.newSearch();
+        table.store(1 + stride, Move.NONE, 0, 2, TranspositionTable.BOUND_EXACT);
+        table.store(1 + 2 * stride, Move.NONE, 0, 1, TranspositionTable.BOUND_EXACT);
+
+        assertEquals(0, table.probe(1));
+        assertEquals(2, TranspositionTable.depth(table.probe(1 + stride)));
+        assertEquals(1, TranspositionTable.depth(table.probe(1 + 2 * stride)));
+    }
+
+    @Test
+    public void clearRemovesAllEntries()
+    {
+        TranspositionTable table = new TranspositionTable(1);
+        table.store(42, Move.NONE, 0, 1, TranspositionTable.BOUND_EXACT);
+        table.clear();
+        assertEquals(0, table.probe(42));
+    }
+}
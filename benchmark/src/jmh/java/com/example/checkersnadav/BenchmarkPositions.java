@@ -0,0 +1,37 @@
+package com.example.checkersnadav;
+
+/**
+ * Fixture positions shared by the benchmarks, in the format of Board.fromFen().
+ */
+public final class BenchmarkPositions
+{
+    public static final String OPENING = "pppp/pppp/pppp/..../..../PPPP/PPPP/PPPP w 7,6";
+    public static final String MIDGAME = "pppp/.p.p/...p/PpP./P..p/.P../...P/Pk.P b 3,2";
+    public static final String ENDGAME = "K.../k.../..../p.../..../PK.p/..../.... b 5,6";
+
+    private BenchmarkPositions()
+    {
+        // Constants only.
+    }
+
+    /**
+     * Gets a fixture position by its name.
+     *
+     * @param name "opening", "midgame" or "endgame".
+     * @return The position description.
+     */
+    public static String byName(String name)
+    {
+        switch (name)
+        {
+            case "opening":
+                return OPENING;
+            case "midgame":
+                return MIDGAME;
+            case "endgame":
+                return ENDGAME;
+            default:
+                throw new IllegalArgumentException("Unknown position: " + name);
+        }
+    }
+}
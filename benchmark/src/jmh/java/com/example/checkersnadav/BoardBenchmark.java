@@ -0,0 +1,103 @@
+package com.example.checkersnadav;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the hot paths of the Board rules on the opening, crowded midgame and king endgame fixtures.
+ * Run with ./gradlew :benchmark:jmh; the gc profiler reports the allocation rate of every benchmark.
+ */
+@State(Scope.Thread)
+public class BoardBenchmark
+{
+    @Param({"opening", "midgame", "endgame"})
+    public String position;
+
+    private Board board; // The fixture position, never modified by the benchmarks.
+    private Board scratch; // A board that move() benchmarks play on.
+    private MoveList moves;
+    private Evaluation evaluation;
+    private int firstMove;
+    private int xSrc;
+    private int ySrc;
+    private int xDst;
+    private int yDst;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        board = Board.fromFen(BenchmarkPositions.byName(position));
+        scratch = new Board(board);
+        moves = new MoveList();
+        evaluation = Evaluation.getDefault();
+
+        // Benchmark the first legal move of the position
+        MoveGenerator.generateMoves(board, moves);
+        firstMove = moves.get(0);
+        xSrc = Bitboard.toX(Move.from(firstMove));
+        ySrc = Bitboard.toY(Move.from(firstMove));
+        xDst = Bitboard.toX(Move.to(firstMove));
+        yDst = Bitboard.toY(Move.to(firstMove));
+    }
+
+    @Benchmark
+    public Board copyBoard()
+    {
+        scratch.copyFrom(board); // Baseline for move(), which has to restore the position every time.
+        return scratch;
+    }
+
+    @Benchmark
+    public boolean move()
+    {
+        scratch.copyFrom(board);
+        return scratch.move(xSrc, ySrc, xDst, yDst);
+    }
+
+    @Benchmark
+    public Board makeUnmakeMove()
+    {
+        scratch.unmakeMove(scratch.makeMove(firstMove));
+        return scratch;
+    }
+
+    @Benchmark
+    public boolean isValidMove()
+    {
+        return board.isValidMove(xSrc, ySrc, xDst, yDst);
+    }
+
+    @Benchmark
+    public String getWinner()
+    {
+        return board.getWinner();
+    }
+
+    @Benchmark
+    public String checkGameStatus()
+    {
+        return board.checkGameStatus();
+    }
+
+    @Benchmark
+    public boolean playerHasMandatoryCapture()
+    {
+        return board.playerHasMandatoryCapture();
+    }
+
+    @Benchmark
+    public int generateMoves()
+    {
+        return MoveGenerator.generateMoves(board, moves);
+    }
+
+    @Benchmark
+    public int evaluate()
+    {
+        return evaluation.evaluate(board);
+    }
+}
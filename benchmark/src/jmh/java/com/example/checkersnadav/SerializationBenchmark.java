@@ -0,0 +1,58 @@
+package com.example.checkersnadav;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the board state encoding that OnlineGame sends to and reads from Firebase on every move.
+ */
+@State(Scope.Thread)
+public class SerializationBenchmark
+{
+    @Param({"opening", "midgame", "endgame"})
+    public String position;
+
+    private Board board;
+    private Board target;
+    private String boardState;
+    private String encodedPosition;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        board = Board.fromFen(BenchmarkPositions.byName(position));
+        target = new Board();
+        boardState = BoardSerializer.serialize(board);
+        encodedPosition = PositionCodec.encodeToString(board);
+    }
+
+    @Benchmark
+    public String serializeBoardState()
+    {
+        return BoardSerializer.serialize(board);
+    }
+
+    @Benchmark
+    public Board deserializeBoardState()
+    {
+        BoardSerializer.deserialize(boardState, target);
+        return target;
+    }
+
+    @Benchmark
+    public String encodePosition()
+    {
+        return PositionCodec.encodeToString(board);
+    }
+
+    @Benchmark
+    public Board decodePosition()
+    {
+        PositionCodec.decode(encodedPosition, target);
+        return target;
+    }
+}
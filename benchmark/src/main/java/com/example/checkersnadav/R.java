@@ -0,0 +1,16 @@
+package com.example.checkersnadav;
+
+/**
+ * Stands in for the resource class that the Android build generates for the app,
+ * so that Piece compiles outside of Android. The values are never shown anywhere.
+ */
+public final class R
+{
+    public static final class drawable
+    {
+        public static final int black_king = 1;
+        public static final int black_piece = 2;
+        public static final int white_king = 3;
+        public static final int white_piece = 4;
+    }
+}
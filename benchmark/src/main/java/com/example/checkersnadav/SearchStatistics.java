@@ -0,0 +1,77 @@
+package com.example.checkersnadav;
+
+import java.util.Locale;
+
+/**
+ * Searches a fixed set of positions to a fixed depth and reports how many nodes the search needed,
+ * to compare search features on the desktop JVM.
+ * Run with ./gradlew :benchmark:searchStatistics -PsearchStatisticsArgs="DEPTH".
+ */
+public final class SearchStatistics
+{
+    private static final String[] POSITIONS = {
+            "pppp/pppp/pppp/..../..../PPPP/PPPP/PPPP w 7,6",
+            "pppp/pppp/.ppp/p.../.P../PP.P/PPPP/PPPP b",
+            "pppp/.p.p/...p/PpP./P..p/.P../...P/Pk.P b 3,2",
+            "pp.p/p.pp/.p.p/p.p./.P.P/P.PP/PPP./P.PP w",
+            "..../.p.p/p.../...P/.k../P.P./..K./.... w",
+            "K.../k.../..../p.../..../PK.p/..../.... b 5,6"
+    };
+    private static final long NO_TIME_LIMIT = 24L * 60 * 60 * 1000; // A day, so that only the depth limits the searches.
+
+    private SearchStatistics()
+    {
+        // Command line tool only.
+    }
+
+    /**
+     * Compares the node counts of searches with and without move ordering, and with and without quiescence search.
+     * Usage: SearchStatistics [DEPTH]
+     *
+     * @param args The depth to search to (by default 12).
+     */
+    public static void main(String[] args)
+    {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 12;
+        long orderedTotal = 0;
+        long unorderedTotal = 0;
+        long mainTotal = 0;
+        long quiescenceTotal = 0;
+        long withoutQuiescenceTotal = 0;
+        for (String fen : POSITIONS)
+        {
+            Board board = Board.fromFen(fen);
+            SearchResult ordered = search(board, depth, true, true);
+            SearchResult unordered = search(board, depth, false, true);
+            SearchResult withoutQuiescence = search(board, depth, true, false);
+            orderedTotal += ordered.getNodes();
+            unorderedTotal += unordered.getNodes();
+            mainTotal += ordered.getNodes() - ordered.getQuiescenceNodes();
+            quiescenceTotal += ordered.getQuiescenceNodes();
+            withoutQuiescenceTotal += withoutQuiescence.getNodes();
+
+            System.out.println("Position: " + fen);
+            System.out.println("  with ordering:      " + ordered);
+            System.out.println("  without ordering:   " + unordered);
+            System.out.println("  without quiescence: " + withoutQuiescence);
+        }
+        System.out.println(String.format(Locale.US, "Depth %d: %d nodes with ordering, %d nodes without, %.1f%% fewer",
+                depth, orderedTotal, unorderedTotal, 100.0 * (unorderedTotal - orderedTotal) / Math.max(1, unorderedTotal)));
+        System.out.println(String.format(Locale.US, "Quiescence: %d main search nodes and %d quiescence nodes (%.1f%%), %d nodes without quiescence",
+                mainTotal, quiescenceTotal, 100.0 * quiescenceTotal / Math.max(1, orderedTotal), withoutQuiescenceTotal));
+    }
+
+    /**
+     * Searches a position with a fresh engine, so that no search benefits from the table of another.
+     */
+    private static SearchResult search(Board board, int depth, boolean moveOrdering, boolean quiescence)
+    {
+        SearchEngine engine = new SearchEngine();
+        engine.setMoveOrdering(moveOrdering);
+        if (!quiescence)
+        {
+            engine.setQuiescenceNodeLimit(0);
+        }
+        return engine.search(board, depth, NO_TIME_LIMIT);
+    }
+}